@@ -22,11 +22,11 @@ public @interface EnhanceElementMap {
     /**
      * 参数处理器，作为参数时处理，可以添加多个按顺序处理
      */
-    Class<? extends Function<Object, Object>>[] parameterHandler() default {};
+    Class<? extends Function<?, ?>>[] parameterHandler() default {};
 
     /**
      * 结果处理器，作为返回结果时处理，可以添加多个按顺序执行处理
      */
-    Class<? extends Function<Object, Object>>[] resultHandler() default {};
+    Class<? extends Function<?, ?>>[] resultHandler() default {};
 
 }
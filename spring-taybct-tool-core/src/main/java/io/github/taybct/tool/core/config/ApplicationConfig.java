@@ -9,6 +9,7 @@ import io.github.taybct.tool.core.constant.ISysParamsObtainService;
 import io.github.taybct.tool.core.constant.PropertyParams;
 import io.github.taybct.tool.core.enhance.DefaultMethodEnhanceHandler;
 import io.github.taybct.tool.core.enhance.EnDecryptedHandler;
+import io.github.taybct.tool.core.enhance.EnhanceProperties;
 import io.github.taybct.tool.core.exception.handler.DefaultExceptionPrinter;
 import io.github.taybct.tool.core.exception.handler.DefaultExceptionReporter;
 import io.github.taybct.tool.core.exception.handler.IGlobalExceptionReporter;
@@ -51,7 +52,8 @@ import java.util.TimeZone;
         , PropConfig.class
         , PropertyParams.class
         , ControllerRegisterConfigure.class
-        , MessageProperties.class})
+        , MessageProperties.class
+        , EnhanceProperties.class})
 @Slf4j
 public class ApplicationConfig {
 
@@ -160,10 +162,18 @@ public class ApplicationConfig {
         };
     }
 
+    /**
+     * 加解密增强，注册成 bean 是为了容器关闭的时候关闭它的线程池
+     */
+    @Bean
+    public EnDecryptedHandler enDecryptedHandler(EnhanceProperties enhanceProperties) {
+        return new EnDecryptedHandler(enhanceProperties);
+    }
+
     @Bean
-    public DefaultMethodEnhanceHandler defaultMethodEnhanceHandler() {
+    public DefaultMethodEnhanceHandler defaultMethodEnhanceHandler(EnDecryptedHandler enDecryptedHandler) {
         DefaultMethodEnhanceHandler defaultMethodEnhanceHandler = new DefaultMethodEnhanceHandler();
-        defaultMethodEnhanceHandler.add(new EnDecryptedHandler());
+        defaultMethodEnhanceHandler.add(enDecryptedHandler);
         return defaultMethodEnhanceHandler;
     }
 
@@ -71,5 +71,17 @@ public interface PropertiesPrefixConstants {
      * 数据权限
      */
     String DATA_SCOPE = TAYBCT + ".data-scope";
+    /**
+     * 方法增强
+     */
+    String ENHANCE = TAYBCT + ".enhance";
+    /**
+     * {@linkplain io.github.taybct.tool.core.annotation.CacheTimeOut @CacheTimeOut} 缓存
+     */
+    String CACHE_TIME_OUT = TAYBCT + ".cache-time-out";
+    /**
+     * websocket 集群
+     */
+    String WEBSOCKET_CLUSTER = TAYBCT + ".websocket.cluster";
 
 }
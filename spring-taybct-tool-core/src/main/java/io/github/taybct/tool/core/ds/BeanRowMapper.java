@@ -0,0 +1,164 @@
+package io.github.taybct.tool.core.ds;
+
+import cn.hutool.core.convert.Convert;
+import io.github.taybct.tool.core.exception.def.BaseException;
+import io.github.taybct.tool.core.util.accessor.BeanAccessor;
+import io.github.taybct.tool.core.util.accessor.PropertyAccessor;
+
+import java.lang.reflect.Constructor;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 把 {@link ResultSet} 的行直接映射成对象
+ * <br>
+ * 列名和字段的对应关系（忽略大小写和下划线，如：USER_NAME、user_name 都对应 userName）每个类型只解析一次，
+ * 每个结果集在开始读之前按 {@link ResultSetMetaData} 把每一列对应的字段找好，读每一行的时候只剩下取值和赋值，
+ * 不需要再经过 Map 和 JSON 转换
+ *
+ * @param <T> 对象类型
+ * @author XiJieYin <br> 2026/10/17 23:20
+ */
+public class BeanRowMapper<T> {
+
+    /**
+     * 已经解析过的类型
+     */
+    private static final Map<Class<?>, BeanRowMapper<?>> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 类型
+     */
+    private final Class<T> type;
+
+    /**
+     * 无参构造器
+     */
+    private final Constructor<T> constructor;
+
+    /**
+     * 去掉下划线的小写字段名 -> 字段读写器
+     */
+    private final Map<String, PropertyAccessor> properties = new HashMap<>();
+
+    /**
+     * 列名 -> 字段读写器，没有对应字段的列也缓存起来
+     */
+    private final Map<String, Optional<PropertyAccessor>> columnCache = new ConcurrentHashMap<>();
+
+    private BeanRowMapper(Class<T> type) {
+        this.type = type;
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new BaseException(type.getName() + " 没有无参构造方法", e);
+        }
+        for (PropertyAccessor accessor : BeanAccessor.of(type).getProperties()) {
+            if (accessor.isWritable()) {
+                this.properties.putIfAbsent(normalize(accessor.getName()), accessor);
+            }
+        }
+    }
+
+    /**
+     * 获取类型的映射器，第一次获取的时候解析，之后从缓存里面拿
+     *
+     * @param type 类型
+     * @param <T>  对象类型
+     * @return 映射器
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanRowMapper<T> of(Class<T> type) {
+        return (BeanRowMapper<T>) CACHE.computeIfAbsent(type, BeanRowMapper::new);
+    }
+
+    /**
+     * 清空缓存，一般在热加载类之后调用
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 按结果集的列找好每一列对应的字段
+     *
+     * @param metaData 结果集元数据
+     * @return 绑定了列的映射器
+     */
+    public Bound<T> bind(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        PropertyAccessor[] accessors = new PropertyAccessor[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            accessors[i] = this.columnCache.computeIfAbsent(metaData.getColumnLabel(i + 1)
+                    , label -> Optional.ofNullable(this.properties.get(normalize(label)))).orElse(null);
+        }
+        return new Bound<>(this, accessors);
+    }
+
+    /**
+     * 映射整个结果集
+     *
+     * @param resultSet 结果集
+     * @param consumer  处理每一个对象
+     */
+    public void forEach(ResultSet resultSet, Consumer<T> consumer) throws SQLException {
+        Bound<T> bound = bind(resultSet.getMetaData());
+        while (resultSet.next()) {
+            consumer.accept(bound.map(resultSet));
+        }
+    }
+
+    /**
+     * 绑定了列的映射器，只能用于同一个结果集（或者列完全一样的结果集）
+     *
+     * @param mapper    映射器
+     * @param accessors 每一列对应的字段，没有对应字段的为 null
+     * @param <T>       对象类型
+     */
+    public record Bound<T>(BeanRowMapper<T> mapper, PropertyAccessor[] accessors) {
+
+        /**
+         * 映射当前行
+         *
+         * @param resultSet 结果集，需要已经移动到要映射的行
+         * @return 对象
+         */
+        public T map(ResultSet resultSet) throws SQLException {
+            T bean;
+            try {
+                bean = this.mapper.constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new BaseException("创建 " + this.mapper.type.getName() + " 失败", e);
+            }
+            for (int i = 0; i < this.accessors.length; i++) {
+                PropertyAccessor accessor = this.accessors[i];
+                if (accessor == null) {
+                    continue;
+                }
+                Object value = resultSet.getObject(i + 1);
+                if (value == null) {
+                    // 基本类型不能设置 null，保持默认值
+                    continue;
+                }
+                if (!accessor.getType().isInstance(value)) {
+                    value = Convert.convert(accessor.getField().getGenericType(), value);
+                }
+                accessor.set(bean, value);
+            }
+            return bean;
+        }
+    }
+
+}
@@ -2,7 +2,6 @@ package io.github.taybct.tool.core.ds;
 
 import com.alibaba.druid.pool.DruidPooledPreparedStatement;
 import com.alibaba.druid.proxy.jdbc.PreparedStatementProxyImpl;
-import com.alibaba.fastjson2.JSONArray;
 import com.baomidou.mybatisplus.annotation.DbType;
 import io.github.taybct.tool.core.exception.def.BaseException;
 import io.github.taybct.tool.core.util.StringUtil;
@@ -20,6 +19,8 @@ import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 数据库连接工具<br>
@@ -631,9 +632,94 @@ public class DBHelper {
      * @param <T>       类型
      * @return 返回结果
      */
+    @SuppressWarnings("unchecked")
     public static <T> List<T> resultSetConvert(ResultSet resultSet, Class<T> clazz) {
-        List<Map<String, Object>> maps = resultSetConvert(resultSet, true);
-        return JSONArray.parseArray(JSONArray.toJSONString(maps)).toJavaList(clazz);
+        if (Map.class.isAssignableFrom(clazz)) {
+            return (List<T>) resultSetConvert(resultSet, true);
+        }
+        try {
+            List<T> result = new ArrayList<>();
+            // 直接映射成对象，不经过 Map 和 JSON
+            BeanRowMapper.of(clazz).forEach(resultSet, result::add);
+            return result;
+        } catch (SQLException e) {
+            log.error("转换失败！", e);
+            throw new BaseException("转换失败！", e);
+        } finally {
+            release(null, null, resultSet);
+        }
+    }
+
+    /**
+     * 流式查询，一边读一边映射成对象，不会把整个结果集放到内存里面
+     * <br>
+     * 注意：MySQL 需要 fetchSize 为 {@link Integer#MIN_VALUE} 或者连接参数 useCursorFetch=true 才会真正流式读取，
+     * PostgreSQL 需要连接关闭自动提交
+     *
+     * @param con       jdbc 连接，读完之后会关闭
+     * @param sql       sql 语句
+     * @param pss       自己设置 PreparedStatement
+     * @param fetchSize 每次从数据库取多少行，小于等于 0 使用驱动默认值；
+     *                  {@link Integer#MIN_VALUE} 是 MySQL 专用的逐行流式读取，其他数据库不要用
+     * @param clazz     返回结果的类型
+     * @param consumer  处理每一个对象
+     * @param <T>       返回的对象类型
+     */
+    public static <T> void forEach(Connection con, String sql, @Nullable PreparedStatementSetter pss, int fetchSize, Class<T> clazz, Consumer<T> consumer) {
+        try (Stream<T> stream = stream(con, sql, pss, fetchSize, clazz)) {
+            stream.forEach(consumer);
+        }
+    }
+
+    /**
+     * 流式查询，需要在用完之后关闭返回的 Stream（try-with-resources），关闭的时候释放结果集、语句和连接
+     *
+     * @param con       jdbc 连接
+     * @param sql       sql 语句
+     * @param pss       自己设置 PreparedStatement
+     * @param fetchSize 每次从数据库取多少行，小于等于 0 使用驱动默认值；
+     *                  {@link Integer#MIN_VALUE} 是 MySQL 专用的逐行流式读取，其他数据库不要用
+     * @param clazz     返回结果的类型
+     * @param <T>       返回的对象类型
+     * @return 对象流
+     * @see #forEach(Connection, String, PreparedStatementSetter, int, Class, Consumer)
+     */
+    public static <T> Stream<T> stream(Connection con, String sql, @Nullable PreparedStatementSetter pss, int fetchSize, Class<T> clazz) {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            if (fetchSize > 0 || fetchSize == Integer.MIN_VALUE) {
+                ps.setFetchSize(fetchSize);
+            }
+            if (pss != null) {
+                pss.setValues(ps);
+            }
+            printSql(ps);
+            rs = ps.executeQuery();
+            BeanRowMapper.Bound<T> mapper = BeanRowMapper.of(clazz).bind(rs.getMetaData());
+            ResultSet resultSet = rs;
+            PreparedStatement statement = ps;
+            Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        action.accept(mapper.map(resultSet));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new BaseException("读取数据失败！", e);
+                    }
+                }
+            };
+            return StreamSupport.stream(spliterator, false).onClose(() -> release(statement, con, resultSet));
+        } catch (SQLException e) {
+            release(ps, con, rs);
+            log.error("查询失败", e);
+            throw new BaseException("查询失败！", e);
+        }
     }
 
     /**
@@ -659,11 +745,15 @@ public class DBHelper {
             List<Map<String, Object>> result = new ArrayList<>();
             ResultSetMetaData md = resultSet.getMetaData();
             int columnCount = md.getColumnCount();
-            // 将ResultSet对象的列名和值存到map中，再将map转换为json字符串，最后将json字符串转换为实体类对象
+            // 列名只需要算一次
+            String[] keys = new String[columnCount];
+            for (int i = 1; i <= columnCount; i++) {
+                keys[i - 1] = underlineToHump ? StringUtil.underlineToHump(md.getColumnLabel(i)) : md.getColumnLabel(i);
+            }
             while (resultSet.next()) {
-                Map<String, Object> rowData = new HashMap<>();
+                Map<String, Object> rowData = new HashMap<>((int) (columnCount / 0.75f) + 1);
                 for (int i = 1; i <= columnCount; i++) {
-                    rowData.put(underlineToHump ? StringUtil.underlineToHump(md.getColumnLabel(i)) : md.getColumnLabel(i), resultSet.getObject(i));
+                    rowData.put(keys[i - 1], resultSet.getObject(i));
                 }
                 result.add(rowData);
             }
@@ -0,0 +1,70 @@
+package io.github.taybct.tool.core.ds.sync;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <pre>
+ * 分区同步的进度
+ * </pre>
+ * 同步中断之后，下一次同步使用同样的上一次同步时间，跳过已经完成的分区
+ *
+ * @author XiJieYin <br> 2026/10/17 23:55
+ */
+@Data
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Schema(description = "分区同步的进度")
+@Builder
+public class DataSyncCheckpoint implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 同步 key
+     */
+    @Schema(description = "key")
+    private String key;
+    /**
+     * 这一轮同步使用的上一次同步时间
+     */
+    @Schema(description = "这一轮同步使用的上一次同步时间")
+    private String lastSyncTime;
+    /**
+     * 分区数
+     */
+    @Schema(description = "分区数")
+    private int partitions;
+    /**
+     * 分区方式
+     */
+    @Schema(description = "分区方式")
+    private String partitionMode;
+    /**
+     * 已经完成的分区
+     */
+    @Schema(description = "已经完成的分区")
+    @Builder.Default
+    private Set<Integer> completed = new HashSet<>();
+    /**
+     * range 分区的边界，第一次同步的时候计算，接着同步的时候用同样的边界，保证同一个分区号对应的范围不变
+     */
+    @Schema(description = "range 分区的边界")
+    private List<Long> rangeBounds;
+    /**
+     * 更新时间
+     */
+    @Schema(description = "更新时间")
+    private LocalDateTime updateTime;
+}
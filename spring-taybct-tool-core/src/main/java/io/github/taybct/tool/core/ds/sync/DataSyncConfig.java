@@ -22,7 +22,7 @@ import java.io.Serializable;
 @NoArgsConstructor
 @ToString
 @Schema(description = "数据同步配置")
-@Builder
+@Builder(toBuilder = true)
 public class DataSyncConfig implements Serializable {
 
     @Serial
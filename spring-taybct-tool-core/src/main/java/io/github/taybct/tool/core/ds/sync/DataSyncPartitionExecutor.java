@@ -0,0 +1,507 @@
+package io.github.taybct.tool.core.ds.sync;
+
+import io.github.taybct.tool.core.ds.DBHelper;
+import io.github.taybct.tool.core.exception.def.BaseException;
+import io.github.taybct.tool.core.util.StringUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * 分区同步
+ * </pre>
+ * 把源查询按分区列拆成多个分区，多个读线程各自用一个源连接读一个分区，读到的数据按批放进有界队列，
+ * 多个写线程各自持有一个目标连接，从队列里面取出来批量写入，写得慢的时候队列满了读线程就等着，内存里面最多只有
+ * (读线程数 + 队列容量 + 写线程数) 批数据
+ * <br>
+ * 每个分区的数据都写完提交之后记录到 {@link IDataSyncCheckpointStore}，中断之后再同步的时候跳过已经完成的分区
+ * <br>
+ * 分区列为 NULL 的数据不属于任何一个哈希值或者范围，统一放在第 0 个分区里面同步
+ *
+ * @author XiJieYin <br> 2026/10/17 23:55
+ */
+@Slf4j
+class DataSyncPartitionExecutor {
+
+    /**
+     * 属性获取属性key，分区数
+     */
+    static final String partitionsPropertiesKey = "partitions";
+    /**
+     * 属性获取属性key，分区列，默认为唯一键
+     */
+    private static final String partitionColumnPropertiesKey = "partitionColumn";
+    /**
+     * 属性获取属性key，分区方式，hash（默认）或者 range
+     */
+    private static final String partitionModePropertiesKey = "partitionMode";
+    /**
+     * 属性获取属性key，读线程数（源连接数），默认为分区数，最多 4 个
+     */
+    private static final String readersPropertiesKey = "readers";
+    /**
+     * 属性获取属性key，写线程数（目标连接数），默认为分区数，最多 4 个
+     */
+    private static final String writersPropertiesKey = "writers";
+    /**
+     * 属性获取属性key，每批的行数，默认为 512
+     */
+    private static final String batchSizePropertiesKey = "batchSize";
+    /**
+     * 属性获取属性key，读写之间最多排队的批数，默认为写线程数的 2 倍
+     */
+    private static final String queueCapacityPropertiesKey = "queueCapacity";
+    /**
+     * 按分区列的哈希值分区
+     */
+    private static final String MODE_HASH = "hash";
+    /**
+     * 按分区列（数值）的最小值到最大值平均分成多个范围
+     */
+    private static final String MODE_RANGE = "range";
+
+    private final DataSyncConfig config;
+    private final IDataSyncHandler sourceHandler;
+    private final IDataSyncHandler targetHandler;
+    private final IDataSyncCheckpointStore checkpointStore;
+    private final String key;
+    private final int partitions;
+    private final String partitionColumn;
+    private final String partitionMode;
+    private final int readers;
+    private final int writers;
+    private final int batchSize;
+    private final BlockingQueue<Batch> queue;
+    private final DataSyncPartitionResult[] results;
+
+    /**
+     * 当前的进度，完成一个分区更新一次
+     */
+    private DataSyncCheckpoint checkpoint;
+
+    /**
+     * 目标库的插入或者更新语句，第一批数据写入的时候生成
+     */
+    private String upsertSql;
+
+    DataSyncPartitionExecutor(DataSyncConfig config, IDataSyncHandler sourceHandler, IDataSyncHandler targetHandler
+            , IDataSyncCheckpointStore checkpointStore) {
+        this.config = config;
+        this.sourceHandler = sourceHandler;
+        this.targetHandler = targetHandler;
+        this.checkpointStore = checkpointStore;
+        this.key = config.getSourceTable() + "->" + config.getTargetTable();
+        this.partitions = getProperty(config, partitionsPropertiesKey, 1);
+        String column = config.getProperties() == null ? null : config.getProperties().getString(partitionColumnPropertiesKey);
+        this.partitionColumn = StringUtil.isNotEmpty(column) ? column : config.getFieldUniqueKye();
+        if (StringUtil.isEmpty(this.partitionColumn) || this.partitionColumn.contains(",")) {
+            throw new BaseException("分区同步请配置单个列的唯一键或者 " + partitionColumnPropertiesKey);
+        }
+        String mode = config.getProperties() == null ? null : config.getProperties().getString(partitionModePropertiesKey);
+        this.partitionMode = MODE_RANGE.equalsIgnoreCase(mode) ? MODE_RANGE : MODE_HASH;
+        this.readers = getProperty(config, readersPropertiesKey, Math.min(this.partitions, 4));
+        this.writers = getProperty(config, writersPropertiesKey, Math.min(this.partitions, 4));
+        this.batchSize = getProperty(config, batchSizePropertiesKey, 512);
+        this.queue = new ArrayBlockingQueue<>(getProperty(config, queueCapacityPropertiesKey, this.writers * 2));
+        this.results = new DataSyncPartitionResult[this.partitions];
+    }
+
+    private static int getProperty(DataSyncConfig config, String key, int defaultValue) {
+        if (config.getProperties() == null) {
+            return defaultValue;
+        }
+        Integer value = config.getProperties().getInteger(key);
+        return value == null || value <= 0 ? defaultValue : value;
+    }
+
+    /**
+     * 执行同步
+     *
+     * @return 每个分区的同步结果
+     */
+    List<DataSyncPartitionResult> run() throws SQLException {
+        DataSyncCheckpoint loaded = this.checkpointStore.load(this.key);
+        if (loaded != null && loaded.getPartitions() == this.partitions && Objects.equals(loaded.getPartitionMode(), this.partitionMode)) {
+            log.debug("\033[40;32;0m 同步表：{} -> {} 接着上一次没有完成的同步，已完成分区：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), loaded.getCompleted());
+            this.checkpoint = loaded;
+        } else {
+            String lastSyncTime;
+            try (Connection targetConnection = targetConnection()) {
+                lastSyncTime = this.targetHandler.lastSyncTime(targetConnection, this.config);
+            }
+            this.checkpoint = DataSyncCheckpoint.builder()
+                    .key(this.key)
+                    .lastSyncTime(lastSyncTime)
+                    .partitions(this.partitions)
+                    .partitionMode(this.partitionMode)
+                    .updateTime(LocalDateTime.now())
+                    .build();
+            this.checkpointStore.save(this.checkpoint);
+        }
+        log.debug("\033[40;32;0m 上一次更新时间：{} \t\t\t\033[0m", this.checkpoint.getLastSyncTime());
+
+        long[] bounds = MODE_RANGE.equals(this.partitionMode) ? checkpointRangeBounds() : null;
+        List<PartitionState> pending = new ArrayList<>();
+        for (int i = 0; i < this.partitions; i++) {
+            if (this.checkpoint.getCompleted().contains(i)) {
+                this.results[i] = DataSyncPartitionResult.builder().key(this.key).partition(i).ok(true).skipped(true).build();
+            } else {
+                pending.add(new PartitionState(i));
+            }
+        }
+        if (!pending.isEmpty()) {
+            execute(pending, bounds);
+        }
+
+        List<DataSyncPartitionResult> resultList = List.of(this.results);
+        List<Integer> failed = resultList.stream().filter(r -> !r.isOk()).map(DataSyncPartitionResult::getPartition).toList();
+        if (!failed.isEmpty()) {
+            throw new BaseException(String.format("同步表：%s 分区 %s 同步失败，再次同步的时候会跳过已经完成的分区", this.key, failed));
+        }
+        this.checkpointStore.remove(this.key);
+        return resultList;
+    }
+
+    private void execute(List<PartitionState> pending, long[] bounds) throws SQLException {
+        // 写线程的目标连接先全部打开，打不开就直接失败，不会出现读线程一直等着写的情况
+        List<Connection> targetConnections = new ArrayList<>(this.writers);
+        ExecutorService writerPool = null;
+        ExecutorService readerPool = null;
+        try {
+            for (int i = 0; i < this.writers; i++) {
+                Connection targetConnection = targetConnection();
+                targetConnections.add(targetConnection);
+                targetConnection.setAutoCommit(false);
+            }
+            writerPool = Executors.newFixedThreadPool(this.writers, threadFactory("data-sync-writer-"));
+            for (Connection targetConnection : targetConnections) {
+                writerPool.execute(() -> write(targetConnection));
+            }
+            readerPool = Executors.newFixedThreadPool(Math.min(this.readers, pending.size()), threadFactory("data-sync-reader-"));
+            for (PartitionState state : pending) {
+                readerPool.execute(() -> read(state, bounds));
+            }
+            readerPool.shutdown();
+            awaitTermination(readerPool);
+            // 读完之后通知每个写线程结束
+            for (int i = 0; i < this.writers; i++) {
+                this.queue.put(Batch.END);
+            }
+            writerPool.shutdown();
+            awaitTermination(writerPool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException("同步表：" + this.key + " 被中断", e);
+        } finally {
+            if (readerPool != null) {
+                readerPool.shutdownNow();
+            }
+            if (writerPool != null) {
+                writerPool.shutdownNow();
+            }
+            for (Connection targetConnection : targetConnections) {
+                try {
+                    targetConnection.close();
+                } catch (SQLException e) {
+                    log.warn("关闭目标连接失败", e);
+                }
+            }
+        }
+    }
+
+    private static void awaitTermination(ExecutorService pool) throws InterruptedException {
+        while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.debug("等待同步任务完成");
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private Connection sourceConnection() {
+        return DBHelper.conn(config.getSourceDriver(), config.getSourceUrl(), config.getSourceUser(), config.getSourcePass());
+    }
+
+    private Connection targetConnection() {
+        return DBHelper.conn(config.getTargetDriver(), config.getTargetUrl(), config.getTargetUser(), config.getTargetPass());
+    }
+
+    /**
+     * range 分区的边界，接着上一次同步的时候用进度里面记录的边界，不然分区号对应的范围变了，会漏掉数据
+     *
+     * @return 边界
+     */
+    private long[] checkpointRangeBounds() throws SQLException {
+        List<Long> saved = this.checkpoint.getRangeBounds();
+        if (saved != null && saved.size() == this.partitions + 1) {
+            return saved.stream().mapToLong(Long::longValue).toArray();
+        }
+        long[] bounds = rangeBounds();
+        synchronized (this) {
+            this.checkpoint.setRangeBounds(Arrays.stream(bounds).boxed().toList());
+            this.checkpoint.setUpdateTime(LocalDateTime.now());
+            this.checkpointStore.save(this.checkpoint);
+        }
+        return bounds;
+    }
+
+    /**
+     * range 分区的边界，第 i 个分区是 [bounds[i], bounds[i + 1])，
+     * 第一个分区没有下限，最后一个分区没有上限，边界算出来之后新增的超出范围的数据也不会漏掉
+     *
+     * @return 边界，分区列没有值的时候全部是 0，这个时候只有第 0 个分区的 NULL 有数据
+     */
+    private long[] rangeBounds() throws SQLException {
+        String sqlMinMax = String.format("SELECT MIN(P.%s), MAX(P.%s) FROM (%s) P", this.partitionColumn, this.partitionColumn, this.config.getSqlSelect());
+        try (Connection sourceConnection = sourceConnection();
+             PreparedStatement sourceStatement = this.sourceHandler.queryStatement(sourceConnection, this.config.toBuilder().sqlSelect(sqlMinMax).build())) {
+            sourceStatement.setString(1, this.checkpoint.getLastSyncTime());
+            try (ResultSet resultSet = sourceStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return new long[this.partitions + 1];
+                }
+                long min = resultSet.getLong(1);
+                if (resultSet.wasNull()) {
+                    return new long[this.partitions + 1];
+                }
+                long max = resultSet.getLong(2);
+                long[] bounds = new long[this.partitions + 1];
+                BigInteger span = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min));
+                for (int i = 0; i < this.partitions; i++) {
+                    bounds[i] = BigInteger.valueOf(min)
+                            .add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(this.partitions)))
+                            .longValue();
+                }
+                bounds[this.partitions] = max;
+                return bounds;
+            }
+        }
+    }
+
+    /**
+     * 读一个分区
+     *
+     * @param state  分区状态
+     * @param bounds range 分区的边界
+     */
+    private void read(PartitionState state, long[] bounds) {
+        int partition = state.partition;
+        boolean lower = bounds != null && partition > 0;
+        boolean upper = bounds != null && partition < this.partitions - 1;
+        String condition = bounds == null
+                ? this.sourceHandler.partitionExpression(this.config, "P." + this.partitionColumn, this.partitions) + " = ?"
+                : lower && upper ? String.format("P.%s >= ? AND P.%s < ?", this.partitionColumn, this.partitionColumn)
+                : lower ? String.format("P.%s >= ?", this.partitionColumn)
+                : String.format("P.%s < ?", this.partitionColumn);
+        if (partition == 0) {
+            // 分区列为 NULL 的放在第 0 个分区
+            condition = String.format("(%s OR P.%s IS NULL)", condition, this.partitionColumn);
+        }
+        String sqlSelect = String.format("SELECT * FROM (%s) P WHERE %s", this.config.getSqlSelect(), condition);
+        try (Connection sourceConnection = sourceConnection();
+             PreparedStatement sourceStatement = this.sourceHandler.queryStatement(sourceConnection, this.config.toBuilder().sqlSelect(sqlSelect).build())) {
+            sourceStatement.setString(1, this.checkpoint.getLastSyncTime());
+            if (bounds == null) {
+                sourceStatement.setInt(2, partition);
+            } else {
+                int index = 2;
+                if (lower) {
+                    sourceStatement.setLong(index++, bounds[partition]);
+                }
+                if (upper) {
+                    sourceStatement.setLong(index, bounds[partition + 1]);
+                }
+            }
+            try (ResultSet sourceResultSet = sourceStatement.executeQuery()) {
+                SyncRowBinder binder = SyncRowBinder.of(sourceResultSet.getMetaData());
+                List<Object[]> rows = new ArrayList<>(this.batchSize);
+                // 写失败了就不用再读了
+                while (state.error == null && sourceResultSet.next()) {
+                    rows.add(binder.read(sourceResultSet));
+                    if (rows.size() >= this.batchSize) {
+                        offer(state, binder, rows);
+                        rows = new ArrayList<>(this.batchSize);
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    offer(state, binder, rows);
+                }
+            }
+        } catch (InterruptedException e) {
+            state.fail(e);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            state.fail(e);
+        } finally {
+            release(state);
+        }
+    }
+
+    private void offer(PartitionState state, SyncRowBinder binder, List<Object[]> rows) throws InterruptedException {
+        state.pending.incrementAndGet();
+        this.queue.put(new Batch(state, binder, rows));
+    }
+
+    /**
+     * 写线程，一直从队列里面取数据写入，直到取到 {@link Batch#END}
+     *
+     * @param targetConnection 这个写线程的目标连接
+     */
+    private void write(Connection targetConnection) {
+        PreparedStatement targetStatement = null;
+        try {
+            Batch batch;
+            while ((batch = this.queue.take()) != Batch.END) {
+                PartitionState state = batch.state();
+                try {
+                    if (state.error == null) {
+                        if (targetStatement == null) {
+                            targetStatement = targetConnection.prepareStatement(upsertSql(targetConnection, batch.binder()));
+                        }
+                        for (Object[] row : batch.rows()) {
+                            batch.binder().bind(targetStatement, 0, row);
+                            targetStatement.addBatch();
+                        }
+                        targetStatement.executeBatch();
+                        targetConnection.commit();
+                        state.rows.addAndGet(batch.rows().size());
+                    }
+                } catch (Exception e) {
+                    state.fail(e);
+                    try {
+                        if (targetStatement != null) {
+                            targetStatement.clearBatch();
+                        }
+                        targetConnection.rollback();
+                    } catch (SQLException ex) {
+                        log.warn("回滚失败", ex);
+                    }
+                } finally {
+                    release(state);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (targetStatement != null) {
+                try {
+                    targetStatement.close();
+                } catch (SQLException e) {
+                    log.warn("关闭语句失败", e);
+                }
+            }
+        }
+    }
+
+    private synchronized String upsertSql(Connection targetConnection, SyncRowBinder binder) throws SQLException {
+        if (this.upsertSql == null) {
+            this.upsertSql = this.targetHandler.upsertSql(targetConnection, this.config, binder);
+            log.debug("\033[40;32;0m 同步表：{} 写入语句：{} \t\t\t\033[0m", this.key, this.upsertSql);
+        }
+        return this.upsertSql;
+    }
+
+    /**
+     * 分区的一个读或者写任务结束，所有任务都结束之后这个分区就完成了
+     *
+     * @param state 分区状态
+     */
+    private void release(PartitionState state) {
+        if (state.pending.decrementAndGet() != 0) {
+            return;
+        }
+        long millis = System.currentTimeMillis() - state.beginTime;
+        long rows = state.rows.get();
+        DataSyncPartitionResult result = DataSyncPartitionResult.builder()
+                .key(this.key)
+                .partition(state.partition)
+                .ok(state.error == null)
+                .rows(rows)
+                .millis(millis)
+                .rowsPerSecond(millis == 0 ? rows : rows * 1000.0 / millis)
+                .message(state.error == null ? null : state.error.getMessage())
+                .build();
+        this.results[state.partition] = result;
+        if (state.error == null) {
+            synchronized (this) {
+                this.checkpoint.getCompleted().add(state.partition);
+                this.checkpoint.setUpdateTime(LocalDateTime.now());
+                this.checkpointStore.save(this.checkpoint);
+            }
+            log.debug("\033[40;32;0m 同步表：{} 分区 {}/{} 完成，同步：{} 行，耗时：{}，每秒：{} 行 \t\t\t\033[0m"
+                    , this.key, state.partition + 1, this.partitions, rows, millis, (long) result.getRowsPerSecond());
+        } else {
+            log.error("同步表：{} 分区 {}/{} 失败，已同步：{} 行", this.key, state.partition + 1, this.partitions, rows, state.error);
+        }
+    }
+
+    /**
+     * 分区状态
+     */
+    private static class PartitionState {
+
+        private final int partition;
+
+        private final long beginTime = System.currentTimeMillis();
+
+        /**
+         * 还没有结束的任务数，读任务算一个，每一批没有写完的数据算一个
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        /**
+         * 已经写入的行数
+         */
+        private final AtomicLong rows = new AtomicLong();
+
+        /**
+         * 第一个异常
+         */
+        private volatile Exception error;
+
+        private PartitionState(int partition) {
+            this.partition = partition;
+        }
+
+        private synchronized void fail(Exception e) {
+            if (this.error == null) {
+                this.error = e;
+            }
+        }
+    }
+
+    /**
+     * 一批数据
+     *
+     * @param state  所属分区
+     * @param binder 源数据的列
+     * @param rows   数据
+     */
+    private record Batch(PartitionState state, SyncRowBinder binder, List<Object[]> rows) {
+
+        /**
+         * 结束标记
+         */
+        private static final Batch END = new Batch(null, null, List.of());
+    }
+
+}
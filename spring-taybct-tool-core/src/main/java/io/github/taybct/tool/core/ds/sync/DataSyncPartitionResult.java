@@ -0,0 +1,70 @@
+package io.github.taybct.tool.core.ds.sync;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * <pre>
+ * 分区同步结果
+ * </pre>
+ *
+ * @author XiJieYin <br> 2026/10/17 23:55
+ */
+@Data
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Schema(description = "分区同步结果")
+@Builder
+public class DataSyncPartitionResult implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 同步 key
+     */
+    @Schema(description = "key")
+    private String key;
+    /**
+     * 分区号
+     */
+    @Schema(description = "分区号")
+    private int partition;
+    /**
+     * 同步结果
+     */
+    @Schema(description = "同步结果")
+    @Builder.Default
+    private boolean ok = false;
+    /**
+     * 是否是之前已经完成的分区，这次跳过了
+     */
+    @Schema(description = "是否是之前已经完成的分区，这次跳过了")
+    private boolean skipped;
+    /**
+     * 同步的行数
+     */
+    @Schema(description = "同步的行数")
+    private long rows;
+    /**
+     * 耗时（毫秒）
+     */
+    @Schema(description = "耗时（毫秒）")
+    private long millis;
+    /**
+     * 每秒同步的行数
+     */
+    @Schema(description = "每秒同步的行数")
+    private double rowsPerSecond;
+    /**
+     * 同步结果信息
+     */
+    @Schema(description = "同步结果信息")
+    private String message;
+}
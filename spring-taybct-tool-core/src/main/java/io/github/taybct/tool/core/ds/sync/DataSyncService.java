@@ -5,8 +5,11 @@ import io.github.taybct.tool.core.ds.sync.handler.DataSyncPGSQL$MySQLHandler;
 import io.github.taybct.tool.core.exception.def.BaseException;
 import io.github.taybct.tool.core.util.StringUtil;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -29,6 +32,13 @@ public class DataSyncService {
     @Getter
     private static final ConcurrentMap<String, IDataSyncHandler> handlerMap = new ConcurrentHashMap<>();
 
+    /**
+     * 分区同步进度的存储，默认保存在内存里面
+     */
+    @Getter
+    @Setter
+    private IDataSyncCheckpointStore checkpointStore = new MemoryDataSyncCheckpointStore();
+
     /**
      * 添加处理器
      *
@@ -60,6 +70,70 @@ public class DataSyncService {
      * @param config 配置
      */
     public void sync(DataSyncConfig config) {
+        check(config);
+        if (config.getProperties() != null
+                && config.getProperties().getIntValue(DataSyncPartitionExecutor.partitionsPropertiesKey, 1) > 1) {
+            if (handlerMap.get(config.getTargetDriver()).supportsUpsert()) {
+                syncPartitioned(config);
+                return;
+            }
+            log.warn("同步表：{} -> {} 目标数据库 {} 不支持分区同步，使用单线程同步", config.getSourceTable(), config.getTargetTable(), config.getTargetDriver());
+        }
+        long beginTime = System.currentTimeMillis();
+
+        handlerMap.get(config.getTargetDriver()).sync(config
+                , (connection, cfg) -> handlerMap.get(config.getSourceDriver()).queryStatement(connection, cfg));
+
+        long time = System.currentTimeMillis() - beginTime;
+        log.debug("\033[40;32;0m 同步表：{} -> {} 结束，耗时：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), time);
+    }
+
+    /**
+     * 分区同步，把源查询拆成多个分区，多个源连接并行读，多个目标连接并行写，读写之间用有界队列连接
+     * <br>
+     * 通过 {@link DataSyncConfig#getProperties()} 配置：
+     * <ul>
+     *     <li>partitions：分区数，大于 1 的时候 {@link #sync(DataSyncConfig)} 也会使用分区同步</li>
+     *     <li>partitionColumn：分区列，默认为唯一键 {@link DataSyncConfig#getFieldUniqueKye()}，只能是一个列</li>
+     *     <li>partitionMode：hash（默认，按分区列的哈希值分区）或者 range（分区列是数值，按最小值到最大值平均分成多个范围）</li>
+     *     <li>readers：读线程数（源连接数），默认为分区数，最多 4 个</li>
+     *     <li>writers：写线程数（目标连接数），默认为分区数，最多 4 个</li>
+     *     <li>batchSize：每批的行数，默认为 512</li>
+     *     <li>queueCapacity：读写之间最多排队的批数，默认为写线程数的 2 倍</li>
+     *     <li>fetchSize：源查询每次从数据库取多少行</li>
+     * </ul>
+     * 目标数据库的处理需要支持 {@link IDataSyncHandler#supportsUpsert()}，不支持的直接抛出异常，不会开始同步；
+     * 每个分区完成之后都会记录到 {@link #getCheckpointStore()}，有分区失败的时候抛出异常，
+     * 再次同步的时候使用同一个上一次同步时间，并且跳过已经完成的分区
+     *
+     * @param config 配置
+     * @return 每个分区的同步结果
+     */
+    @SneakyThrows
+    public List<DataSyncPartitionResult> syncPartitioned(DataSyncConfig config) {
+        check(config);
+        if (!handlerMap.get(config.getTargetDriver()).supportsUpsert()) {
+            throw new BaseException("目标数据库 " + config.getTargetDriver() + " 不支持分区同步");
+        }
+        long beginTime = System.currentTimeMillis();
+
+        List<DataSyncPartitionResult> results = new DataSyncPartitionExecutor(config
+                , handlerMap.get(config.getSourceDriver())
+                , handlerMap.get(config.getTargetDriver())
+                , checkpointStore).run();
+
+        long time = System.currentTimeMillis() - beginTime;
+        long rows = results.stream().mapToLong(DataSyncPartitionResult::getRows).sum();
+        log.debug("\033[40;32;0m 同步表：{} -> {} 结束，同步：{} 行，耗时：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), rows, time);
+        return results;
+    }
+
+    /**
+     * 检查配置
+     *
+     * @param config 配置
+     */
+    private void check(DataSyncConfig config) {
         if (StringUtil.isEmpty(config.getSourceDriver())
                 || StringUtil.isEmpty(config.getTargetDriver())
                 || !handlerMap.containsKey(config.getSourceDriver())
@@ -79,13 +153,6 @@ public class DataSyncService {
                 || StringUtil.isEmpty(config.getSqlSelect())) {
             throw new BaseException("请配置正确的同步表信息");
         }
-        long beginTime = System.currentTimeMillis();
-
-        handlerMap.get(config.getTargetDriver()).sync(config
-                , (connection, cfg) -> handlerMap.get(config.getSourceDriver()).queryStatement(connection, cfg));
-
-        long time = System.currentTimeMillis() - beginTime;
-        log.debug("\033[40;32;0m 同步表：{} -> {} 结束，耗时：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), time);
     }
 
 }
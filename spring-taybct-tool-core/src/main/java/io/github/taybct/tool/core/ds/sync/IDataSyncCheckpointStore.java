@@ -0,0 +1,35 @@
+package io.github.taybct.tool.core.ds.sync;
+
+/**
+ * <pre>
+ * 分区同步进度的存储
+ * </pre>
+ * 默认是 {@link MemoryDataSyncCheckpointStore}，进程重启之后需要接着同步的话，可以实现这个接口把进度存到数据库或者 redis 里面
+ *
+ * @author XiJieYin <br> 2026/10/17 23:55
+ */
+public interface IDataSyncCheckpointStore {
+
+    /**
+     * 获取没有完成的同步进度
+     *
+     * @param key 同步 key
+     * @return 进度，没有的话返回 null
+     */
+    DataSyncCheckpoint load(String key);
+
+    /**
+     * 保存进度，每完成一个分区保存一次
+     *
+     * @param checkpoint 进度
+     */
+    void save(DataSyncCheckpoint checkpoint);
+
+    /**
+     * 删除进度，所有分区都完成之后调用
+     *
+     * @param key 同步 key
+     */
+    void remove(String key);
+
+}
@@ -2,6 +2,8 @@ package io.github.taybct.tool.core.ds.sync;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.function.BiFunction;
 
 /**
@@ -35,4 +37,62 @@ public interface IDataSyncHandler {
     void sync(DataSyncConfig config
             , BiFunction<Connection, DataSyncConfig, PreparedStatement> queryStatement);
 
+    /**
+     * 查询上一次同步的时间，没有同步过的话返回 1970-01-01 00:00:00
+     *
+     * @param targetConnection 目标数据库连接
+     * @param config           配置
+     * @return 上一次同步的时间
+     * @throws SQLException 异常
+     */
+    default String lastSyncTime(Connection targetConnection, DataSyncConfig config) throws SQLException {
+        try (PreparedStatement targetStatement = targetConnection.prepareStatement(config.getSqlLastSyncTime());
+             ResultSet targetResultSet = targetStatement.executeQuery()) {
+            while (targetResultSet.next()) {
+                Object date = targetResultSet.getDate(config.getFieldLastSyncTime());
+                Object time = targetResultSet.getTime(config.getFieldLastSyncTime());
+                if (date != null && time != null) {
+                    return date + " " + time;
+                }
+            }
+        }
+        return "1970-01-01 00:00:00";
+    }
+
+    /**
+     * 作为目标数据库的时候是否支持分区同步，支持的需要实现 {@link #upsertSql(Connection, DataSyncConfig, SyncRowBinder)}
+     *
+     * @return 是否支持
+     */
+    default boolean supportsUpsert() {
+        return false;
+    }
+
+    /**
+     * 目标数据库参数化的插入或者更新语句，参数的顺序和 {@link SyncRowBinder#columns()} 一致，分区同步的时候使用
+     * <br>
+     * 只有 {@link #supportsUpsert()} 为 true 的时候才会调用
+     *
+     * @param targetConnection 目标数据库连接
+     * @param config           配置
+     * @param binder           源数据的列
+     * @return 插入或者更新语句，不支持的返回 null
+     * @throws SQLException 异常
+     */
+    default String upsertSql(Connection targetConnection, DataSyncConfig config, SyncRowBinder binder) throws SQLException {
+        return null;
+    }
+
+    /**
+     * 源数据库按列的值计算分区号的表达式，结果需要在 [0, partitions) 之间，分区同步的时候使用
+     *
+     * @param config     配置
+     * @param column     分区的列
+     * @param partitions 分区数
+     * @return 表达式
+     */
+    default String partitionExpression(DataSyncConfig config, String column, int partitions) {
+        return String.format("MOD(%s, %d)", column, partitions);
+    }
+
 }
@@ -0,0 +1,39 @@
+package io.github.taybct.tool.core.ds.sync;
+
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <pre>
+ * 保存在内存里面的分区同步进度
+ * </pre>
+ *
+ * @author XiJieYin <br> 2026/10/17 23:55
+ */
+public class MemoryDataSyncCheckpointStore implements IDataSyncCheckpointStore {
+
+    private final ConcurrentMap<String, DataSyncCheckpoint> checkpoints = new ConcurrentHashMap<>();
+
+    @Override
+    public DataSyncCheckpoint load(String key) {
+        DataSyncCheckpoint checkpoint = checkpoints.get(key);
+        return checkpoint == null ? null : copy(checkpoint);
+    }
+
+    @Override
+    public void save(DataSyncCheckpoint checkpoint) {
+        checkpoints.put(checkpoint.getKey(), copy(checkpoint));
+    }
+
+    @Override
+    public void remove(String key) {
+        checkpoints.remove(key);
+    }
+
+    private static DataSyncCheckpoint copy(DataSyncCheckpoint checkpoint) {
+        return new DataSyncCheckpoint(checkpoint.getKey(), checkpoint.getLastSyncTime(), checkpoint.getPartitions()
+                , checkpoint.getPartitionMode(), new HashSet<>(checkpoint.getCompleted()), checkpoint.getUpdateTime());
+    }
+
+}
@@ -0,0 +1,148 @@
+package io.github.taybct.tool.core.ds.sync;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.Locale;
+
+/**
+ * <pre>
+ * 同步行的读取和绑定
+ * </pre>
+ * 按源结果集的 {@link ResultSetMetaData} 记下每一列的名称和 JDBC 类型，读的时候按类型取值，写的时候按类型绑定参数，
+ * 不再把值拼成 SQL 字面量，也就不用处理单引号、日期格式这些转义问题
+ *
+ * @author XiJieYin <br> 2026/10/17 23:40
+ */
+public class SyncRowBinder {
+
+    /**
+     * 列名（大写）
+     */
+    private final String[] columns;
+
+    /**
+     * 列的 JDBC 类型 {@link Types}
+     */
+    private final int[] types;
+
+    private SyncRowBinder(String[] columns, int[] types) {
+        this.columns = columns;
+        this.types = types;
+    }
+
+    /**
+     * 按结果集元数据创建
+     *
+     * @param metaData 源结果集元数据
+     * @return 绑定器
+     */
+    public static SyncRowBinder of(ResultSetMetaData metaData) throws SQLException {
+        int columnCount = metaData.getColumnCount();
+        String[] columns = new String[columnCount];
+        int[] types = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = metaData.getColumnLabel(i + 1).toUpperCase(Locale.ROOT);
+            types[i] = metaData.getColumnType(i + 1);
+        }
+        return new SyncRowBinder(columns, types);
+    }
+
+    /**
+     * 列名（大写）
+     *
+     * @return 列名
+     */
+    public String[] columns() {
+        return this.columns.clone();
+    }
+
+    /**
+     * 列数
+     *
+     * @return 列数
+     */
+    public int columnCount() {
+        return this.columns.length;
+    }
+
+    /**
+     * 读取当前行
+     *
+     * @param resultSet 源结果集，需要已经移动到要读的行
+     * @return 每一列的值，空值为 null
+     */
+    public Object[] read(ResultSet resultSet) throws SQLException {
+        Object[] row = new Object[this.columns.length];
+        for (int i = 0; i < this.columns.length; i++) {
+            row[i] = read(resultSet, i + 1, this.types[i]);
+        }
+        return row;
+    }
+
+    /**
+     * 把一行的值绑定到语句的参数上，参数从 offset + 1 开始
+     *
+     * @param statement 语句
+     * @param offset    参数偏移
+     * @param row       {@link #read(ResultSet)} 读出来的值
+     */
+    public void bind(PreparedStatement statement, int offset, Object[] row) throws SQLException {
+        for (int i = 0; i < this.columns.length; i++) {
+            bind(statement, offset + i + 1, row[i], this.types[i]);
+        }
+    }
+
+    /**
+     * 直接把结果集当前行绑定到语句的参数上，参数从 1 开始
+     *
+     * @param resultSet 源结果集，需要已经移动到要读的行
+     * @param statement 语句
+     */
+    public void copy(ResultSet resultSet, PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < this.columns.length; i++) {
+            bind(statement, i + 1, read(resultSet, i + 1, this.types[i]), this.types[i]);
+        }
+    }
+
+    private static Object read(ResultSet resultSet, int index, int type) throws SQLException {
+        Object value = switch (type) {
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR
+                    , Types.CLOB, Types.NCLOB -> resultSet.getString(index);
+            case Types.NUMERIC, Types.DECIMAL -> resultSet.getBigDecimal(index);
+            // oracle 的 DATE 是带时间的，统一按 timestamp 读，不会丢掉时分秒
+            case Types.DATE, Types.TIMESTAMP -> resultSet.getTimestamp(index);
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> resultSet.getBytes(index);
+            default -> resultSet.getObject(index);
+        };
+        return resultSet.wasNull() ? null : value;
+    }
+
+    private static void bind(PreparedStatement statement, int index, Object value, int type) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, nullType(type));
+            return;
+        }
+        switch (type) {
+            case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR
+                    , Types.CLOB, Types.NCLOB -> statement.setString(index, (String) value);
+            case Types.NUMERIC, Types.DECIMAL -> statement.setBigDecimal(index, (BigDecimal) value);
+            case Types.DATE, Types.TIMESTAMP -> statement.setTimestamp(index, (Timestamp) value);
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> statement.setBytes(index, (byte[]) value);
+            default -> statement.setObject(index, value);
+        }
+    }
+
+    /**
+     * 空值绑定用的类型，大字段按对应的普通类型绑定，有些驱动不支持 setNull 大字段类型
+     */
+    private static int nullType(int type) {
+        return switch (type) {
+            case Types.CLOB, Types.NCLOB, Types.LONGVARCHAR, Types.LONGNVARCHAR -> Types.VARCHAR;
+            case Types.BLOB, Types.LONGVARBINARY -> Types.VARBINARY;
+            case Types.DATE -> Types.TIMESTAMP;
+            case Types.OTHER, Types.JAVA_OBJECT, Types.STRUCT, Types.ARRAY -> Types.NULL;
+            default -> type;
+        };
+    }
+
+}
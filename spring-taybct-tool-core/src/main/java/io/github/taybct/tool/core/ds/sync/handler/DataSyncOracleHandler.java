@@ -3,6 +3,7 @@ package io.github.taybct.tool.core.ds.sync.handler;
 import io.github.taybct.tool.core.ds.DBHelper;
 import io.github.taybct.tool.core.ds.sync.DataSyncConfig;
 import io.github.taybct.tool.core.ds.sync.IDataSyncHandler;
+import io.github.taybct.tool.core.ds.sync.SyncRowBinder;
 import io.github.taybct.tool.core.util.StringUtil;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiFunction;
@@ -30,6 +31,22 @@ public class DataSyncOracleHandler implements IDataSyncHandler {
      * 单次同步数据量，默认为 512
      */
     private static final int buffer = 512;
+    /**
+     * 默认的fetchSize，默认为 1000
+     */
+    private static final int fetchSize = 1000;
+    /**
+     * 属性获取属性key，默认为 fetchSize
+     */
+    private static final String fetchSizePropertiesKey = "fetchSize";
+    /**
+     * 属性获取属性key，每批执行多少行，默认为 {@link #buffer}
+     */
+    private static final String batchSizePropertiesKey = "batchSize";
+    /**
+     * 属性获取属性key，每多少行提交一次事务，默认和每批的行数一样
+     */
+    private static final String commitIntervalPropertiesKey = "commitInterval";
 
     @SneakyThrows
     @Override
@@ -38,7 +55,53 @@ public class DataSyncOracleHandler implements IDataSyncHandler {
             // 如果有手动指定 schema
             conn.setSchema(config.getSourceSchema());
         }
-        return conn.prepareStatement(config.getSqlSelect());
+        PreparedStatement preparedStatement = conn.prepareStatement(config.getSqlSelect(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        // oracle 驱动默认每次只取 10 行，大表同步的时候网络往返太多
+        preparedStatement.setFetchSize(getProperty(config, fetchSizePropertiesKey, fetchSize));
+        return preparedStatement;
+    }
+
+    /**
+     * 查询目标表的主键
+     *
+     * @param targetConnection 目标连接
+     * @param config           配置
+     * @return 主键（大写），可能有多个
+     * @throws SQLException 异常
+     */
+    public List<String> primaryKeys(Connection targetConnection, DataSyncConfig config) throws SQLException {
+        String sqlGetPrimaryKey = """
+                SELECT a.COLUMN_NAME 
+                 FROM user_cons_columns a,user_constraints b 
+                 WHERE a.constraint_name = b.constraint_name 
+                 AND b.constraint_type = 'P' 
+                 AND a.table_name = ?""";
+        List<String> pks = new ArrayList<>();
+        try (PreparedStatement targetStatement = targetConnection.prepareStatement(sqlGetPrimaryKey)) {
+            targetStatement.setString(1, config.getTargetTable());
+            try (ResultSet targetResultSet = targetStatement.executeQuery()) {
+                while (targetResultSet.next()) {
+                    pks.add(targetResultSet.getString("COLUMN_NAME").toUpperCase());
+                }
+            }
+        }
+        return pks;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(Connection targetConnection, DataSyncConfig config, SyncRowBinder binder) throws SQLException {
+        return mergeSql(config.getTargetTable(), binder.columns(), primaryKeys(targetConnection, config));
+    }
+
+    @Override
+    public String partitionExpression(DataSyncConfig config, String column, int partitions) {
+        // ORA_HASH 的结果在 [0, max_bucket] 之间
+        return String.format("ORA_HASH(%s, %d)", column, partitions - 1);
     }
 
     @SneakyThrows
@@ -50,132 +113,132 @@ public class DataSyncOracleHandler implements IDataSyncHandler {
              PreparedStatement sourceStatement = queryStatement.apply(sourceConnection, config)) {
 
             //先查询一下目标表的主键
-            String sqlGetPrimaryKey = """
-                    SELECT a.COLUMN_NAME 
-                     FROM user_cons_columns a,user_constraints b 
-                     WHERE a.constraint_name = b.constraint_name 
-                     AND b.constraint_type = 'P' 
-                     AND a.table_name = ?""";
-            PreparedStatement targetStatement = targetConnection.prepareStatement(sqlGetPrimaryKey);
-            targetStatement.setString(1, config.getTargetTable());
-            ResultSet targetResultSet = targetStatement.executeQuery();
-            //可能有多个主键
-            List<String> targetPrimaryKeys = new ArrayList<>();
-            //主键
-            List<String> pks = new ArrayList<>();
-            while (targetResultSet.next()) {
-                String col = targetResultSet.getString("COLUMN_NAME");
-                targetPrimaryKeys.add(String.format("T.%s=S.%s", col, col));
-                //得到 [{T.ID=S.ID},{T.ID1=S.ID2},{T.ID3=S.ID3}]这样的数组
-                pks.add(col.toUpperCase());
-            }
-            targetResultSet.close();
-            targetStatement.close();
-
-
-            String lastSyncTime = "1970-01-01 00:00:00";
-            targetStatement = targetConnection.prepareStatement(config.getSqlLastSyncTime());
-            targetResultSet = targetStatement.executeQuery();
-            while (targetResultSet.next()) {
-                Object date = targetResultSet.getDate(config.getFieldLastSyncTime());
-                Object time = targetResultSet.getTime(config.getFieldLastSyncTime());
-                if (date != null && time != null) {
-                    lastSyncTime = date + " " + time;
-                    log.debug("\033[40;32;0m 上一次更新时间：{} \t\t\t\033[0m", lastSyncTime);
-                    break;
-                }
-            }
-            targetResultSet.close();
-            targetStatement.close();
+            List<String> pks = primaryKeys(targetConnection, config);
+
+            String lastSyncTime = lastSyncTime(targetConnection, config);
+            log.debug("\033[40;32;0m 上一次更新时间：{} \t\t\t\033[0m", lastSyncTime);
 
             sourceStatement.setString(1, lastSyncTime);
             try (ResultSet sourceResultSet = sourceStatement.executeQuery()) {
+                SyncRowBinder binder = SyncRowBinder.of(sourceResultSet.getMetaData());
+                String sqlMerge = mergeSql(config.getTargetTable(), binder.columns(), pks);
+                merge(targetConnection, sqlMerge, sourceResultSet, binder, config);
+            }
+        }
+    }
 
-                ResultSetMetaData metaData = sourceResultSet.getMetaData();
-                int columnCount = metaData.getColumnCount();
-
-                //拿到所有的列
-                //List<String> cols = new ArrayList<>();
-                //更新
-                List<String> updateTarget = new ArrayList<>();
-                //插入
-                List<String> insertTarget = new ArrayList<>();
-                //值
-                List<String> valueTarget = new ArrayList<>();
-
-                for (int i = 1; i <= columnCount; i++) {
-                    String col = metaData.getColumnLabel(i).toUpperCase();//列名称
-                    //cols.add(col);
-                    if (!pks.contains(col)) {
-                        updateTarget.add(String.format("T.%s=S.%s", col, col));
-                    }
-                    insertTarget.add(String.format("T.%s", col));
-                    valueTarget.add(String.format("S.%s", col));
-                }
+    /**
+     * 生成参数化的 merge 语句，每一行数据都用同一条语句，只是绑定的参数不一样，oracle 只需要解析一次
+     * <br>
+     * MERGE INTO {目标表} T USING (SELECT ? AS A, ? AS B FROM DUAL) S ON ({主键}) WHEN MATCHED THEN UPDATE SET {更新} WHEN NOT MATCHED THEN INSERT ({插入}) VALUES ({值})
+     *
+     * @param targetTable 目标表
+     * @param columns     列名（大写）
+     * @param pks         主键（大写）
+     * @return merge 语句
+     */
+    public String mergeSql(String targetTable, String[] columns, List<String> pks) {
+        //using 里面的查询
+        List<String> usingTarget = new ArrayList<>();
+        //主键
+        List<String> primaryKeyTarget = new ArrayList<>();
+        //更新
+        List<String> updateTarget = new ArrayList<>();
+        //插入
+        List<String> insertTarget = new ArrayList<>();
+        //值
+        List<String> valueTarget = new ArrayList<>();
+        for (String col : columns) {
+            usingTarget.add(String.format("? AS %s", col));
+            if (pks.contains(col)) {
+                primaryKeyTarget.add(String.format("T.%s=S.%s", col, col));
+            } else {
+                updateTarget.add(String.format("T.%s=S.%s", col, col));
+            }
+            insertTarget.add(String.format("T.%s", col));
+            valueTarget.add(String.format("S.%s", col));
+        }
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(targetTable)
+                .append(" T USING (SELECT ").append(StringUtil.join(usingTarget, " , ")).append(" FROM DUAL) S ON (")
+                .append(StringUtil.join(primaryKeyTarget, " AND ")).append(")");
+        if (!updateTarget.isEmpty()) {
+            // 所有的列都是主键的时候没有需要更新的列，只插入
+            sql.append(" WHEN MATCHED THEN UPDATE SET ").append(StringUtil.join(updateTarget, " , "));
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(StringUtil.join(insertTarget, " , "))
+                .append(") VALUES (").append(StringUtil.join(valueTarget, " , ")).append(")");
+        return sql.toString();
+    }
 
-                //主键
-                String primaryKey = StringUtil.join(targetPrimaryKeys, " AND ");
-                //更新
-                String update = StringUtil.join(updateTarget, " , ");
-                //插入
-                String insert = StringUtil.join(insertTarget, " , ");
-                //值
-                String value = StringUtil.join(valueTarget, " , ");
-
-
-                //using 里面的查询语句
-                List<String> sourceUsing = new ArrayList<>();
-                //统计同步数量
-                int count = 0;
-                // 4.处理数据库的返回结果(使用ResultSet类)
-                while (sourceResultSet.next()) {
-                    StringBuilder select = new StringBuilder("select ");
-                    //键值对
-                    List<String> kvs = new ArrayList<>();
-                    for (int i = 1; i <= columnCount; i++) {
-                        String key = metaData.getColumnLabel(i);//列名称
-                        String val = null;
-                        String columnType = metaData.getColumnTypeName(i);//列类型
-                        if (columnType.equalsIgnoreCase("DATETIME") || columnType.equalsIgnoreCase("DATE")) {
-                            if (sourceResultSet.getString(key) != null && !sourceResultSet.getString(key).isEmpty()) {
-                                val = sourceResultSet.getString(key);
-                                if (StringUtil.isNotEmpty(val)) {
-                                    val = String.format("TO_DATE('%s','yyyy-MM-dd HH24:mi:ss')", val);
-                                }
-                            }
-                        } else {
-                            if (sourceResultSet.getString(key) != null && !sourceResultSet.getString(key).isEmpty()) {
-                                val = sourceResultSet.getString(key);
-                                //如果是有单引号的要把所有的单引号替换成两个单引号，然后括号括起来的就是'''desc'''这样的，插入的时候''会再变成'
-                                if (val.contains("'")) {
-                                    val = val.replaceAll("'", "''");
-                                }
-                                val = String.format("'%s'", val);
-                            }
-                        }
-                        if (StringUtil.isNotEmpty(val)) {
-                            val = String.format("%s AS %s", val, key);
-                        } else {
-                            val = String.format("NULL AS %s", key);
-                        }
-                        kvs.add(val);
-                    }
-                    select.append(StringUtil.join(kvs, ","));
-                    select.append(" FROM DUAL");
-                    //到这里：select '' AS A from dual
-
-                    sourceUsing.add(select.toString());
-                    count++;
-                    if (sourceUsing.size() >= buffer) {
-                        saveOrUpdate(targetConnection, config.getTargetTable(), sourceUsing, primaryKey, update, insert, value);
-                        sourceUsing = new ArrayList<>();
-                        log.debug("\033[40;32;0m 同步表：{} -> {} 进行中，当前已同步：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), count);
-                    }
+    /**
+     * 把源结果集的数据按批 merge 到目标表
+     * <br>
+     * 按配置属性里面的 batchSize（默认 {@value #buffer}）行执行一次批处理，commitInterval（默认和 batchSize 一样）行提交一次事务，
+     * 出错的时候回滚没有提交的部分
+     *
+     * @param targetConnection 目标连接
+     * @param sqlMerge         {@link #mergeSql(String, String[], List)} 生成的语句
+     * @param sourceResultSet  源结果集
+     * @param binder           源结果集的绑定器
+     * @param config           配置
+     * @return 同步的行数
+     * @throws SQLException 异常
+     */
+    public long merge(Connection targetConnection, String sqlMerge, ResultSet sourceResultSet, SyncRowBinder binder, DataSyncConfig config) throws SQLException {
+        int batchSize = getProperty(config, batchSizePropertiesKey, buffer);
+        int commitInterval = getProperty(config, commitIntervalPropertiesKey, batchSize);
+        boolean autoCommit = targetConnection.getAutoCommit();
+        targetConnection.setAutoCommit(false);
+        //统计同步数量
+        long count = 0;
+        try (PreparedStatement mergeStatement = targetConnection.prepareStatement(sqlMerge)) {
+            int batched = 0;
+            long uncommitted = 0;
+            while (sourceResultSet.next()) {
+                binder.copy(sourceResultSet, mergeStatement);
+                mergeStatement.addBatch();
+                batched++;
+                count++;
+                if (batched >= batchSize) {
+                    mergeStatement.executeBatch();
+                    uncommitted += batched;
+                    batched = 0;
+                    log.debug("\033[40;32;0m 同步表：{} -> {} 进行中，当前已同步：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), count);
                 }
-                saveOrUpdate(targetConnection, config.getTargetTable(), sourceUsing, primaryKey, update, insert, value);
-                log.debug("\033[40;32;0m 同步表：{} -> {} 进行中，当前已同步：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), count);
+                if (uncommitted >= commitInterval) {
+                    targetConnection.commit();
+                    uncommitted = 0;
+                }
+            }
+            if (batched > 0) {
+                mergeStatement.executeBatch();
             }
+            targetConnection.commit();
+            log.debug("\033[40;32;0m 同步表：{} -> {} 进行中，当前已同步：{} \t\t\t\033[0m", config.getSourceTable(), config.getTargetTable(), count);
+        } catch (SQLException e) {
+            log.error("\033[40;32;0m 执行SQL失败！：\r\n{} \t\t\t\033[0m", sqlMerge);
+            targetConnection.rollback();
+            throw e;
+        } finally {
+            targetConnection.setAutoCommit(autoCommit);
+        }
+        return count;
+    }
+
+    /**
+     * 从 {@link DataSyncConfig#getProperties()} 里面获取正整数配置
+     *
+     * @param config       配置
+     * @param key          属性 key
+     * @param defaultValue 没有配置或者配置不正确时的默认值
+     * @return 配置值
+     */
+    private static int getProperty(DataSyncConfig config, String key, int defaultValue) {
+        if (config.getProperties() == null) {
+            return defaultValue;
         }
+        Integer value = config.getProperties().getInteger(key);
+        return value == null || value <= 0 ? defaultValue : value;
     }
 
     /**
@@ -189,7 +252,9 @@ public class DataSyncOracleHandler implements IDataSyncHandler {
      * @param insert      插入语句 T.A,T.B
      * @param value       插入值 S.A,S.B
      * @throws Exception 异常
+     * @deprecated 每一批都是不同的 SQL 文本，oracle 每次都要硬解析，使用 {@link #mergeSql(String, String[], List)} 和 {@link #merge(Connection, String, ResultSet, SyncRowBinder, DataSyncConfig)}
      */
+    @Deprecated
     public void saveOrUpdate(Connection connTarget, String targetTable, List<String> sourceUsing, String primaryKey, String update, String insert, String value) throws Exception {
         //oracle merge into的模板 MERGE INTO {源表} T USING({查询}) S ON ({主键}) WHEN MATCHED THEN UPDATE SET {更新} WHEN NOT MATCHED THEN ({插入}) VALUES ({值})
         if (!sourceUsing.isEmpty()) {
@@ -4,6 +4,7 @@ import io.github.taybct.tool.core.ds.DBHelper;
 import io.github.taybct.tool.core.ds.sync.DataSyncConfig;
 import io.github.taybct.tool.core.ds.sync.DriverType;
 import io.github.taybct.tool.core.ds.sync.IDataSyncHandler;
+import io.github.taybct.tool.core.ds.sync.SyncRowBinder;
 import io.github.taybct.tool.core.util.StringUtil;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -13,8 +14,11 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * <pre>
@@ -59,6 +63,39 @@ public class DataSyncPGSQL$MySQLHandler implements IDataSyncHandler {
         return preparedStatement;
     }
 
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String upsertSql(Connection targetConnection, DataSyncConfig config, SyncRowBinder binder) {
+        String[] columns = binder.columns();
+        // insert into table (f1,f2,f3...) values (?,?,?...)
+        String sqlInsert = String.format("INSERT INTO %s (%s) VALUES (%s)", config.getTargetTable()
+                , String.join(",", columns)
+                , String.join(",", Collections.nCopies(columns.length, "?")));
+        return switch (config.getTargetDriver()) {
+            // on duplicate key update f1=values(f1),f2=values(f2),f3=values(f3)...
+            case (DriverType.mysql), (DriverType.mysqlCJ) -> sqlInsert + " ON DUPLICATE KEY UPDATE "
+                    + Arrays.stream(columns).map(col -> col + "=VALUES(" + col + ")").collect(Collectors.joining(","));
+            // ON CONFLICT (id) do update set f1=EXCLUDED.f1,f2=EXCLUDED.f2,f3=EXCLUDED.f3...
+            case (DriverType.postgresSQL) -> sqlInsert + " ON CONFLICT (" + config.getFieldUniqueKye() + ") DO UPDATE SET "
+                    + Arrays.stream(columns).map(col -> col + "=EXCLUDED." + col).collect(Collectors.joining(","));
+            default -> throw new RuntimeException("不支持的数据库类型");
+        };
+    }
+
+    @Override
+    public String partitionExpression(DataSyncConfig config, String column, int partitions) {
+        return switch (config.getSourceDriver()) {
+            case (DriverType.mysql), (DriverType.mysqlCJ) -> String.format("MOD(CRC32(%s), %d)", column, partitions);
+            // hashtext 的结果有负数，转成 bigint 再取绝对值，避免 int 最小值取绝对值溢出
+            case (DriverType.postgresSQL) -> String.format("MOD(ABS(CAST(HASHTEXT(CAST(%s AS TEXT)) AS BIGINT)), %d)", column, partitions);
+            default -> IDataSyncHandler.super.partitionExpression(config, column, partitions);
+        };
+    }
+
     @SneakyThrows
     @Override
     public void sync(DataSyncConfig config
@@ -67,20 +104,8 @@ public class DataSyncPGSQL$MySQLHandler implements IDataSyncHandler {
              Connection targetConnection = DBHelper.conn(config.getTargetDriver(), config.getTargetUrl(), config.getTargetUser(), config.getTargetPass());
              PreparedStatement sourceStatement = queryStatement.apply(sourceConnection, config)) {
 
-            String lastSyncTime = "1970-01-01 00:00:00";
-            PreparedStatement targetStatement = targetConnection.prepareStatement(config.getSqlLastSyncTime());
-            ResultSet targetResultSet = targetStatement.executeQuery();
-            while (targetResultSet.next()) {
-                Object date = targetResultSet.getDate(config.getFieldLastSyncTime());
-                Object time = targetResultSet.getTime(config.getFieldLastSyncTime());
-                if (date != null && time != null) {
-                    lastSyncTime = date + " " + time;
-                    log.debug("\033[40;32;0m 上一次更新时间：{} \t\t\t\033[0m", lastSyncTime);
-                    break;
-                }
-            }
-            targetResultSet.close();
-            targetStatement.close();
+            String lastSyncTime = lastSyncTime(targetConnection, config);
+            log.debug("\033[40;32;0m 上一次更新时间：{} \t\t\t\033[0m", lastSyncTime);
 
             sourceStatement.setString(1, lastSyncTime);
             try (ResultSet sourceResultSet = sourceStatement.executeQuery()) {
@@ -1,6 +1,5 @@
 package io.github.taybct.tool.core.enhance;
 
-import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -8,29 +7,86 @@ import io.github.taybct.tool.core.annotation.EnhanceElement;
 import io.github.taybct.tool.core.annotation.EnhanceElementIgnore;
 import io.github.taybct.tool.core.annotation.EnhanceElementMap;
 import io.github.taybct.tool.core.annotation.EnhanceElements;
-import io.github.taybct.tool.core.util.BeanUtil;
 import io.github.taybct.tool.core.util.StringUtil;
+import io.github.taybct.tool.core.util.accessor.BeanAccessor;
+import io.github.taybct.tool.core.util.accessor.PropertyAccessor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.lang.Nullable;
 
-import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * 加解密处理器
+ * <br>
+ * 注解上配置的处理器（{@code Function}）每个类型只会创建一个实例，按注解解析出来的处理器链、实体类需要增强的字段都会缓存起来，
+ * 所以处理器需要是无状态、线程安全的
+ * <br>
+ * 返回结果是同一种实体的分页、集合时，会按字段批量处理（处理器实现了 {@link IBatchEnhanceFunction} 的话一次处理整个字段的值），
+ * 开启 {@linkplain EnhanceProperties#getParallel() 并行处理} 之后，数量超过阈值的数据会拆分到独立的线程池里面处理
  *
  * @author XiJieYin <br> 2024/4/19 15:13
  */
 @Slf4j
-public class EnDecryptedHandler implements IMethodEnhanceHandler {
+public class EnDecryptedHandler implements IMethodEnhanceHandler, DisposableBean {
+
+    /**
+     * 没有处理器
+     */
+    @SuppressWarnings("unchecked")
+    private static final Function<Object, Object>[] EMPTY_FUNCTIONS = new Function[0];
+
+    /**
+     * 处理器实例，每个处理器类型只创建一次
+     */
+    private static final Map<Class<?>, Function<Object, Object>> FUNCTION_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 处理器链，key 是注解上配置的处理器类型
+     */
+    private static final Map<List<Class<?>>, Function<Object, Object>[]> CHAIN_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 按注解和参数/字段名解析好的处理器链
+     */
+    private static final Map<ChainKey, Function<Object, Object>[]> RESOLVED_CHAIN_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 实体类的增强计划
+     */
+    private static final Map<Class<?>, EntityPlan> ENTITY_PLAN_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 方法上的增强注解
+     */
+    private static final Map<Method, MethodPlan> METHOD_PLAN_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 配置
+     */
+    private final EnhanceProperties properties;
+
+    /**
+     * 并行处理的线程池，开启并行处理并且第一次用到的时候才创建
+     */
+    private volatile ForkJoinPool pool;
+
+    public EnDecryptedHandler() {
+        this(new EnhanceProperties());
+    }
+
+    public EnDecryptedHandler(EnhanceProperties properties) {
+        this.properties = properties;
+    }
 
     @Override
     public void before(Method method
@@ -39,12 +95,11 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
             , Object aThis
             , AccessibleObject staticPart) {
 
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        MethodPlan methodPlan = getMethodPlan(method);
 
         for (int i = 0; i < argumentsNames.length; i++) {
-            // 参数的类型
-            Annotation[] parameterAnnotation = parameterAnnotations[i];
-            EnhanceElement enDecryptedElement = checkAnnotation(() -> parameterAnnotation, EnhanceElement.class);
+            // 参数上的注解
+            EnhanceElement enDecryptedElement = methodPlan.parameterElements()[i];
             // 参数名
             String argumentsName = argumentsNames[i];
 
@@ -59,7 +114,7 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
                         , o
                         , BeanUtils.isSimpleValueType(cls)
                         , true
-                        , () -> method.isAnnotationPresent(EnhanceElements.class) ? method.getAnnotation(EnhanceElements.class) : null
+                        , methodPlan::elements
                         , () -> enDecryptedElement);
 
                 arguments[i] = edObject;
@@ -99,13 +154,20 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
 
         Object o = proceed.get();
         if (ObjectUtil.isNotEmpty(o)) {
+            List<?> records = getEntityRecords(o);
+            if (records != null) {
+                // 同一种实体的分页、集合，按字段批量处理
+                enDeEntities(records, false);
+                proceed.set(o);
+                return;
+            }
             Class<?> cls = o.getClass();
 
             Object edObject = enDecrypted(null
                     , o
                     , BeanUtils.isSimpleValueType(cls)
                     , false
-                    , () -> method.isAnnotationPresent(EnhanceElements.class) ? method.getAnnotation(EnhanceElements.class) : null
+                    , getMethodPlan(method)::elements
                     , () -> null);
             proceed.set(edObject);
             return;
@@ -113,6 +175,100 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
         proceed.set(o);
     }
 
+    /**
+     * 获取返回结果里面的实体集合，只有所有元素都是同一种需要增强的实体的时候才返回
+     *
+     * @param o 返回结果
+     * @return 实体集合，不符合条件的时候为 null
+     */
+    @Nullable
+    private static List<?> getEntityRecords(Object o) {
+        Collection<?> collection;
+        if (o instanceof IPage<?> page && o.getClass().isAnnotationPresent(EnhanceElements.class)) {
+            collection = page.getRecords();
+        } else if (o instanceof Collection<?> c) {
+            collection = c;
+        } else {
+            return null;
+        }
+        if (collection == null || collection.isEmpty()) {
+            return null;
+        }
+        Object first = collection.iterator().next();
+        if (first == null || !first.getClass().isAnnotationPresent(EnhanceElements.class)) {
+            return null;
+        }
+        Class<?> entityClazz = first.getClass();
+        for (Object record : collection) {
+            if (record == null || record.getClass() != entityClazz) {
+                return null;
+            }
+        }
+        return collection instanceof List<?> list ? list : new ArrayList<>(collection);
+    }
+
+    /**
+     * 增强同一种实体的集合，数量超过阈值并且开启了并行处理的时候拆分到多个线程处理
+     *
+     * @param records     实体集合
+     * @param isParameter 是否是参数，true 是参数，false 是返回结果
+     */
+    private void enDeEntities(List<?> records, boolean isParameter) {
+        int size = records.size();
+        int parallelism = Math.max(1, properties.getParallelism());
+        if (!Boolean.TRUE.equals(properties.getParallel()) || size < properties.getParallelThreshold() || parallelism == 1) {
+            enDeEntityBatch(records, isParameter);
+            return;
+        }
+        int chunkSize = (size + parallelism - 1) / parallelism;
+        ForkJoinPool forkJoinPool = getPool(parallelism);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int from = chunkSize; from < size; from += chunkSize) {
+            List<?> chunk = records.subList(from, Math.min(from + chunkSize, size));
+            tasks.add(forkJoinPool.submit(() -> enDeEntityBatch(chunk, isParameter)));
+        }
+        // 第一段在当前线程处理
+        enDeEntityBatch(records.subList(0, Math.min(chunkSize, size)), isParameter);
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * 获取并行处理的线程池
+     *
+     * @param parallelism 线程数
+     * @return ForkJoinPool
+     */
+    private ForkJoinPool getPool(int parallelism) {
+        ForkJoinPool forkJoinPool = this.pool;
+        if (forkJoinPool == null) {
+            synchronized (this) {
+                forkJoinPool = this.pool;
+                if (forkJoinPool == null) {
+                    forkJoinPool = new ForkJoinPool(parallelism);
+                    this.pool = forkJoinPool;
+                }
+            }
+        }
+        return forkJoinPool;
+    }
+
+    /**
+     * 关闭并行处理的线程池
+     */
+    @Override
+    public void destroy() {
+        ForkJoinPool forkJoinPool;
+        synchronized (this) {
+            forkJoinPool = this.pool;
+            this.pool = null;
+        }
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+
     /**
      * 增强字符串
      *
@@ -134,12 +290,24 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
                 , isParameter
                 , enDecryptedMethodSupplier
                 , enDecryptedElementSupplier);
+        return applyFunctions(enDeHandlerFunctions, edStr);
+    }
+
+    /**
+     * 按顺序执行处理器
+     *
+     * @param enDeHandlerFunctions 处理器，可以为 null
+     * @param value                需要处理的值
+     * @return 处理之后的值
+     */
+    private static Object applyFunctions(@Nullable Function<Object, Object>[] enDeHandlerFunctions, Object value) {
+        Object edValue = value;
         if (enDeHandlerFunctions != null) {
             for (Function<Object, Object> enDeHandlerFunction : enDeHandlerFunctions) {
-                edStr = enDeHandlerFunction.apply(edStr);
+                edValue = enDeHandlerFunction.apply(edValue);
             }
         }
-        return edStr;
+        return edValue;
     }
 
     /**
@@ -248,73 +416,151 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
             return page;
         }
 
-        Class<?> entityClazz = entity.getClass();
+        // 需要增强的字段和处理器链是按类型缓存的，不需要每次都解析注解、创建处理器
+        EntityPlan plan = ENTITY_PLAN_CACHE.computeIfAbsent(entity.getClass(), EntityPlan::new);
+        for (FieldPlan field : plan.fields()) {
+            enDeField(entity, plan, field, isParameter);
+        }
+        return entity;
+    }
 
-        List<Field> allFields = BeanUtil.getAllFields(entityClazz);
-        Method[] methods = entityClazz.getMethods();
-        for (Field field : allFields) {
-            if (Modifier.isStatic(field.getModifiers())) {
-                // 如果是静态字段，就不管
+    /**
+     * 按字段批量增强同一种实体的集合，同一个字段的值一起交给处理器
+     *
+     * @param records     实体集合，所有元素都是同一个类型
+     * @param isParameter 是否是参数，true 是参数，false 是返回结果
+     */
+    private static void enDeEntityBatch(List<?> records, boolean isParameter) {
+        EntityPlan plan = ENTITY_PLAN_CACHE.computeIfAbsent(records.get(0).getClass(), EntityPlan::new);
+        for (FieldPlan field : plan.fields()) {
+            if (!field.simpleValueType()) {
+                for (Object entity : records) {
+                    enDeField(entity, plan, field, isParameter);
+                }
                 continue;
             }
-
-            if (field.isAnnotationPresent(EnhanceElementIgnore.class)) {
+            Function<Object, Object>[] functions = isParameter ? field.parameterFunctions() : field.resultFunctions();
+            if (functions == null) {
                 continue;
             }
-
-            String fieldName = field.getName();
-            Object fieldValue = null;
-            // 字段类型
-            Class<?> cls = field.getType();
-
-            try {
-                Method readMethod = (new PropertyDescriptor(fieldName, cls)).getReadMethod();
-                fieldValue = readMethod.invoke(entity);
-            } catch (Exception e) {
-                log.trace(e.getMessage(), e);
+            List<Object> entities = new ArrayList<>(records.size());
+            List<String> values = new ArrayList<>(records.size());
+            for (Object entity : records) {
+                if (readField(field.property(), entity) instanceof String str && StringUtil.isNotBlank(str)) {
+                    entities.add(entity);
+                    values.add(str);
+                }
             }
-            field.setAccessible(true);
-            try {
-                if (fieldValue == null) {
-                    fieldValue = field.get(entity);
+            if (values.isEmpty()) {
+                continue;
+            }
+            Object[] edValues = applyBatchFunctions(functions, values.toArray(new String[0]));
+            for (int i = 0; i < edValues.length; i++) {
+                if (edValues[i] != values.get(i)) {
+                    writeField(field.property(), entities.get(i), edValues[i]);
                 }
-            } catch (Exception e) {
-                log.trace(e.getMessage(), e);
             }
-            if (fieldValue == null) {
-                String firstUpper = StringUtil.upperFirst(fieldName);
-                List<Method> methodList = Arrays.stream(methods).filter(m -> m.getName().equals("is" + firstUpper)
-                                || m.getName().equals("get" + firstUpper))
-                        .collect(Collectors.toList());
-                Method readMethod;
-                if (CollectionUtil.isNotEmpty(methodList) && (readMethod = methodList.get(0)) != null) {
-                    try {
-                        fieldValue = readMethod.invoke(entity);
-                    } catch (IllegalAccessException | InvocationTargetException e) {
-                        log.trace(e.getMessage(), e);
-                    }
+        }
+    }
+
+    /**
+     * 按顺序批量执行处理器
+     *
+     * @param enDeHandlerFunctions 处理器
+     * @param values               需要处理的值
+     * @return 处理之后的值
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object[] applyBatchFunctions(Function<Object, Object>[] enDeHandlerFunctions, Object[] values) {
+        Object[] edValues = values;
+        for (Function<Object, Object> enDeHandlerFunction : enDeHandlerFunctions) {
+            if (enDeHandlerFunction instanceof IBatchEnhanceFunction batchFunction) {
+                edValues = batchFunction.applyBatch(typedArray(edValues));
+            } else {
+                Object[] next = new Object[edValues.length];
+                for (int i = 0; i < edValues.length; i++) {
+                    next[i] = enDeHandlerFunction.apply(edValues[i]);
                 }
+                edValues = next;
+            }
+        }
+        return edValues;
+    }
+
+    /**
+     * 逐个处理之后的结果是 {@code Object[]}，交给批量处理器之前按元素的实际类型转成对应的数组，
+     * 比如都是字符串的时候转成 {@code String[]}，批量处理器的参数类型才能对得上
+     *
+     * @param values 值
+     * @return 元素类型一致的时候是对应类型的数组，否则原样返回
+     */
+    private static Object[] typedArray(Object[] values) {
+        if (values.getClass() != Object[].class) {
+            return values;
+        }
+        Class<?> type = null;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (type == null) {
+                type = value.getClass();
+            } else if (type != value.getClass()) {
+                return values;
             }
+        }
+        if (type == null) {
+            return values;
+        }
+        return Arrays.copyOf(values, values.length, type.arrayType().asSubclass(Object[].class));
+    }
 
-            Object edObject = enDecrypted(fieldName
+    /**
+     * 增强实体的一个字段
+     *
+     * @param entity      实体类对象
+     * @param plan        实体类的增强计划
+     * @param field       字段
+     * @param isParameter 是否是参数，true 是参数，false 是返回结果
+     */
+    private static void enDeField(Object entity, EntityPlan plan, FieldPlan field, boolean isParameter) {
+        PropertyAccessor property = field.property();
+        Object fieldValue = readField(property, entity);
+        Object edObject;
+        if (field.simpleValueType()) {
+            // 简单类型直接用解析好的处理器链
+            edObject = fieldValue instanceof String str && StringUtil.isNotBlank(str)
+                    ? applyFunctions(isParameter ? field.parameterFunctions() : field.resultFunctions(), str)
+                    : fieldValue;
+        } else {
+            edObject = enDecrypted(property.getName()
                     , fieldValue
-                    , BeanUtils.isSimpleValueType(cls)
+                    , false
                     , isParameter
-                    , () -> entityClazz.isAnnotationPresent(EnhanceElements.class) ? entityClazz.getAnnotation(EnhanceElements.class) : null
-                    , () -> field.isAnnotationPresent(EnhanceElement.class) ? field.getAnnotation(EnhanceElement.class) : null);
-            try {
-                (new PropertyDescriptor(fieldName, entityClazz)).getWriteMethod().invoke(entity, edObject);
-            } catch (IllegalAccessException | InvocationTargetException |
-                     IntrospectionException e) {
-                log.trace("增强失败：" + e.getMessage(), e);
-                try {
-                    field.set(entity, edObject);
-                } catch (IllegalAccessException e1) {
-                    log.trace("增强失败：" + e1.getMessage(), e1);
-                }
-            }
+                    , plan::elements
+                    , field::element);
+        }
+        if (edObject != fieldValue) {
+            // 没有变化就不用写回去了
+            writeField(property, entity, edObject);
+        }
+    }
+
+    private static Object readField(PropertyAccessor property, Object entity) {
+        try {
+            return property.get(entity);
+        } catch (Exception e) {
+            log.trace(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private static void writeField(PropertyAccessor property, Object entity, Object value) {
+        try {
+            property.set(entity, value);
+        } catch (Exception e) {
+            log.trace("增强失败：" + e.getMessage(), e);
         }
-        return entity;
     }
 
     /**
@@ -509,7 +755,29 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
             , boolean isParameter
             , Supplier<EnhanceElements> enDecryptedMethodSupplier
             , Supplier<EnhanceElement> enDecryptedElementSupplier) {
-        EnhanceElements enDecryptedMethod = enDecryptedMethodSupplier.get();
+        ChainKey chainKey = new ChainKey(enDecryptedMethodSupplier.get(), enDecryptedElementSupplier.get(), argumentsName, isParameter);
+        Function<Object, Object>[] functions = RESOLVED_CHAIN_CACHE.computeIfAbsent(chainKey
+                , key -> Optional.ofNullable(resolveEnDeHandlerFunctions(key.name()
+                        , key.parameter()
+                        , key.elements()
+                        , key.element())).orElse(EMPTY_FUNCTIONS));
+        return functions.length == 0 ? null : functions;
+    }
+
+    /**
+     * 解析处理方法
+     *
+     * @param argumentsName      需要被获取的直接的对象的名称，比如方法上的参数，类型里面的字段
+     * @param isParameter        是否是参数，true 是参数，false 是返回结果
+     * @param enDecryptedMethod  {@link EnhanceElements} 注解，比如是方法上的，或者是类型上的
+     * @param enDecryptedElement {@link EnhanceElement} 注解，比如是方法参数上的，或者是类型字段上的
+     * @return {@code Function<Object, Object>[]} 处理方法数组，按数组顺序处理增强
+     */
+    @Nullable
+    private static Function<Object, Object>[] resolveEnDeHandlerFunctions(@Nullable String argumentsName
+            , boolean isParameter
+            , @Nullable EnhanceElements enDecryptedMethod
+            , @Nullable EnhanceElement enDecryptedElement) {
         // 每个参数会用到的增强器
         Map<String, Function<Object, Object>[]> enDecryptedParameterMap = new HashMap<>();
         // 每个参数名会用到的增强器
@@ -518,21 +786,21 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
             if (StringUtil.isBlank(argumentsName)) {
                 // 如果没有指定参数/字段名，说明是返回结果了这里直接就返回方法里面的增强处理方法
 
-                Class<? extends Function<Object, Object>>[] classes = enDecryptedMethod.resultHandler();
+                Class<? extends Function<?, ?>>[] classes = enDecryptedMethod.resultHandler();
                 return getEnDeHandlerFunctions(classes);
             }
-            for (EnhanceElement enDecryptedElement : enDecryptedMethod.enDecryptedElements()) {
+            for (EnhanceElement decryptedElement : enDecryptedMethod.enDecryptedElements()) {
                 // 是哪个参数需要增强
-                String key = enDecryptedElement.value();
-                Class<? extends Function<Object, Object>>[] classes = isParameter ? enDecryptedElement.parameterHandler()
-                        : enDecryptedElement.resultHandler();
+                String key = decryptedElement.value();
+                Class<? extends Function<?, ?>>[] classes = isParameter ? decryptedElement.parameterHandler()
+                        : decryptedElement.resultHandler();
                 Function<Object, Object>[] enDeHandlerFunctions = getEnDeHandlerFunctions(classes);
                 if (enDeHandlerFunctions != null) {
                     enDecryptedParameterMap.put(key, enDeHandlerFunctions);
                 }
             }
             for (String key : enDecryptedMethod.value()) {
-                Class<? extends Function<Object, Object>>[] classes = isParameter ? enDecryptedMethod.parameterHandler()
+                Class<? extends Function<?, ?>>[] classes = isParameter ? enDecryptedMethod.parameterHandler()
                         : enDecryptedMethod.resultHandler();
                 Function<Object, Object>[] enDeHandlerFunctions = getEnDeHandlerFunctions(classes);
                 if (enDeHandlerFunctions != null) {
@@ -540,10 +808,9 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
                 }
             }
         }
-        EnhanceElement enDecryptedElement = enDecryptedElementSupplier.get();
         if (enDecryptedElement != null) {
             // 如果有增强注解
-            Class<? extends Function<Object, Object>>[] classes = isParameter ? enDecryptedElement.parameterHandler()
+            Class<? extends Function<?, ?>>[] classes = isParameter ? enDecryptedElement.parameterHandler()
                     : enDecryptedElement.resultHandler();
             return getEnDeHandlerFunctions(classes);
         } else if (enDecryptedParameterMap.containsKey(argumentsName)) {
@@ -563,23 +830,126 @@ public class EnDecryptedHandler implements IMethodEnhanceHandler {
      * @return {@code Function<Object, Object>[]} 处理方法数组，按数组顺序处理增强
      */
     @Nullable
-    private static Function<Object, Object>[] getEnDeHandlerFunctions(Class<? extends Function<Object, Object>>[] classes) {
-        Function<Object, Object>[] array = null;
-        List<Function<Object, Object>> funList = new ArrayList<>();
-        for (Class<? extends Function<Object, Object>> clazz : classes) {
-            try {
-                Constructor<? extends Function<Object, Object>> declaredConstructor = clazz.getDeclaredConstructor();
-                Function<Object, Object> function = declaredConstructor.newInstance();
-                funList.add(function);
-            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException |
-                     InvocationTargetException e) {
-                throw new RuntimeException(e);
+    private static Function<Object, Object>[] getEnDeHandlerFunctions(Class<? extends Function<?, ?>>[] classes) {
+        if (classes.length == 0) {
+            return null;
+        }
+        return CHAIN_CACHE.computeIfAbsent(List.of(classes), key -> {
+            List<Function<Object, Object>> funList = new ArrayList<>();
+            for (Class<?> clazz : key) {
+                funList.add(FUNCTION_CACHE.computeIfAbsent(clazz, EnDecryptedHandler::newFunction));
             }
+            return funList.toArray(new Function[0]);
+        });
+    }
+
+    /**
+     * 创建处理器实例
+     *
+     * @param clazz 处理器类型
+     * @return 处理器
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> newFunction(Class<?> clazz) {
+        try {
+            Constructor<?> declaredConstructor = clazz.getDeclaredConstructor();
+            return (Function<Object, Object>) declaredConstructor.newInstance();
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new RuntimeException(e);
         }
-        if (!funList.isEmpty()) {
-            array = funList.toArray(new Function[funList.size()]);
+    }
+
+    /**
+     * 获取方法的增强注解，第一次获取的时候解析
+     *
+     * @param method 方法
+     * @return 方法上的注解
+     */
+    private MethodPlan getMethodPlan(Method method) {
+        return METHOD_PLAN_CACHE.computeIfAbsent(method, m -> {
+            Annotation[][] parameterAnnotations = m.getParameterAnnotations();
+            EnhanceElement[] parameterElements = new EnhanceElement[parameterAnnotations.length];
+            for (int i = 0; i < parameterAnnotations.length; i++) {
+                Annotation[] parameterAnnotation = parameterAnnotations[i];
+                parameterElements[i] = checkAnnotation(() -> parameterAnnotation, EnhanceElement.class);
+            }
+            return new MethodPlan(m.isAnnotationPresent(EnhanceElements.class) ? m.getAnnotation(EnhanceElements.class) : null
+                    , parameterElements);
+        });
+    }
+
+    /**
+     * 方法上的增强注解
+     *
+     * @param elements          方法上的 {@link EnhanceElements}
+     * @param parameterElements 每个参数上的 {@link EnhanceElement}
+     */
+    private record MethodPlan(EnhanceElements elements, EnhanceElement[] parameterElements) {
+    }
+
+    /**
+     * 处理器链的缓存 key，注解的 equals 是按内容比较的
+     *
+     * @param elements  {@link EnhanceElements} 注解
+     * @param element   {@link EnhanceElement} 注解
+     * @param name      参数/字段名
+     * @param parameter 是否是参数
+     */
+    private record ChainKey(EnhanceElements elements, EnhanceElement element, String name, boolean parameter) {
+    }
+
+    /**
+     * 需要增强的字段
+     *
+     * @param property           字段读写器
+     * @param simpleValueType    是否是简单类型
+     * @param element            字段上的 {@link EnhanceElement}
+     * @param parameterFunctions 作为参数时的处理器链
+     * @param resultFunctions    作为返回结果时的处理器链
+     */
+    private record FieldPlan(PropertyAccessor property
+            , boolean simpleValueType
+            , EnhanceElement element
+            , Function<Object, Object>[] parameterFunctions
+            , Function<Object, Object>[] resultFunctions) {
+    }
+
+    /**
+     * 实体类的增强计划，只保留需要处理的字段
+     *
+     * @param elements 类型上的 {@link EnhanceElements}
+     * @param fields   需要增强的字段
+     */
+    private record EntityPlan(EnhanceElements elements, List<FieldPlan> fields) {
+
+        EntityPlan(Class<?> entityClazz) {
+            this(entityClazz.getAnnotation(EnhanceElements.class), buildFields(entityClazz));
+        }
+
+        private static List<FieldPlan> buildFields(Class<?> entityClazz) {
+            EnhanceElements elements = entityClazz.getAnnotation(EnhanceElements.class);
+            List<FieldPlan> fields = new ArrayList<>();
+            for (PropertyAccessor property : BeanAccessor.of(entityClazz).getProperties()) {
+                if (property.isAnnotationPresent(EnhanceElementIgnore.class)) {
+                    continue;
+                }
+                EnhanceElement element = property.getAnnotation(EnhanceElement.class);
+                boolean simpleValueType = BeanUtils.isSimpleValueType(property.getType());
+                Function<Object, Object>[] parameterFunctions = null;
+                Function<Object, Object>[] resultFunctions = null;
+                if (simpleValueType) {
+                    parameterFunctions = getEnDeHandlerFunctions(property.getName(), true, () -> elements, () -> element);
+                    resultFunctions = getEnDeHandlerFunctions(property.getName(), false, () -> elements, () -> element);
+                    if (parameterFunctions == null && resultFunctions == null) {
+                        // 简单类型又没有处理器的字段不用管
+                        continue;
+                    }
+                }
+                fields.add(new FieldPlan(property, simpleValueType, element, parameterFunctions, resultFunctions));
+            }
+            return Collections.unmodifiableList(fields);
         }
-        return array;
     }
 
 }
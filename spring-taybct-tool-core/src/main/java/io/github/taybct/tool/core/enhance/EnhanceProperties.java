@@ -0,0 +1,35 @@
+package io.github.taybct.tool.core.enhance;
+
+import io.github.taybct.tool.core.constant.PropertiesPrefixConstants;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 方法增强（加解密）配置
+ *
+ * @author XiJieYin <br> 2026/10/17 19:20
+ */
+@Data
+@ConfigurationProperties(prefix = PropertiesPrefixConstants.ENHANCE)
+public class EnhanceProperties implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 4021736595436105437L;
+
+    /**
+     * 是否开启并行处理，开启之后数量超过 {@link #parallelThreshold} 的分页、集合结果会拆分到多个线程里面处理，默认关闭
+     */
+    private Boolean parallel = false;
+    /**
+     * 超过多少条数据才并行处理
+     */
+    private Integer parallelThreshold = 1000;
+    /**
+     * 并行处理的线程数，默认是 cpu 核数
+     */
+    private Integer parallelism = Runtime.getRuntime().availableProcessors();
+
+}
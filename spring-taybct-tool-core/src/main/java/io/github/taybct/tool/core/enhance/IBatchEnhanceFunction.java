@@ -0,0 +1,28 @@
+package io.github.taybct.tool.core.enhance;
+
+import java.util.function.Function;
+
+/**
+ * 可以批量处理的增强处理器
+ * <br>
+ * 处理实体集合的时候，同一个字段的所有值会一次性交给 {@link #applyBatch(Object[])}，
+ * 比如加解密的处理器可以只取一次 {@code Cipher} 然后处理整个数组，见 {@link io.github.taybct.tool.core.util.sm.SM4Coder.En}
+ * <br>
+ * 传进来的数组的元素类型是这些值实际的类型（字段值都是字符串的时候就是 {@code String[]}），和 {@code T} 对不上的时候会抛 {@link ClassCastException}，
+ * 和逐个调用 {@link #apply(Object)} 的表现一样
+ *
+ * @param <T> 处理之前的值的类型
+ * @param <R> 处理之后的值的类型
+ * @author XiJieYin <br> 2026/10/17 19:20
+ */
+public interface IBatchEnhanceFunction<T, R> extends Function<T, R> {
+
+    /**
+     * 批量处理
+     *
+     * @param values 需要处理的值，不会有 null 和空字符串
+     * @return 处理之后的值，长度和顺序都要和 values 一致
+     */
+    R[] applyBatch(T[] values);
+
+}
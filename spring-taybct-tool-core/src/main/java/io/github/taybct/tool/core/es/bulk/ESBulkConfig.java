@@ -0,0 +1,64 @@
+package io.github.taybct.tool.core.es.bulk;
+
+import lombok.*;
+import lombok.experimental.Accessors;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * <pre>
+ * ES 批量写入配置
+ * </pre>
+ * 条数和字节数哪个先到就先发一批，到了刷新间隔不够一批的也发出去
+ *
+ * @author XiJieYin <br> 2026/10/18 02:20
+ */
+@Data
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+@Builder(toBuilder = true)
+public class ESBulkConfig implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 每一批最多多少条
+     */
+    @Builder.Default
+    private int maxActions = 1000;
+
+    /**
+     * 每一批最多多少字节（按文档的 json 长度估算），要小于 es 的 http.max_content_length
+     */
+    @Builder.Default
+    private long maxBytes = 5 * 1024 * 1024;
+
+    /**
+     * 刷新间隔（毫秒），小于等于 0 不定时刷新，只在攒够一批、手动 flush 和关闭的时候发
+     */
+    @Builder.Default
+    private long flushIntervalMillis = 1000;
+
+    /**
+     * 同时在发送中的批次数，都在发送中的时候继续写入会等待
+     */
+    @Builder.Default
+    private int concurrentRequests = 2;
+
+    /**
+     * 失败重试次数，只重试失败的那些文档
+     */
+    @Builder.Default
+    private int maxRetries = 3;
+
+    /**
+     * 第一次重试前等待的时间（毫秒），之后每次翻倍
+     */
+    @Builder.Default
+    private long initialBackoffMillis = 200;
+
+}
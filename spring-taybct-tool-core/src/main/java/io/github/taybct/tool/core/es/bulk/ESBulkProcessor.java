@@ -0,0 +1,484 @@
+package io.github.taybct.tool.core.es.bulk;
+
+import cn.hutool.core.util.IdUtil;
+import io.github.taybct.tool.core.exception.def.BaseException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentProperty;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.BulkOptions;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * ES 批量写入
+ * </pre>
+ * <ul>
+ *     <li>写入的文档先放进缓冲区，条数或者字节数到了上限就作为一批发出去，定时把不够一批的也发出去</li>
+ *     <li>最多同时有 {@link ESBulkConfig#getConcurrentRequests()} 批在发送，都在发送中的时候写入会等待，不会无限制的占内存</li>
+ *     <li>一批里面部分文档失败的时候，只把可以重试的（429 和 5xx）失败文档按指数退避重新发送，其他的交给 {@link Listener}</li>
+ *     <li>用完之后要 {@link #close()}，会把剩下的都发完</li>
+ * </ul>
+ * 文档在写入的时候就转换成 json，字节数按 json 的 UTF-8 字节数计算，重试的时候不用再转换
+ * <br>
+ * es 返回的失败文档是按 id 对应的，所以没有 id 的文档在写入的时候就生成一个 id，
+ * 同一个 id 在缓冲区里面已经有了的时候，先把缓冲区作为一批发出去，保证同一批里面的 id 不重复
+ *
+ * @author XiJieYin <br> 2026/10/18 02:20
+ */
+@Slf4j
+public class ESBulkProcessor<T> implements AutoCloseable {
+
+    /**
+     * 每条操作除了文档之外，bulk 请求里面还有一行操作描述，大概算这么多字节
+     */
+    private static final int ACTION_OVERHEAD = 64;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final ElasticsearchPersistentEntity<?> persistentEntity;
+
+    private final IndexCoordinates index;
+
+    private final ESBulkConfig config;
+
+    private final Listener listener;
+
+    /**
+     * 缓冲区，需要持有 this 锁访问
+     */
+    private List<Action> buffer = new ArrayList<>();
+
+    /**
+     * 缓冲区里面的文档 id，需要持有 this 锁访问
+     */
+    private Set<String> bufferIds = new HashSet<>();
+
+    /**
+     * 缓冲区的字节数，需要持有 this 锁访问
+     */
+    private long bufferBytes;
+
+    /**
+     * 是否已经关闭，需要持有 this 锁访问
+     */
+    private boolean closed;
+
+    /**
+     * 发送中的批次
+     */
+    private final Semaphore inFlight;
+
+    private final ExecutorService executor;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong succeeded = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * 一条写入操作
+     *
+     * @param id    文档 id，用来找到失败的文档，同一批里面不重复
+     * @param query IndexQuery 或者 UpdateQuery
+     * @param bytes 估算的字节数
+     */
+    private record Action(String id, Object query, long bytes) {
+    }
+
+    /**
+     * 批量写入的结果通知，在发送的线程里面回调
+     */
+    public interface Listener {
+
+        /**
+         * 一批发送完成
+         *
+         * @param succeeded 成功的条数
+         */
+        default void afterBulk(int succeeded) {
+        }
+
+        /**
+         * 有文档重试之后还是失败了
+         *
+         * @param failures 失败的文档 id 和原因，没有 id 的文档是写入的时候生成的 id
+         * @param error    整批请求失败的异常，只是部分文档失败的时候为 null
+         */
+        default void onFailure(Map<String, String> failures, @Nullable Throwable error) {
+        }
+    }
+
+    public ESBulkProcessor(ElasticsearchOperations elasticsearchOperations
+            , Class<T> clazz
+            , ESBulkConfig config
+            , @Nullable Listener listener) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.persistentEntity = elasticsearchOperations.getElasticsearchConverter().getMappingContext()
+                .getRequiredPersistentEntity(clazz);
+        this.index = elasticsearchOperations.getIndexCoordinatesFor(clazz);
+        this.config = config;
+        this.listener = listener != null ? listener : new Listener() {
+        };
+        int concurrentRequests = Math.max(config.getConcurrentRequests(), 1);
+        this.inFlight = new Semaphore(concurrentRequests);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concurrentRequests, r -> {
+            Thread thread = new Thread(r, "es-bulk-" + this.index.getIndexName() + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (config.getFlushIntervalMillis() > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "es-bulk-" + this.index.getIndexName() + "-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.scheduler.scheduleWithFixedDelay(this::flushBuffer
+                    , config.getFlushIntervalMillis()
+                    , config.getFlushIntervalMillis()
+                    , TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * 写入（新增或者覆盖）文档
+     *
+     * @param entity 文档
+     */
+    public void index(T entity) {
+        Document document = this.elasticsearchOperations.getElasticsearchConverter().mapObject(entity);
+        String id = document.hasId() ? document.getId() : idOf(entity);
+        if (id == null) {
+            id = IdUtil.fastSimpleUUID();
+        }
+        String source = document.toJson();
+        add(id, new IndexQueryBuilder().withId(id).withSource(source).build(), utf8Length(source));
+    }
+
+    /**
+     * 写入（新增或者覆盖）文档
+     *
+     * @param entities 文档
+     */
+    public void index(Iterable<? extends T> entities) {
+        entities.forEach(this::index);
+    }
+
+    /**
+     * 写入已经构建好的 IndexQuery
+     *
+     * @param indexQuery 写入请求
+     */
+    public void index(IndexQuery indexQuery) {
+        String source = indexQuery.getSource();
+        if (source == null && indexQuery.getObject() != null) {
+            source = this.elasticsearchOperations.getElasticsearchConverter().mapObject(indexQuery.getObject()).toJson();
+            indexQuery.setSource(source);
+        }
+        if (indexQuery.getId() == null) {
+            indexQuery.setId(IdUtil.fastSimpleUUID());
+        }
+        add(indexQuery.getId(), indexQuery, source == null ? 0 : utf8Length(source));
+    }
+
+    /**
+     * 更新文档
+     *
+     * @param updateQuery 更新请求
+     */
+    public void update(UpdateQuery updateQuery) {
+        long bytes = updateQuery.getDocument() != null ? utf8Length(updateQuery.getDocument().toJson())
+                : updateQuery.getScript() != null ? utf8Length(updateQuery.getScript()) : 0;
+        add(updateQuery.getId(), updateQuery, bytes);
+    }
+
+    /**
+     * 字符串按 UTF-8 编码之后的字节数，请求体发出去是 UTF-8，中文一个字是 3 个字节，不能用 {@link String#length()}，
+     * 这里直接按字符算，不用真的编码一遍
+     *
+     * @param str 字符串
+     * @return 字节数
+     */
+    static long utf8Length(CharSequence str) {
+        long bytes = 0;
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+                // 代理对是一个 4 字节的字符
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    @Nullable
+    private String idOf(T entity) {
+        ElasticsearchPersistentProperty idProperty = this.persistentEntity.getIdProperty();
+        if (idProperty == null) {
+            return null;
+        }
+        Object id = this.persistentEntity.getPropertyAccessor(entity).getProperty(idProperty);
+        return id == null ? null : id.toString();
+    }
+
+    private void add(String id, Object query, long bytes) {
+        List<Action> duplicated = null;
+        List<Action> ready = null;
+        synchronized (this) {
+            if (this.closed) {
+                throw new BaseException("ES 批量写入已经关闭！");
+            }
+            // 同一批里面 id 重复的话失败的时候分不清是哪一条，先把前面的作为一批
+            if (this.bufferIds.contains(id)) {
+                duplicated = drain();
+            }
+            this.buffer.add(new Action(id, query, bytes + ACTION_OVERHEAD));
+            this.bufferIds.add(id);
+            this.bufferBytes += bytes + ACTION_OVERHEAD;
+            if (this.buffer.size() >= this.config.getMaxActions() || this.bufferBytes >= this.config.getMaxBytes()) {
+                ready = drain();
+            }
+        }
+        if (duplicated != null) {
+            submit(duplicated);
+        }
+        if (ready != null) {
+            submit(ready);
+        }
+    }
+
+    /**
+     * 取出缓冲区里面的所有操作，需要持有 this 锁
+     *
+     * @return 操作，缓冲区为空的时候返回 null
+     */
+    private List<Action> drain() {
+        if (this.buffer.isEmpty()) {
+            return null;
+        }
+        List<Action> actions = this.buffer;
+        this.buffer = new ArrayList<>(Math.min(this.config.getMaxActions(), 1024));
+        this.bufferIds = new HashSet<>();
+        this.bufferBytes = 0;
+        return actions;
+    }
+
+    /**
+     * 交给发送线程，发送中的批次满了就等待
+     *
+     * @param actions 一批操作
+     */
+    private void submit(List<Action> actions) {
+        this.inFlight.acquireUninterruptibly();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    execute(actions);
+                } finally {
+                    this.inFlight.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.inFlight.release();
+            throw new BaseException("ES 批量写入已经关闭！", e);
+        }
+    }
+
+    /**
+     * 定时把不够一批的发出去
+     */
+    private void flushBuffer() {
+        try {
+            List<Action> ready;
+            synchronized (this) {
+                ready = drain();
+            }
+            if (ready != null) {
+                submit(ready);
+            }
+        } catch (Exception e) {
+            log.error("ES 批量写入定时刷新失败！", e);
+        }
+    }
+
+    /**
+     * 发送一批，失败的文档按指数退避重试
+     *
+     * @param actions 一批操作
+     */
+    private void execute(List<Action> actions) {
+        List<Action> pending = actions;
+        for (int attempt = 0; ; attempt++) {
+            boolean canRetry = attempt < this.config.getMaxRetries();
+            List<Action> retry = new ArrayList<>();
+            Map<String, String> failures = new LinkedHashMap<>();
+            Throwable error = null;
+            try {
+                this.elasticsearchOperations.bulkOperation(pending.stream().map(Action::query).toList()
+                        , BulkOptions.defaultOptions()
+                        , this.index);
+                succeeded(pending.size());
+                return;
+            } catch (BulkFailureException e) {
+                Map<String, BulkFailureException.FailureDetails> failedDocuments = e.getFailedDocuments();
+                int ok = 0;
+                for (Action action : pending) {
+                    BulkFailureException.FailureDetails details = failedDocuments.get(action.id());
+                    if (details == null) {
+                        ok++;
+                    } else if (canRetry && retryable(details.status())) {
+                        retry.add(action);
+                    } else {
+                        failures.put(action.id(), details.errorMessage());
+                    }
+                }
+                succeeded(ok);
+            } catch (Exception e) {
+                // 整批请求失败（连接断开、超时等），整批重试
+                if (canRetry) {
+                    retry = pending;
+                } else {
+                    error = e;
+                    pending.forEach(action -> failures.put(action.id(), e.getMessage()));
+                }
+                log.warn("ES 批量写入 {} 失败（第 {} 次），{} 条", this.index.getIndexName(), attempt + 1, pending.size(), e);
+            }
+            int failedCount = failures.size();
+            if (failedCount > 0) {
+                this.failed.addAndGet(failedCount);
+                log.error("ES 批量写入 {} 有 {} 条失败！", this.index.getIndexName(), failedCount);
+                try {
+                    this.listener.onFailure(failures, error);
+                } catch (Exception e) {
+                    log.error("ES 批量写入失败回调异常！", e);
+                }
+            }
+            if (retry.isEmpty()) {
+                return;
+            }
+            try {
+                Thread.sleep(this.config.getInitialBackoffMillis() << Math.min(attempt, 16));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.failed.addAndGet(retry.size());
+                log.error("ES 批量写入 {} 重试被中断，{} 条没有写入", this.index.getIndexName(), retry.size());
+                return;
+            }
+            pending = retry;
+        }
+    }
+
+    private void succeeded(int count) {
+        if (count <= 0) {
+            return;
+        }
+        this.succeeded.addAndGet(count);
+        try {
+            this.listener.afterBulk(count);
+        } catch (Exception e) {
+            log.error("ES 批量写入完成回调异常！", e);
+        }
+    }
+
+    /**
+     * 429 是 es 忙不过来了，5xx 是节点的问题，这两种等一下再发可能会成功；其他的（比如 mapping 不对）重试也没用
+     *
+     * @param status http 状态码
+     * @return 是否可以重试
+     */
+    private static boolean retryable(Integer status) {
+        return status == null || status == 429 || status >= 500;
+    }
+
+    /**
+     * 把缓冲区里面的发出去，并且等所有发送中的批次（包括重试）完成
+     */
+    public void flush() {
+        List<Action> ready;
+        synchronized (this) {
+            ready = drain();
+        }
+        if (ready != null) {
+            submit(ready);
+        }
+        int permits = Math.max(this.config.getConcurrentRequests(), 1);
+        this.inFlight.acquireUninterruptibly(permits);
+        this.inFlight.release(permits);
+    }
+
+    /**
+     * 关闭，剩下的都发完之后停止发送线程，关闭之后不能再写入
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+        if (this.scheduler != null) {
+            // 不能打断正在执行的定时刷新，要等它把取出来的那一批交给发送线程，不然这一批就丢了
+            this.scheduler.shutdown();
+            try {
+                if (!this.scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("ES 批量写入 {} 定时刷新没有在 30 秒内结束", this.index.getIndexName());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 成功写入的条数
+     *
+     * @return 条数
+     */
+    public long getSucceeded() {
+        return this.succeeded.get();
+    }
+
+    /**
+     * 重试之后还是失败的条数
+     *
+     * @return 条数
+     */
+    public long getFailed() {
+        return this.failed.get();
+    }
+
+}
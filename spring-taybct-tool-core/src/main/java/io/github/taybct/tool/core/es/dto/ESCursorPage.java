@@ -0,0 +1,59 @@
+package io.github.taybct.tool.core.es.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * ES 游标分页结果
+ *
+ * @author XiJieYin <br> 2026/10/18 01:50
+ */
+@Data
+@Accessors(chain = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Schema(description = "ES 游标分页结果")
+public class ESCursorPage<E> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -6107253530476208337L;
+
+    /**
+     * 当前页数据
+     */
+    @Schema(description = "当前页数据")
+    private List<E> content;
+    /**
+     * 下一页要传的 point in time id，没有下一页的时候已经关闭了，为空
+     */
+    @Schema(description = "下一页要传的 point in time id，没有下一页为空")
+    private String pointInTimeId;
+    /**
+     * 下一页要传的排序值，没有下一页的时候为空
+     */
+    @Schema(description = "下一页要传的排序值，没有下一页为空")
+    private List<Object> searchAfter;
+    /**
+     * 是否还有下一页
+     */
+    @Schema(description = "是否还有下一页")
+    private boolean hasNext;
+    /**
+     * 总数，只有第一页统计，不统计的时候为空
+     */
+    @Schema(description = "总数，只有第一页统计，不统计的时候为空")
+    private Long total;
+    /**
+     * 总数是否准确，为 false 的时候总数只是一个下限
+     */
+    @Schema(description = "总数是否准确，为 false 的时候总数只是一个下限")
+    private Boolean totalExact;
+
+}
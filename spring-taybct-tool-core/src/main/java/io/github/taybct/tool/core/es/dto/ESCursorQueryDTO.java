@@ -0,0 +1,46 @@
+package io.github.taybct.tool.core.es.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serial;
+import java.util.List;
+
+/**
+ * ES 游标分页查询数据传输对象
+ * <br>用 point in time + search_after 翻页，不受 from + size 不能超过 1 万条的限制，翻得再深也不会变慢；
+ * 第一页不传 pointInTimeId 和 searchAfter，之后每一页把上一页返回的 {@link ESCursorPage#getPointInTimeId()} 和
+ * {@link ESCursorPage#getSearchAfter()} 原样传回来，{@link ESQueryDTO#getNumber()} 不起作用
+ *
+ * @author XiJieYin <br> 2026/10/18 01:50
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Accessors(chain = true)
+@NoArgsConstructor
+@Schema(description = "ES 游标分页查询数据传输对象")
+public class ESCursorQueryDTO<T> extends ESQueryDTO<T> {
+
+    @Serial
+    private static final long serialVersionUID = 3158806627305918624L;
+
+    /**
+     * point in time id，第一页为空
+     */
+    @Schema(description = "point in time id，第一页不传")
+    private String pointInTimeId;
+    /**
+     * 上一页最后一条数据的排序值，第一页为空
+     */
+    @Schema(description = "上一页最后一条数据的排序值，第一页不传")
+    private List<Object> searchAfter;
+    /**
+     * point in time 的保留时间（秒），只需要够翻到下一页
+     */
+    @Schema(description = "point in time 的保留时间（秒）", example = "60")
+    private Long keepAliveSeconds = 60L;
+
+}
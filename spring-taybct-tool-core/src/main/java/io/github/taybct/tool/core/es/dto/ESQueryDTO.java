@@ -45,6 +45,12 @@ public class ESQueryDTO<T> implements Serializable {
      */
     @Schema(description = "排序字段")
     private LinkedHashSet<ESQuerySort> fieldSort;
+    /**
+     * 统计总数的上限，为空的时候统计真实总数，小于等于 0 不统计总数，
+     * 大于 0 的时候最多统计到这个数，超过之后总数只是一个下限
+     */
+    @Schema(description = "统计总数的上限，为空统计真实总数，小于等于 0 不统计", example = "10000")
+    private Integer trackTotalHitsUpTo;
     /**
      * 这里可以自定义条件查询，可以自己去 kibana 去试，想要达到的最终效果
      */
@@ -1,12 +1,19 @@
 package io.github.taybct.tool.core.es.service;
 
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import io.github.taybct.tool.core.es.bulk.ESBulkConfig;
+import io.github.taybct.tool.core.es.bulk.ESBulkProcessor;
 import io.github.taybct.tool.core.es.condition.IESQueryConditions;
+import io.github.taybct.tool.core.es.dto.ESCursorPage;
+import io.github.taybct.tool.core.es.dto.ESCursorQueryDTO;
 import io.github.taybct.tool.core.es.dto.ESQueryDTO;
 import io.github.taybct.tool.core.es.dto.ESQuerySort;
 import io.github.taybct.tool.core.es.dto.element.Bool;
+import io.github.taybct.tool.core.es.util.ESQueryUtil;
+import io.github.taybct.tool.core.exception.def.BaseException;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.domain.Page;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -41,6 +48,16 @@ public interface IESService<T> {
      */
     IESQueryConditions<T> esQueryConditions();
 
+    /**
+     * 获取 ES 操作对象，游标查询、批量写入这些默认方法要用到，
+     * 没有继承 {@code ESServiceImpl} 的实现类需要重写这个方法才能用这些功能
+     *
+     * @return ElasticsearchOperations
+     */
+    default ElasticsearchOperations elasticsearchOperations() {
+        throw new BaseException(getClass().getName() + " 没有提供 ElasticsearchOperations，需要重写 elasticsearchOperations() 方法！");
+    }
+
     /**
      * 分页查询
      *
@@ -78,6 +95,85 @@ public interface IESService<T> {
      */
     Page<T> page(String source, int number, int size, @NotNull LinkedHashSet<ESQuerySort> fieldSort);
 
+    /**
+     * 游标分页查询，用 point in time + search_after 翻页，适合导出和无限滚动这种会翻很深的场景
+     *
+     * @param queryDTO 游标查询请求数据传输对象，第一页不用传 pointInTimeId 和 searchAfter
+     * @return {@code ESCursorPage<T>}
+     */
+    default ESCursorPage<T> cursor(ESCursorQueryDTO<? extends T> queryDTO) {
+        return cursor(queryDTO, esQueryConditions()::assembleBoolQuery);
+    }
+
+    /**
+     * 游标分页查询，可以自定义查询条件
+     *
+     * @param queryDTO               游标查询请求数据传输对象，第一页不用传 pointInTimeId 和 searchAfter
+     * @param queryBuilderBiFunction bool 查询构建方法
+     * @return {@code ESCursorPage<T>}
+     */
+    default ESCursorPage<T> cursor(ESCursorQueryDTO<? extends T> queryDTO, BiFunction<T, BoolQuery.Builder, BoolQuery.Builder> queryBuilderBiFunction) {
+        return ESQueryUtil.nativeSearchQueryCursor(elasticsearchOperations()
+                , queryDTO.getObject()
+                , queryBuilderBiFunction
+                , queryDTO
+                , getClazz());
+    }
+
+    /**
+     * 直接传查询语句游标分页查询
+     *
+     * @param source 查询语句
+     * @param cursor 游标，第一页不用传 pointInTimeId 和 searchAfter
+     * @return {@code ESCursorPage<T>}
+     */
+    default ESCursorPage<T> cursor(String source, ESCursorQueryDTO<?> cursor) {
+        return ESQueryUtil.stringQueryCursor(elasticsearchOperations(), source, cursor, getClazz());
+    }
+
+    /**
+     * 关闭游标的 point in time，最后一页查完会自动关闭，中途不翻了的可以调这个提前释放
+     *
+     * @param pointInTimeId point in time id
+     */
+    default void closeCursor(String pointInTimeId) {
+        ESQueryUtil.closePointInTime(elasticsearchOperations(), pointInTimeId);
+    }
+
+    /**
+     * 创建批量写入，用完之后要关闭
+     *
+     * @param config   批量写入配置
+     * @param listener 结果通知，可以为 null
+     * @return {@code ESBulkProcessor<T>}
+     */
+    default ESBulkProcessor<T> bulkProcessor(ESBulkConfig config, ESBulkProcessor.Listener listener) {
+        return new ESBulkProcessor<>(elasticsearchOperations(), getClazz(), config, listener);
+    }
+
+    /**
+     * 创建默认配置的批量写入，用完之后要关闭
+     *
+     * @return {@code ESBulkProcessor<T>}
+     */
+    default ESBulkProcessor<T> bulkProcessor() {
+        return bulkProcessor(new ESBulkConfig(), null);
+    }
+
+    /**
+     * 批量写入（新增或者覆盖），按默认配置分批发送，全部发完才返回
+     *
+     * @param entities 文档
+     * @return 重试之后还是失败的条数
+     */
+    default long bulkSave(Iterable<? extends T> entities) {
+        try (ESBulkProcessor<T> processor = bulkProcessor()) {
+            processor.index(entities);
+            processor.flush();
+            return processor.getFailed();
+        }
+    }
+
     /**
      * 构建 es 查询用的 query
      *
@@ -134,6 +230,17 @@ public interface IESService<T> {
         return page(dto, (entity, queryBuilder) -> getQueryBuilder(dto, difference, queryBuilder));
     }
 
+    /**
+     * 多条件游标分页查询
+     *
+     * @param dto        游标查询条件数据传输对象
+     * @param difference 区别不同的操作，相同，固定的条件定死在里面，difference 可以在外面定义不同的条件
+     * @return {@code ESCursorPage<T>}
+     */
+    default ESCursorPage<T> termsQueryCursor(ESCursorQueryDTO<T> dto, Consumer<BoolQuery.Builder> difference) {
+        return cursor(dto, (entity, queryBuilder) -> getQueryBuilder(dto, difference, queryBuilder));
+    }
+
     /**
      * 多条件查询可以指定是否分页
      *
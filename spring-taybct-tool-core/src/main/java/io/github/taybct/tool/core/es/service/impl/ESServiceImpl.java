@@ -61,6 +61,7 @@ public class ESServiceImpl<T> implements IESService<T> {
                 , queryDTO.getNumber()
                 , queryDTO.getSize()
                 , queryDTO.getFieldSort()
+                , queryDTO.getTrackTotalHitsUpTo()
                 , getClazz());
     }
 
@@ -84,6 +85,11 @@ public class ESServiceImpl<T> implements IESService<T> {
                 , getClazz());
     }
 
+    @Override
+    public ElasticsearchOperations elasticsearchOperations() {
+        return elasticsearchOperations;
+    }
+
     @Override
     public BoolQuery.Builder buildQuery(Bool bool, BoolQuery.Builder builder) {
         return ESQueryUtil.buildQuery(bool, builder);
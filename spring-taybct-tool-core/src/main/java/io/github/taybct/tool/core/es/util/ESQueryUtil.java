@@ -9,6 +9,8 @@ import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
 import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
 import co.elastic.clients.json.JsonData;
 import co.elastic.clients.util.ObjectBuilder;
+import io.github.taybct.tool.core.es.dto.ESCursorPage;
+import io.github.taybct.tool.core.es.dto.ESCursorQueryDTO;
 import io.github.taybct.tool.core.es.dto.ESQuerySort;
 import io.github.taybct.tool.core.es.dto.element.*;
 import jakarta.validation.constraints.NotNull;
@@ -20,17 +22,19 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHitSupport;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.core.query.BaseQuery;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.Query.PointInTime;
 import org.springframework.data.elasticsearch.core.query.StringQuery;
 
-import java.util.Arrays;
-import java.util.LinkedHashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -45,6 +49,11 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ESQueryUtil {
 
+    /**
+     * point in time 自带的排序字段，每个分片里面每条数据都不一样，放在排序最后面保证游标翻页不重复不遗漏
+     */
+    public static final String SHARD_DOC = "_shard_doc";
+
     /**
      * 混合条件
      *
@@ -227,10 +236,35 @@ public class ESQueryUtil {
             , int size
             , @NotNull LinkedHashSet<ESQuerySort> fieldSort
             , Class<E> clazz) {
+        // 和 es 默认的一样最多统计到 1 万
+        return criteriaQueryPage(elasticsearchOperations, criteriaSupplier, number, size, fieldSort, 10000, clazz);
+    }
+
+    /**
+     * CriteriaQuery 查询，可以指定总数的统计方式
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param criteriaSupplier        提供一个 Criteria 对象
+     * @param number                  分页页码
+     * @param size                    分页大小
+     * @param fieldSort               排序字段
+     * @param trackTotalHitsUpTo      统计总数的上限，见 {@link #trackTotalHits(BaseQuery, Integer)}
+     * @param clazz                   类型
+     * @param <E>                     泛型
+     * @return 分页
+     */
+    public static <E> Page<E> criteriaQueryPage(ElasticsearchOperations elasticsearchOperations
+            , Supplier<Criteria> criteriaSupplier
+            , int number
+            , int size
+            , @NotNull LinkedHashSet<ESQuerySort> fieldSort
+            , Integer trackTotalHitsUpTo
+            , Class<E> clazz) {
         Pageable pageable = CollectionUtil.isEmpty(fieldSort) ? PageRequest.of(number, size) :
                 PageRequest.of(number, size, genSort(fieldSort));
         CriteriaQuery criteriaQuery = new CriteriaQuery(criteriaSupplier.get(), pageable);
         log.info("\r\n ES 查询语句： \r\n {} \r\n", criteriaQuery);
+        trackTotalHits(criteriaQuery, trackTotalHitsUpTo);
         SearchHits<E> searchHits = elasticsearchOperations.search(criteriaQuery, clazz);
         SearchPage<E> page = SearchHitSupport.searchPageFor(searchHits, criteriaQuery.getPageable());
         return (Page) SearchHitSupport.unwrapSearchHits(page);
@@ -258,11 +292,37 @@ public class ESQueryUtil {
             , int size
             , LinkedHashSet<ESQuerySort> fieldSort
             , Class<E> clazz) {
+        return nativeSearchQueryPage(elasticsearchOperations, object, queryBuilderBiFunction, number, size, fieldSort, null, clazz);
+    }
+
+    /**
+     * NativeSearchQuery 查询，可以指定总数的统计方式
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param object                  指定查询的类，这个类是用来与 es 存储对应的加了 {@linkplain  org.springframework.data.elasticsearch.annotations.Document @Document} 注解的实体类的类型
+     * @param queryBuilderBiFunction  额外对 boolQuery 做拼接
+     * @param number                  分页页码
+     * @param size                    分页大小
+     * @param fieldSort               排序字段
+     * @param trackTotalHitsUpTo      统计总数的上限，见 {@link #trackTotalHits(BaseQuery, Integer)}
+     * @param clazz                   类型
+     * @param <E>                     泛型
+     * @return 分页结果
+     */
+    public static <E> Page<E> nativeSearchQueryPage(ElasticsearchOperations elasticsearchOperations
+            , E object
+            , BiFunction<E, BoolQuery.Builder, BoolQuery.Builder> queryBuilderBiFunction
+            , int number
+            , int size
+            , LinkedHashSet<ESQuerySort> fieldSort
+            , Integer trackTotalHitsUpTo
+            , Class<E> clazz) {
         return nativeSearchQueryPage(elasticsearchOperations
                 , () -> queryBuilderBiFunction.apply(object, QueryBuilders.bool())
                 , number
                 , size
                 , fieldSort
+                , trackTotalHitsUpTo
                 , clazz);
     }
 
@@ -286,25 +346,36 @@ public class ESQueryUtil {
             , int size
             , LinkedHashSet<ESQuerySort> fieldSort
             , Class<E> clazz) {
+        return nativeSearchQueryPage(elasticsearchOperations, boolQueryBuilderSupplier, number, size, fieldSort, null, clazz);
+    }
+
+    /**
+     * NativeSearchQuery 查询，可以指定总数的统计方式
+     *
+     * @param elasticsearchOperations  es 操作处理
+     * @param boolQueryBuilderSupplier 提供一个 boolQueryBuilder，可以是直接 {@code QueryBuilders.boolQuery()} 或者 {@link ESQueryUtil#buildQuery}
+     * @param number                   分页页码
+     * @param size                     分页大小
+     * @param fieldSort                排序字段
+     * @param trackTotalHitsUpTo       统计总数的上限，见 {@link #trackTotalHits(BaseQuery, Integer)}
+     * @param clazz                    类型
+     * @param <E>                      泛型
+     * @return 分页结果
+     */
+    public static <E> Page<E> nativeSearchQueryPage(ElasticsearchOperations elasticsearchOperations
+            , Supplier<BoolQuery.Builder> boolQueryBuilderSupplier
+            , int number
+            , int size
+            , LinkedHashSet<ESQuerySort> fieldSort
+            , Integer trackTotalHitsUpTo
+            , Class<E> clazz) {
         NativeQueryBuilder nativeQueryBuilder = NativeQuery.builder()
                 .withQuery(q -> q.bool(boolQueryBuilderSupplier.get().build()));
-        if (CollectionUtil.isNotEmpty(fieldSort)) {
-            fieldSort.forEach(esQuerySort -> {
-                if (esQuerySort.getField() != null) {
-                    // 排序
-                    if (SortOrder.Desc.jsonValue().equalsIgnoreCase(esQuerySort.getOrder())) {
-                        nativeQueryBuilder.withSort(b -> b.field(f -> f.field(esQuerySort.getField()).order(SortOrder.Desc)));
-                    } else {
-                        nativeQueryBuilder.withSort(b -> b.field(f -> f.field(esQuerySort.getField()).order(SortOrder.Asc)));
-                    }
-                }
-            });
-        }
+        withSort(nativeQueryBuilder, fieldSort);
         nativeQueryBuilder.withPageable(PageRequest.of(number, size));
         NativeQuery searchQuery = nativeQueryBuilder.build();
         log.info("\r\n ES 查询语句： \r\n {} \r\n", nativeQueryBuilder.getQuery());
-        // 设置查询真实总数
-        searchQuery.setTrackTotalHits(true);
+        trackTotalHits(searchQuery, trackTotalHitsUpTo);
         SearchHits<E> searchHits = elasticsearchOperations.search(searchQuery, clazz);
         SearchPage<E> page = SearchHitSupport.searchPageFor(searchHits, searchQuery.getPageable());
         return (Page) SearchHitSupport.unwrapSearchHits(page);
@@ -330,17 +401,252 @@ public class ESQueryUtil {
             , int size
             , @NotNull LinkedHashSet<ESQuerySort> fieldSort
             , Class<E> clazz) {
+        return stringQueryPage(elasticsearchOperations, source, number, size, fieldSort, null, clazz);
+    }
+
+    /**
+     * 查询语句分页查询，可以指定总数的统计方式
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param source                  语句
+     * @param number                  分页页码
+     * @param size                    分页大小
+     * @param fieldSort               排序字段
+     * @param trackTotalHitsUpTo      统计总数的上限，见 {@link #trackTotalHits(BaseQuery, Integer)}
+     * @param clazz                   类型
+     * @param <E>                     泛型
+     * @return 分页
+     */
+    public static <E> Page<E> stringQueryPage(ElasticsearchOperations elasticsearchOperations
+            , String source
+            , int number
+            , int size
+            , @NotNull LinkedHashSet<ESQuerySort> fieldSort
+            , Integer trackTotalHitsUpTo
+            , Class<E> clazz) {
         Pageable pageable = PageRequest.of(number, size);
         StringQuery stringQuery = CollectionUtil.isEmpty(fieldSort) ? new StringQuery(source, pageable) :
                 new StringQuery(source
                         , pageable
                         , genSort(fieldSort));
         log.info("\r\n ES 查询语句： \r\n {} \r\n", stringQuery.getSource());
-        // 设置查询真实总数
-        stringQuery.setTrackTotalHits(true);
+        trackTotalHits(stringQuery, trackTotalHitsUpTo);
         SearchHits<E> searchHits = elasticsearchOperations.search(stringQuery, clazz);
         SearchPage<E> page = SearchHitSupport.searchPageFor(searchHits, stringQuery.getPageable());
         return (Page) SearchHitSupport.unwrapSearchHits(page);
     }
 
+    /**
+     * 设置总数的统计方式
+     *
+     * @param query              查询
+     * @param trackTotalHitsUpTo 统计总数的上限，为空的时候统计真实总数；小于等于 0 不统计总数，
+     *                           这个时候分页的总数不准确；大于 0 的时候最多统计到这个数，超过之后总数只是一个下限
+     */
+    public static void trackTotalHits(BaseQuery query, Integer trackTotalHitsUpTo) {
+        if (trackTotalHitsUpTo == null) {
+            // 设置查询真实总数
+            query.setTrackTotalHits(true);
+        } else if (trackTotalHitsUpTo <= 0) {
+            query.setTrackTotalHits(false);
+        } else {
+            query.setTrackTotalHits(null);
+            query.setTrackTotalHitsUpTo(trackTotalHitsUpTo);
+        }
+    }
+
+    /**
+     * 添加排序
+     *
+     * @param nativeQueryBuilder 查询 builder
+     * @param fieldSort          排序字段
+     */
+    private static void withSort(NativeQueryBuilder nativeQueryBuilder, LinkedHashSet<ESQuerySort> fieldSort) {
+        if (CollectionUtil.isNotEmpty(fieldSort)) {
+            fieldSort.forEach(esQuerySort -> {
+                if (esQuerySort.getField() != null) {
+                    // 排序
+                    if (SortOrder.Desc.jsonValue().equalsIgnoreCase(esQuerySort.getOrder())) {
+                        nativeQueryBuilder.withSort(b -> b.field(f -> f.field(esQuerySort.getField()).order(SortOrder.Desc)));
+                    } else {
+                        nativeQueryBuilder.withSort(b -> b.field(f -> f.field(esQuerySort.getField()).order(SortOrder.Asc)));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 游标排序，在排序字段后面加上 {@link #SHARD_DOC}
+     *
+     * @param fieldSort 排序字段
+     * @return es 排序
+     */
+    private static Sort cursorSort(LinkedHashSet<ESQuerySort> fieldSort) {
+        Sort tiebreak = Sort.by(Sort.Order.asc(SHARD_DOC));
+        return CollectionUtil.isEmpty(fieldSort) ? tiebreak : genSort(fieldSort).and(tiebreak);
+    }
+
+    /**
+     * NativeSearchQuery 游标分页查询，用 point in time + search_after 翻页，翻得再深也不会变慢
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param object                  查询对象
+     * @param queryBuilderBiFunction  额外对 boolQuery 做拼接
+     * @param cursor                  游标，第一页不用传 pointInTimeId 和 searchAfter
+     * @param clazz                   类型
+     * @param <E>                     泛型
+     * @return 游标分页结果
+     */
+    public static <E> ESCursorPage<E> nativeSearchQueryCursor(ElasticsearchOperations elasticsearchOperations
+            , E object
+            , BiFunction<E, BoolQuery.Builder, BoolQuery.Builder> queryBuilderBiFunction
+            , ESCursorQueryDTO<?> cursor
+            , Class<E> clazz) {
+        return nativeSearchQueryCursor(elasticsearchOperations
+                , () -> queryBuilderBiFunction.apply(object, QueryBuilders.bool())
+                , cursor
+                , clazz);
+    }
+
+    /**
+     * NativeSearchQuery 游标分页查询，用 point in time + search_after 翻页，翻得再深也不会变慢
+     *
+     * @param elasticsearchOperations  es 操作处理
+     * @param boolQueryBuilderSupplier 提供一个 boolQueryBuilder
+     * @param cursor                   游标，第一页不用传 pointInTimeId 和 searchAfter
+     * @param clazz                    类型
+     * @param <E>                      泛型
+     * @return 游标分页结果
+     */
+    public static <E> ESCursorPage<E> nativeSearchQueryCursor(ElasticsearchOperations elasticsearchOperations
+            , Supplier<BoolQuery.Builder> boolQueryBuilderSupplier
+            , ESCursorQueryDTO<?> cursor
+            , Class<E> clazz) {
+        NativeQueryBuilder nativeQueryBuilder = NativeQuery.builder()
+                .withQuery(q -> q.bool(boolQueryBuilderSupplier.get().build()));
+        withSort(nativeQueryBuilder, cursor.getFieldSort());
+        nativeQueryBuilder.withSort(b -> b.field(f -> f.field(SHARD_DOC).order(SortOrder.Asc)));
+        // search_after 翻页 from 永远是 0
+        nativeQueryBuilder.withPageable(PageRequest.of(0, cursor.getSize()));
+        NativeQuery searchQuery = nativeQueryBuilder.build();
+        log.info("\r\n ES 查询语句： \r\n {} \r\n", nativeQueryBuilder.getQuery());
+        return cursorSearch(elasticsearchOperations, searchQuery, cursor, clazz);
+    }
+
+    /**
+     * 查询语句游标分页查询
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param source                  语句
+     * @param cursor                  游标，第一页不用传 pointInTimeId 和 searchAfter
+     * @param clazz                   类型
+     * @param <E>                     泛型
+     * @return 游标分页结果
+     */
+    public static <E> ESCursorPage<E> stringQueryCursor(ElasticsearchOperations elasticsearchOperations
+            , String source
+            , ESCursorQueryDTO<?> cursor
+            , Class<E> clazz) {
+        StringQuery stringQuery = new StringQuery(source, PageRequest.of(0, cursor.getSize()), cursorSort(cursor.getFieldSort()));
+        log.info("\r\n ES 查询语句： \r\n {} \r\n", stringQuery.getSource());
+        return cursorSearch(elasticsearchOperations, stringQuery, cursor, clazz);
+    }
+
+    /**
+     * CriteriaQuery 游标分页查询
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param criteriaSupplier        提供一个 Criteria 对象
+     * @param cursor                  游标，第一页不用传 pointInTimeId 和 searchAfter
+     * @param clazz                   类型
+     * @param <E>                     泛型
+     * @return 游标分页结果
+     */
+    public static <E> ESCursorPage<E> criteriaQueryCursor(ElasticsearchOperations elasticsearchOperations
+            , Supplier<Criteria> criteriaSupplier
+            , ESCursorQueryDTO<?> cursor
+            , Class<E> clazz) {
+        CriteriaQuery criteriaQuery = new CriteriaQuery(criteriaSupplier.get()
+                , PageRequest.of(0, cursor.getSize(), cursorSort(cursor.getFieldSort())));
+        log.info("\r\n ES 查询语句： \r\n {} \r\n", criteriaQuery);
+        return cursorSearch(elasticsearchOperations, criteriaQuery, cursor, clazz);
+    }
+
+    /**
+     * 游标查询，没有 point in time 的时候先打开一个，最后一页查完之后关闭
+     * <br>只有第一页按 {@link ESCursorQueryDTO#getTrackTotalHitsUpTo()} 统计总数，后面的页不统计
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param query                   查询，已经带了排序和分页大小
+     * @param cursor                  游标
+     * @param clazz                   类型
+     * @param <E>                     泛型
+     * @return 游标分页结果
+     */
+    private static <E> ESCursorPage<E> cursorSearch(ElasticsearchOperations elasticsearchOperations
+            , BaseQuery query
+            , ESCursorQueryDTO<?> cursor
+            , Class<E> clazz) {
+        Duration keepAlive = Duration.ofSeconds(Optional.ofNullable(cursor.getKeepAliveSeconds()).orElse(60L));
+        String pointInTimeId = cursor.getPointInTimeId();
+        boolean opened = false;
+        if (pointInTimeId == null || pointInTimeId.isBlank()) {
+            pointInTimeId = elasticsearchOperations.openPointInTime(elasticsearchOperations.getIndexCoordinatesFor(clazz), keepAlive);
+            opened = true;
+        }
+        query.setPointInTime(new PointInTime(pointInTimeId, keepAlive));
+        boolean first = CollectionUtil.isEmpty(cursor.getSearchAfter());
+        if (first) {
+            trackTotalHits(query, cursor.getTrackTotalHitsUpTo());
+        } else {
+            query.setSearchAfter(cursor.getSearchAfter());
+            query.setTrackTotalHits(false);
+        }
+        SearchHits<E> searchHits;
+        try {
+            searchHits = elasticsearchOperations.search(query, clazz);
+        } catch (RuntimeException e) {
+            if (opened) {
+                closePointInTime(elasticsearchOperations, pointInTimeId);
+            }
+            throw e;
+        }
+        List<SearchHit<E>> hits = searchHits.getSearchHits();
+        ESCursorPage<E> page = new ESCursorPage<>();
+        page.setContent(hits.stream().map(SearchHit::getContent).toList());
+        // 每次查询返回的 point in time id 可能会变，要用最新的
+        pointInTimeId = Optional.ofNullable(searchHits.getPointInTimeId()).orElse(pointInTimeId);
+        page.setHasNext(!hits.isEmpty() && hits.size() >= query.getPageable().getPageSize());
+        if (page.isHasNext()) {
+            page.setPointInTimeId(pointInTimeId);
+            page.setSearchAfter(hits.get(hits.size() - 1).getSortValues());
+        } else {
+            closePointInTime(elasticsearchOperations, pointInTimeId);
+        }
+        if (first && searchHits.getTotalHitsRelation() != TotalHitsRelation.OFF) {
+            page.setTotal(searchHits.getTotalHits());
+            page.setTotalExact(searchHits.getTotalHitsRelation() == TotalHitsRelation.EQUAL_TO);
+        }
+        return page;
+    }
+
+    /**
+     * 关闭 point in time，游标翻到最后一页的时候会自动关闭，中途不翻了的可以调这个提前释放
+     *
+     * @param elasticsearchOperations es 操作处理
+     * @param pointInTimeId           point in time id
+     */
+    public static void closePointInTime(ElasticsearchOperations elasticsearchOperations, String pointInTimeId) {
+        if (pointInTimeId == null || pointInTimeId.isBlank()) {
+            return;
+        }
+        try {
+            elasticsearchOperations.closePointInTime(pointInTimeId);
+        } catch (Exception e) {
+            // 关不掉也会在保留时间之后自动释放
+            log.warn("关闭 point in time 失败：{}", pointInTimeId, e);
+        }
+    }
+
 }
@@ -6,6 +6,8 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import io.github.taybct.tool.core.dto.SyncToAnywhereDTO;
 import io.github.taybct.tool.core.mybatis.support.SqlPageParams;
 import io.github.taybct.tool.core.mybatis.util.MybatisOptional;
+import io.github.taybct.tool.core.util.accessor.BeanAccessor;
+import io.github.taybct.tool.core.util.accessor.PropertyAccessor;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
@@ -15,8 +17,6 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.util.Collection;
 import java.util.List;
 
@@ -51,15 +51,9 @@ public class SyncToMongoHandler<PK extends Serializable, T extends SyncToAnywher
      * @return id 字段名
      */
     private String idField(Class<?> clazz) {
-        for (; clazz != Object.class; clazz = clazz.getSuperclass()) {
-            Field[] fields = clazz.getDeclaredFields();
-            for (Field field : fields) {
-                if (!Modifier.isStatic(field.getModifiers())) {
-                    field.setAccessible(true);
-                    if (field.isAnnotationPresent(Id.class)) {
-                        return field.getName();
-                    }
-                }
+        for (PropertyAccessor property : BeanAccessor.of(clazz).getProperties()) {
+            if (property.isAnnotationPresent(Id.class)) {
+                return property.getName();
             }
         }
         return idFieldName;
@@ -76,25 +70,14 @@ public class SyncToMongoHandler<PK extends Serializable, T extends SyncToAnywher
     public boolean update(Collection<T> dtoCollection) {
         dtoCollection.stream().forEach(dto -> {
             Update update = new Update();
-            Class<?> clazz = dto.getClass();
             Object id = dto.getId();
-            for (; clazz != Object.class; clazz = clazz.getSuperclass()) {
-                Field[] fields = clazz.getDeclaredFields();
-                for (Field field : fields) {
-                    if (!Modifier.isStatic(field.getModifiers())) {
-                        field.setAccessible(true);
-                        try {
-                            Object fieldValue = field.get(dto);
-                            if (ObjectUtil.isNotEmpty(fieldValue)) {
-                                update.set(field.getName(), fieldValue);
-                            }
-                            if (field.isAnnotationPresent(Id.class)) {
-                                id = fieldValue;
-                            }
-                        } catch (IllegalAccessException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
+            for (PropertyAccessor property : BeanAccessor.of(dto.getClass()).getProperties()) {
+                Object fieldValue = property.get(dto);
+                if (ObjectUtil.isNotEmpty(fieldValue)) {
+                    update.set(property.getName(), fieldValue);
+                }
+                if (property.isAnnotationPresent(Id.class)) {
+                    id = fieldValue;
                 }
             }
             mongoTemplate.updateFirst(new Query(Criteria.where(idField(dto.getClass())).is(id)), update, dto.getClass());
@@ -5,17 +5,22 @@ import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import io.github.taybct.tool.core.annotation.CacheTimeOut;
 import io.github.taybct.tool.core.bean.CacheElement;
+import io.github.taybct.tool.core.redis.CacheTimeOutNearCache;
 import io.github.taybct.tool.core.util.AOPUtil;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
-import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
 
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -43,6 +48,41 @@ public class CacheTimeOutMethodInterceptor implements MethodInterceptor {
      * 删除缓存键
      */
     final Consumer<Collection<String>> removeKey;
+    /**
+     * 本地缓存（一级缓存），为 null 的时候只用 redis
+     */
+    @Setter
+    CacheTimeOutNearCache nearCache;
+    /**
+     * 一次获取多个缓存键的值（和剩余的过期时间），设置了之后不再使用 hasKey 和 getValue 一个一个的查
+     */
+    @Setter
+    Function<List<String>, List<CachedValue>> multiGetValue;
+    /**
+     * 同一个节点上，同一组缓存键同时只有一个调用去获取结果，其他的调用等它的结果
+     */
+    @Setter
+    boolean singleFlight = true;
+    /**
+     * 等待其他调用获取结果的最长时间（毫秒），超过之后自己去执行方法
+     */
+    @Setter
+    long singleFlightTimeoutMillis = 10000;
+    /**
+     * 提前刷新的系数，大于 0 的时候开启，越大越容易在过期之前提前刷新，一般用 1
+     */
+    @Setter
+    double earlyRefreshBeta = 0;
+
+    /**
+     * 正在获取结果的调用
+     */
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 每个方法最近一次获取结果的耗时（毫秒），用来判断是否提前刷新
+     */
+    private final Map<Method, Long> loadMillis = new ConcurrentHashMap<>();
 
     @Override
     public Object invoke(MethodInvocation methodInvocation) throws Throwable {
@@ -53,13 +93,15 @@ public class CacheTimeOutMethodInterceptor implements MethodInterceptor {
         }
         Method method = methodInvocation.getMethod();
         CacheTimeOut cacheTimeOut = method.getAnnotation(CacheTimeOut.class);
-        String key = AOPUtil.generateKeyBySpEL(cacheTimeOut.key(), methodInvocation);
+        // 所有的表达式共用一个上下文
+        EvaluationContext context = AOPUtil.createEvaluationContext(methodInvocation);
+        String key = AOPUtil.generateKeyBySpEL(cacheTimeOut.key(), method, context);
         if (StrUtil.isBlank(key)) {
             // 没指定 key 也返回了直接
             return methodInvocation.proceed();
         }
         // 判断是否条件进行缓存操作的条件
-        String condition = AOPUtil.generateKeyBySpEL(cacheTimeOut.condition(), methodInvocation);
+        String condition = AOPUtil.generateKeyBySpEL(cacheTimeOut.condition(), method, context);
         if (!condition.equals("true") && !condition.equals("")) {
             return methodInvocation.proceed();
         }
@@ -68,25 +110,28 @@ public class CacheTimeOutMethodInterceptor implements MethodInterceptor {
                 .map(k -> String.format("%s::%s", cacheTimeOut.cacheName(), k))
                 .collect(Collectors.toSet());
         // 这里如果是删除条件就直接删除缓存 key，然后返回结果
-        String removeCondition = AOPUtil.generateKeyBySpEL(cacheTimeOut.removeCondition(), methodInvocation);
+        String removeCondition = AOPUtil.generateKeyBySpEL(cacheTimeOut.removeCondition(), method, context);
         if (removeCondition.equals("true")) {
             Object result = methodInvocation.proceed();
             // 然后判断结果是否条件进行缓存的条件
-            String unless = AOPUtil.generateKeyBySpEL(cacheTimeOut.unless(), methodInvocation, () -> result);
+            String unless = unless(cacheTimeOut, method, context, result);
             if (unless.equals("true")) {
                 return result;
             }
             // 如果达到了删除 key 的条件就直接删除 key，然后原样返回
             removeKey.accept(cacheKeySet);
+            if (nearCache != null) {
+                nearCache.invalidate(cacheTimeOut.cacheName(), cacheKeySet);
+            }
             return result;
         }
         long timeout = cacheTimeOut.timeout();
         TimeUnit timeUnit = cacheTimeOut.timeUnit();
         // 判断是否进行更新操作
-        String updateCondition = AOPUtil.generateKeyBySpEL(cacheTimeOut.updateCondition(), methodInvocation);
+        String updateCondition = AOPUtil.generateKeyBySpEL(cacheTimeOut.updateCondition(), method, context);
         if (updateCondition.equals("true")) {
             // 更新操作也会有返回结果，这里同样对反思结果进行判断
-            int objectIndex = ArrayUtil.indexOf(new DefaultParameterNameDiscoverer().getParameterNames(method)
+            int objectIndex = ArrayUtil.indexOf(AOPUtil.getParameterNames(method)
                     , cacheTimeOut.updateObject());
             if (objectIndex == -1) {
                 // 如果找不到对象，这里默认拿第一个参数
@@ -94,34 +139,135 @@ public class CacheTimeOutMethodInterceptor implements MethodInterceptor {
             }
             Object result = methodInvocation.proceed();
             // 然后判断结果是否条件进行缓存的条件
-            String unless = AOPUtil.generateKeyBySpEL(cacheTimeOut.unless(), methodInvocation, () -> result);
+            String unless = unless(cacheTimeOut, method, context, result);
             if (unless.equals("true")) {
                 return result;
             }
+            Object updateObject = methodInvocation.getArguments()[objectIndex];
             for (String k : cacheKeySet) {
                 saveValue.accept(new CacheElement(k
-                        , methodInvocation.getArguments()[objectIndex]
+                        , updateObject
                         , timeout
                         , timeUnit));
             }
+            if (nearCache != null) {
+                // 其他节点的本地缓存已经是旧的了
+                nearCache.invalidate(cacheTimeOut.cacheName(), cacheKeySet);
+                for (String k : cacheKeySet) {
+                    nearCache.put(cacheTimeOut.cacheName(), k, updateObject, timeUnit.toMillis(timeout));
+                }
+            }
             return result;
         }
-        for (String k : cacheKeySet) {
-            // 判断如果有缓存，就返回缓存里面的结果
-            if (Boolean.TRUE.equals(hasKey.test(k))) {
-                Object o = getValue.apply(k);
-                if (o != null) {
-                    // 这里直接比较类，对不上就不返回
-                    if (method.getReturnType().isAssignableFrom(o.getClass())) {
-                        return o;
+        if (nearCache != null) {
+            // 先查本地缓存
+            for (String k : cacheKeySet) {
+                Object o = nearCache.get(cacheTimeOut.cacheName(), k);
+                if (o != null && method.getReturnType().isAssignableFrom(o.getClass())) {
+                    return o;
+                }
+            }
+        }
+        if (multiGetValue != null) {
+            // 一次查出所有的 key
+            List<String> keyList = new ArrayList<>(cacheKeySet);
+            List<CachedValue> values = multiGetValue.apply(keyList);
+            for (int i = 0; values != null && i < values.size(); i++) {
+                CachedValue cachedValue = values.get(i);
+                Object o = cachedValue == null ? null : cachedValue.value();
+                // 这里直接比较类，对不上就不返回
+                if (o != null && method.getReturnType().isAssignableFrom(o.getClass())) {
+                    if (refreshEarly(method, cachedValue.ttlMillis())) {
+                        // 快要过期了，这次调用去刷新缓存
+                        break;
+                    }
+                    if (nearCache != null) {
+                        nearCache.put(cacheTimeOut.cacheName(), keyList.get(i), o, timeUnit.toMillis(timeout));
+                    }
+                    return o;
+                }
+            }
+        } else {
+            for (String k : cacheKeySet) {
+                // 判断如果有缓存，就返回缓存里面的结果
+                if (Boolean.TRUE.equals(hasKey.test(k))) {
+                    Object o = getValue.apply(k);
+                    if (o != null) {
+                        // 这里直接比较类，对不上就不返回
+                        if (method.getReturnType().isAssignableFrom(o.getClass())) {
+                            if (nearCache != null) {
+                                nearCache.put(cacheTimeOut.cacheName(), k, o, timeUnit.toMillis(timeout));
+                            }
+                            return o;
+                        }
                     }
                 }
             }
         }
         // 如果缓存里面没有结果，就去获取结果
+        if (!singleFlight) {
+            return load(methodInvocation, cacheTimeOut, context, cacheKeySet);
+        }
+        String flightKey = String.join(StrUtil.COMMA, new TreeSet<>(cacheKeySet));
+        Flight flight = new Flight(new CompletableFuture<>(), Thread.currentThread());
+        Flight existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            if (existing.owner() == Thread.currentThread()) {
+                // 获取结果的过程中又调到了同一组缓存键，等自己会卡死，直接执行
+                return load(methodInvocation, cacheTimeOut, context, cacheKeySet);
+            }
+            // 已经有调用在获取结果了，等它的结果，等太久了就自己去获取
+            try {
+                return existing.future().get(singleFlightTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (TimeoutException e) {
+                return load(methodInvocation, cacheTimeOut, context, cacheKeySet);
+            }
+        }
+        try {
+            Object result = load(methodInvocation, cacheTimeOut, context, cacheKeySet);
+            flight.future().complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * 正在获取结果的调用
+     *
+     * @param future 结果
+     * @param owner  获取结果的线程
+     */
+    private record Flight(CompletableFuture<Object> future, Thread owner) {
+    }
+
+    /**
+     * 执行方法获取结果并放入缓存
+     *
+     * @param methodInvocation 切点
+     * @param cacheTimeOut     注解
+     * @param context          表达式上下文
+     * @param cacheKeySet      缓存键
+     * @return 方法的返回结果
+     * @throws Throwable 方法抛出的异常
+     */
+    private Object load(MethodInvocation methodInvocation
+            , CacheTimeOut cacheTimeOut
+            , EvaluationContext context
+            , Set<String> cacheKeySet) throws Throwable {
+        Method method = methodInvocation.getMethod();
+        long timeout = cacheTimeOut.timeout();
+        TimeUnit timeUnit = cacheTimeOut.timeUnit();
+        long start = System.currentTimeMillis();
         Object result = methodInvocation.proceed();
+        loadMillis.put(method, System.currentTimeMillis() - start);
         // 然后判断结果是否条件进行缓存的条件
-        String unless = AOPUtil.generateKeyBySpEL(cacheTimeOut.unless(), methodInvocation, () -> result);
+        String unless = unless(cacheTimeOut, method, context, result);
         if (unless.equals("true")) {
             return result;
         }
@@ -129,9 +275,55 @@ public class CacheTimeOutMethodInterceptor implements MethodInterceptor {
         if (result != null) {
             for (String k : cacheKeySet) {
                 saveValue.accept(new CacheElement(k, result, timeout, timeUnit));
+                if (nearCache != null) {
+                    nearCache.put(cacheTimeOut.cacheName(), k, result, timeUnit.toMillis(timeout));
+                }
             }
         }
         return result;
     }
 
-}
\ No newline at end of file
+    /**
+     * 是否提前刷新缓存，缓存剩余的时间越短、方法执行的越久，越容易提前刷新，避免大量的缓存在同一时间过期
+     *
+     * @param method    方法
+     * @param ttlMillis 缓存剩余的过期时间（毫秒），小于 0 表示不知道
+     * @return boolean
+     */
+    private boolean refreshEarly(Method method, long ttlMillis) {
+        if (earlyRefreshBeta <= 0 || ttlMillis <= 0) {
+            return false;
+        }
+        long delta = loadMillis.getOrDefault(method, 0L);
+        if (delta <= 0) {
+            return false;
+        }
+        return -delta * earlyRefreshBeta * Math.log(ThreadLocalRandom.current().nextDouble()) >= ttlMillis;
+    }
+
+    /**
+     * 判断返回结果是否不需要缓存
+     *
+     * @param cacheTimeOut 注解
+     * @param method       方法
+     * @param context      表达式上下文
+     * @param result       返回结果
+     * @return unless 表达式的结果
+     */
+    private static String unless(CacheTimeOut cacheTimeOut, Method method, EvaluationContext context, Object result) {
+        if (result != null) {
+            context.setVariable("result", result);
+        }
+        return AOPUtil.generateKeyBySpEL(cacheTimeOut.unless(), method, context);
+    }
+
+    /**
+     * 缓存值
+     *
+     * @param value     缓存值，没有的时候为 null
+     * @param ttlMillis 剩余的过期时间（毫秒），小于 0 表示不知道或者不会过期
+     */
+    public record CachedValue(Object value, long ttlMillis) {
+    }
+
+}
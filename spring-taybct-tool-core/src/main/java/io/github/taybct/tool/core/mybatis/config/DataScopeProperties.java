@@ -140,4 +140,18 @@ public class DataScopeProperties implements Serializable {
      * 组织机构启用状态，默认启动状态是 1
      */
     private String enableStatus;
+
+    /**
+     * 是否缓存渲染好的数据权限 sql（按用户 id 和角色 code 集合缓存），默认开启
+     */
+    private boolean conditionCache = true;
+
+    /**
+     * 自动拼接数据权限条件的时候，用户 id 和角色 code 是否使用 JDBC 参数绑定（{@code ?}）而不是直接拼到 sql 里面，
+     * 开启之后所有用户执行的 sql 都是一样的，可以复用数据库的执行计划和驱动的预编译语句缓存，默认关闭
+     * <br>
+     * 只对 {@linkplain io.github.taybct.tool.core.annotation.DataScope#auto() auto} 为 true 的情况生效，
+     * 放到参数里面给 xml 使用的 {@linkplain io.github.taybct.tool.core.annotation.DataScope#sqlField() sqlField} 还是拼接好的 sql
+     */
+    private boolean bindParameters = false;
 }
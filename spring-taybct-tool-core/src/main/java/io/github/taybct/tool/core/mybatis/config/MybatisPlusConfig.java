@@ -10,6 +10,7 @@ import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerIntercept
 import io.github.taybct.tool.core.bean.ISecurityUtil;
 import io.github.taybct.tool.core.config.DataScopeCondition;
 import io.github.taybct.tool.core.config.DataScopeCustom;
+import io.github.taybct.tool.core.constant.PropertiesPrefixConstants;
 import io.github.taybct.tool.core.ds.DBHelper;
 import io.github.taybct.tool.core.interceptor.RecordHistoryMethodInterceptor;
 import io.github.taybct.tool.core.mybatis.handle.*;
@@ -32,7 +33,9 @@ import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -164,6 +167,18 @@ public class MybatisPlusConfig {
         return DataScopeUtil.init(properties, securityUtil::getLoginUser);
     }
 
+    /**
+     * 数据权限的全局配置刷新之后，清理已经编译好的数据权限 sql 模板
+     *
+     * @param event 配置修改事件
+     */
+    @EventListener
+    public void onDataScopePropertiesChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PropertiesPrefixConstants.DATA_SCOPE))) {
+            DataScopeUtil.clearCache();
+        }
+    }
+
     /**
      * 添加用户信息处理
      *
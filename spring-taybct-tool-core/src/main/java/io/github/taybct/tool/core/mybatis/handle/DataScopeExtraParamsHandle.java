@@ -7,18 +7,18 @@ import io.github.taybct.tool.core.bean.ILoginUser;
 import io.github.taybct.tool.core.config.DataScopeCondition;
 import io.github.taybct.tool.core.config.DataScopeCustom;
 import io.github.taybct.tool.core.mybatis.config.DataScopeProperties;
-import io.github.taybct.tool.core.mybatis.interceptor.DataScopeData;
+import io.github.taybct.tool.core.mybatis.support.MappedStatementMetadata;
+import io.github.taybct.tool.core.mybatis.util.DataScopeSql;
+import io.github.taybct.tool.core.mybatis.util.DataScopeSqlInjector;
 import io.github.taybct.tool.core.mybatis.util.DataScopeUtil;
-import io.github.taybct.tool.core.util.MyBatisUtil;
 import io.github.taybct.tool.core.util.SpringUtil;
-import io.github.taybct.tool.core.util.StringUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
-import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.reflection.DefaultReflectorFactory;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
@@ -27,8 +27,8 @@ import org.springframework.beans.BeansException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,6 +43,11 @@ import java.util.function.Supplier;
 @Slf4j
 public class DataScopeExtraParamsHandle implements MyBatisExtraParamsHandle {
 
+    /**
+     * 绑定数据权限参数时使用的参数名前缀
+     */
+    private static final String DATA_SCOPE_PARAM_PREFIX = "_data_scope_param_";
+
     /**
      * 当前登录的用户
      */
@@ -66,12 +71,8 @@ public class DataScopeExtraParamsHandle implements MyBatisExtraParamsHandle {
     @SneakyThrows
     @Override
     public Map<String, Object> apply(MappedStatement ms, Map<String, Object> stringObjectMap) {
-        Method method = MyBatisUtil.getMethod(ms);
         // 获取到注解
-        DataScope dataScope = null;
-        if (method != null) {
-            dataScope = method.getAnnotation(DataScope.class);
-        }
+        DataScope dataScope = MappedStatementMetadata.of(ms).getDataScope();
         if (dataScope == null || ignore(dataScope)) {
             // 如果判断条件不满足就真的返回
             return stringObjectMap;
@@ -82,7 +83,7 @@ public class DataScopeExtraParamsHandle implements MyBatisExtraParamsHandle {
         String conditionSql = Optional.ofNullable(getBean(dataScope.custom()).apply(dataScope))
                 .orElseGet(() -> Optional.ofNullable(dataScopeCustom.apply(finalDataScope))
                         .orElseGet(() -> DataScopeUtil.init(properties, userSupplier)
-                                .getConditionSql(new DataScopeData(finalDataScope), getDbType(ms, finalDataScope))));
+                                .getConditionSql(finalDataScope, getDbType(ms, finalDataScope))));
         stringObjectMap.put(dataScope.sqlField(), conditionSql);
         return stringObjectMap;
     }
@@ -97,66 +98,85 @@ public class DataScopeExtraParamsHandle implements MyBatisExtraParamsHandle {
         // 先拦截到RoutingStatementHandler，里面有个StatementHandler类型的delegate变量，其实现类是BaseStatementHandler，然后就到BaseStatementHandler的成员变量mappedStatement
         PluginUtils.MPStatementHandler mpSh = PluginUtils.mpStatementHandler(sh);
         MappedStatement ms = mpSh.mappedStatement();
-        Method method = MyBatisUtil.getMethod(ms);
         // 获取到注解
-        DataScope dataScope = null;
-        if (method != null) {
-            dataScope = method.getAnnotation(DataScope.class);
-        }
+        DataScope dataScope = MappedStatementMetadata.of(ms).getDataScope();
         if (dataScope == null || ignore(dataScope) || !dataScope.auto()) {
             // 如果判断条件不满足就真的返回
             MyBatisExtraParamsHandle.super.beforePrepare(sh, connection, transactionTimeout);
             return;
         }
-        // 先默认拿注解上的自定义过滤规则，然后再拿全局配置的规则，最后使用默认的规则
-        DataScope finalDataScope = dataScope;
-        String conditionSql = Optional.ofNullable(getBean(dataScope.custom()).apply(dataScope))
-                .orElseGet(() -> Optional.ofNullable(dataScopeCustom.apply(finalDataScope))
-                        .orElseGet(() -> DataScopeUtil.init(properties, userSupplier)
-                                .getConditionSql(new DataScopeData(finalDataScope), getDbType(ms, finalDataScope))));
-
-        // id为执行的mapper方法的全路径名，如com.cq.UserMapper.insertUser， 便于后续使用反射
-        String id = ms.getId();
-        // sql语句类型 select、delete、insert、update
-        SqlCommandType sct = ms.getSqlCommandType();
-        // 数据库连接信息
-
         BoundSql boundSql = sh.getBoundSql();
+        DataScopeSql dataScopeSql = getDataScopeSql(ms, dataScope);
+        String conditionSql = dataScopeSql.getSql();
+
         // 获取到原始sql语句
         String sql = boundSql.getSql();
         log.trace("SQL：{}", sql);
 
-        // 增强sql
-        // 通过反射，拦截方法上带有自定义@SqlPermission，并增强sql
-        //离谱的是之前的反射无法生效，不知道为什么这个可以生效有待研究
-        String mSql = "";
-        String whereStr = "WHERE";
-        // 找到 第一个 where 关键字位置
-        int whereIndex = sql.indexOf(whereStr);
-        if (whereIndex == -1) {
-            List<String> arrayListByString = StringUtil.getArrayListByString(whereStr);
-            for (String s : arrayListByString) {
-                whereIndex = sql.indexOf(s);
-                if (whereIndex > 0) {
-                    whereStr = s;
-                    break;
-                }
-            }
-        }
-        if (whereIndex > 0) {
-            mSql = sql.replaceFirst(whereStr, String.format("%s exists(%s) AND ", whereStr, conditionSql));
-        } else {
-            mSql = String.format("%s WHERE exists(%s)", sql, conditionSql);
-        }
-        // 直接增强sql
+        // 增强sql，解析和改写的结果按 MappedStatement 缓存，这里只需要把条件拼进去
+        DataScopeSqlInjector.Injection injection = DataScopeSqlInjector.get(ms.getId(), sql);
+        String mSql = injection.render(conditionSql);
         //通过反射修改sql语句
         Field field = boundSql.getClass().getDeclaredField("sql");
         field.setAccessible(true);
         field.set(boundSql, mSql);
+        if (!dataScopeSql.getParameters().isEmpty()) {
+            // 条件里面的参数要插到原来参数的对应位置上
+            bindParameters(ms, boundSql, dataScopeSql.getParameters(), injection);
+        }
         log.trace("增强后的SQL：{}", mSql); // 打印：增强后的SQL
         MyBatisExtraParamsHandle.super.beforePrepare(sh, connection, transactionTimeout);
     }
 
+    /**
+     * 获取要拼接的数据权限条件
+     *
+     * @param ms        MappedStatement
+     * @param dataScope 注解
+     * @return 数据权限条件
+     */
+    @SneakyThrows
+    private DataScopeSql getDataScopeSql(MappedStatement ms, DataScope dataScope) {
+        // 先默认拿注解上的自定义过滤规则，然后再拿全局配置的规则，最后使用默认的规则
+        if (properties.isBindParameters()) {
+            // 参数绑定的时候，apply 里面放到参数里面的是拼接好值的 sql，不能直接用
+            String customSql = Optional.ofNullable(getBean(dataScope.custom()).apply(dataScope))
+                    .orElseGet(() -> dataScopeCustom.apply(dataScope));
+            return customSql != null ? DataScopeSql.of(customSql)
+                    : DataScopeUtil.init(properties, userSupplier).getBoundConditionSql(dataScope, getDbType(ms, dataScope));
+        }
+        // 不能拿参数里面的条件来用，调用方可以往参数里面放任意的 sql，这里每次都重新生成（开启 conditionCache 的时候渲染结果是有缓存的）
+        return DataScopeSql.of(Optional.ofNullable(getBean(dataScope.custom()).apply(dataScope))
+                .orElseGet(() -> Optional.ofNullable(dataScopeCustom.apply(dataScope))
+                        .orElseGet(() -> DataScopeUtil.init(properties, userSupplier)
+                                .getConditionSql(dataScope, getDbType(ms, dataScope)))));
+    }
+
+    /**
+     * 把数据权限条件的参数绑定到 BoundSql 上
+     *
+     * @param ms         MappedStatement
+     * @param boundSql   BoundSql
+     * @param parameters 参数值
+     * @param injection  注入模板，决定参数插入的位置
+     */
+    @SneakyThrows
+    private static void bindParameters(MappedStatement ms, BoundSql boundSql, List<Object> parameters, DataScopeSqlInjector.Injection injection) {
+        List<ParameterMapping> dataScopeMappings = new ArrayList<>(parameters.size());
+        for (int i = 0; i < parameters.size(); i++) {
+            Object value = parameters.get(i);
+            String name = DATA_SCOPE_PARAM_PREFIX + i;
+            dataScopeMappings.add(new ParameterMapping.Builder(ms.getConfiguration(), name
+                    , value == null ? Object.class : value.getClass()).build());
+            boundSql.setAdditionalParameter(name, value);
+        }
+        // 原来的参数映射可能是 MappedStatement 共享的，合并成一个新的列表，不改原来的
+        List<ParameterMapping> parameterMappings = injection.merge(boundSql.getParameterMappings(), dataScopeMappings);
+        Field field = boundSql.getClass().getDeclaredField("parameterMappings");
+        field.setAccessible(true);
+        field.set(boundSql, parameterMappings);
+    }
+
     private static DbType getDbType(MappedStatement ms, DataScope dataScope) {
         DbType d = DbType.getDbType(ms.getConfiguration().getDatabaseId());
         return d.equals(DbType.OTHER) ? dataScope.dbtype() : d;
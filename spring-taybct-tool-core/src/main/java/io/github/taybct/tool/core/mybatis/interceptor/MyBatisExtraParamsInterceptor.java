@@ -2,6 +2,7 @@ package io.github.taybct.tool.core.mybatis.interceptor;
 
 import cn.hutool.core.util.ArrayUtil;
 import io.github.taybct.tool.core.mybatis.handle.MyBatisExtraParamsHandle;
+import io.github.taybct.tool.core.mybatis.support.MappedStatementMetadata;
 import io.github.taybct.tool.core.util.MyBatisUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,7 +18,6 @@ import org.apache.ibatis.plugin.Signature;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 
-import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.List;
@@ -50,10 +50,9 @@ public class MyBatisExtraParamsInterceptor implements Interceptor {
             if (ArrayUtil.isEmpty(args)) {
                 return invocation.proceed();
             }
-            invocation.getMethod();
             MappedStatement ms = (MappedStatement) args[0];
-            Method method = MyBatisUtil.getMethod(ms);
-            if (method == null) {
+            // mapper 方法和参数实体类的元数据都是按 MappedStatement id 缓存的，不会每次都反射
+            if (MappedStatementMetadata.of(ms).getMethod() == null) {
                 return invocation.proceed();
             }
             Map<String, Object> paramMap;
@@ -0,0 +1,196 @@
+package io.github.taybct.tool.core.mybatis.support;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import io.github.taybct.tool.core.annotation.TableFieldDefault;
+import io.github.taybct.tool.core.annotation.TableFieldJSON;
+import io.github.taybct.tool.core.annotation.TableLogicUnique;
+import io.github.taybct.tool.core.util.StringUtil;
+import io.github.taybct.tool.core.util.accessor.BeanAccessor;
+import io.github.taybct.tool.core.util.accessor.PropertyAccessor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体类的元数据，把额外参数拦截器每次都要反射获取的字段、注解、读写方法等信息解析一次之后缓存起来
+ *
+ * @author XiJieYin <br> 2026/10/17 10:12
+ */
+@Getter
+@Slf4j
+public class EntityMetadata {
+
+    /**
+     * 已经解析过的实体类
+     */
+    private static final Map<Class<?>, EntityMetadata> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 实体类类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 所有的非静态字段（包括父类的）
+     */
+    private final List<FieldMetadata> fields;
+
+    /**
+     * 是否有字段使用了 {@linkplain TableFieldDefault @TableFieldDefault}
+     */
+    private final boolean tableFieldDefaultPresent;
+
+    /**
+     * 唯一逻辑删除键，没有 {@linkplain TableLogicUnique @TableLogicUnique} 注解时为 null
+     */
+    private final String tableLogicUniqueKey;
+
+    /**
+     * 字段里面是否有唯一逻辑删除键
+     */
+    private final boolean tableLogicUniqueKeyPresent;
+
+    /**
+     * 第一个使用了 {@linkplain TableId @TableId} 的字段
+     */
+    private final FieldMetadata tableIdField;
+
+    private EntityMetadata(Class<?> type) {
+        this.type = type;
+        List<FieldMetadata> fieldList = new ArrayList<>();
+        for (PropertyAccessor accessor : BeanAccessor.of(type).getProperties()) {
+            fieldList.add(new FieldMetadata(accessor));
+        }
+        this.fields = Collections.unmodifiableList(fieldList);
+        this.tableFieldDefaultPresent = fieldList.stream().anyMatch(FieldMetadata::isTableFieldDefaultPresent);
+        this.tableLogicUniqueKey = type.isAnnotationPresent(TableLogicUnique.class)
+                ? type.getAnnotation(TableLogicUnique.class).value() : null;
+        this.tableLogicUniqueKeyPresent = StringUtil.isNotBlank(this.tableLogicUniqueKey)
+                && fieldList.stream().anyMatch(f -> f.getName().equals(this.tableLogicUniqueKey));
+        this.tableIdField = fieldList.stream().filter(FieldMetadata::isTableId).findFirst().orElse(null);
+    }
+
+    /**
+     * 获取实体类的元数据，第一次获取的时候解析，之后从缓存里面拿
+     *
+     * @param type 实体类类型
+     * @return 元数据
+     */
+    public static EntityMetadata of(Class<?> type) {
+        return CACHE.computeIfAbsent(type, EntityMetadata::new);
+    }
+
+    /**
+     * 清空缓存，一般在热加载类之后调用
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * 字段元数据
+     */
+    @Getter
+    public static class FieldMetadata {
+
+        /**
+         * 字段
+         */
+        private final Field field;
+
+        /**
+         * 字段名
+         */
+        private final String name;
+
+        /**
+         * 字段类型
+         */
+        private final Class<?> type;
+
+        /**
+         * 字段读写器
+         */
+        private final PropertyAccessor accessor;
+
+        /**
+         * 默认值注解
+         */
+        private final TableFieldDefault tableFieldDefault;
+
+        /**
+         * 是否是 JSON 字段
+         */
+        private final boolean json;
+
+        /**
+         * 是否是逻辑删除字段
+         */
+        private final boolean tableLogic;
+
+        /**
+         * 是否是主键
+         */
+        private final boolean tableId;
+
+        FieldMetadata(PropertyAccessor accessor) {
+            Field field = accessor.getField();
+            this.field = field;
+            this.name = accessor.getName();
+            this.type = accessor.getType();
+            this.accessor = accessor;
+            this.tableFieldDefault = field.getAnnotation(TableFieldDefault.class);
+            this.json = field.isAnnotationPresent(TableFieldJSON.class);
+            this.tableLogic = field.isAnnotationPresent(TableLogic.class);
+            this.tableId = field.isAnnotationPresent(TableId.class);
+        }
+
+        /**
+         * 读取字段值，有 getter 用 getter，没有就直接读字段
+         *
+         * @param bean 对象
+         * @return 字段值
+         */
+        public Object read(Object bean) {
+            try {
+                return this.accessor.get(bean);
+            } catch (Exception e) {
+                log.trace(e.getMessage(), e);
+                return null;
+            }
+        }
+
+        /**
+         * 设置字段值，有 setter 用 setter，没有就直接写字段
+         *
+         * @param bean  对象
+         * @param value 值
+         */
+        public void write(Object bean, Object value) {
+            try {
+                if (!this.accessor.set(bean, value)) {
+                    log.trace("字段 {} 不可写", this.name);
+                }
+            } catch (Exception e) {
+                log.trace(e.getMessage(), e);
+            }
+        }
+
+        /**
+         * 是否有默认值注解
+         *
+         * @return boolean
+         */
+        public boolean isTableFieldDefaultPresent() {
+            return this.tableFieldDefault != null;
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.github.taybct.tool.core.mybatis.support;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.reflect.GenericTypeUtils;
+import io.github.taybct.tool.core.annotation.DataScope;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MappedStatement 的元数据，按 {@link MappedStatement#getId()} 缓存 mapper 方法、方法上的注解等信息，
+ * 避免拦截器每次执行 sql 都去 {@code Class.forName} 再遍历一次所有的方法
+ *
+ * @author XiJieYin <br> 2026/10/17 10:12
+ */
+@Getter
+@Slf4j
+public class MappedStatementMetadata {
+
+    /**
+     * 已经解析过的 MappedStatement
+     */
+    private static final Map<String, MappedStatementMetadata> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * MappedStatement id，mapper 方法的全路径名，如 com.cq.UserMapper.insertUser
+     */
+    private final String id;
+
+    /**
+     * mapper 接口，找不到的时候为 null
+     */
+    private final Class<?> mapperClass;
+
+    /**
+     * mapper 方法，找不到的时候为 null
+     */
+    private final Method method;
+
+    /**
+     * 方法上的数据权限注解
+     */
+    private final DataScope dataScope;
+
+    /**
+     * 方法第一个参数的名字
+     */
+    private final String firstParameterName;
+
+    /**
+     * 如果是 MyBatisPlus 的 BaseMapper 里面的方法，这里是实体类 {@linkplain com.baomidou.mybatisplus.annotation.TableId @TableId} 的字段名
+     */
+    private final String baseMapperKeyName;
+
+    private MappedStatementMetadata(String id) {
+        this.id = id;
+        // 获取 Class Method
+        String clazzName = id.substring(0, id.lastIndexOf('.'));
+        String mapperMethod = id.substring(id.lastIndexOf('.') + 1);
+        Class<?> clazz = null;
+        try {
+            clazz = Class.forName(clazzName);
+        } catch (ClassNotFoundException e) {
+            log.trace(e.getMessage(), e);
+        }
+        Method found = null;
+        if (clazz != null) {
+            for (Method m : clazz.getMethods()) {
+                if (m.getName().equals(mapperMethod)) {
+                    found = m;
+                    break;
+                }
+            }
+        }
+        this.mapperClass = clazz;
+        this.method = found;
+        this.dataScope = found == null ? null : found.getAnnotation(DataScope.class);
+        Parameter[] parameters = found == null ? new Parameter[0] : found.getParameters();
+        this.firstParameterName = parameters.length > 0 ? parameters[0].getName() : null;
+        this.baseMapperKeyName = resolveBaseMapperKeyName(clazz, found);
+    }
+
+    /**
+     * 判断获取到的方法是不是 Mybatis plus 的 BaseMapper 里面的方法，如果是的话，那所有的使用 id 的操作都是简单类型的，
+     * 但是如果 id 和实际不一样的话，得要看实体类里面具体是什么值
+     *
+     * @param clazz  mapper 接口
+     * @param method mapper 方法
+     * @return 主键字段名，不是 BaseMapper 的方法或者找不到时为 null
+     */
+    private static String resolveBaseMapperKeyName(Class<?> clazz, Method method) {
+        if (clazz == null || method == null || !method.getDeclaringClass().equals(BaseMapper.class)) {
+            return null;
+        }
+        Class<?>[] classes = GenericTypeUtils.resolveTypeArguments(clazz, BaseMapper.class);
+        if (null == classes) {
+            return null;
+        }
+        // 这里去找到继承 BaseMapper 的形参的类型来获取类型里面所有的字段，有 @TableId 的字段就可以知道是 @TableId 了
+        EntityMetadata.FieldMetadata tableIdField = EntityMetadata.of(classes[0]).getTableIdField();
+        return tableIdField == null ? null : tableIdField.getName();
+    }
+
+    /**
+     * 获取 MappedStatement 的元数据，第一次获取的时候解析，之后从缓存里面拿
+     *
+     * @param ms MappedStatement
+     * @return 元数据
+     */
+    public static MappedStatementMetadata of(MappedStatement ms) {
+        return CACHE.computeIfAbsent(ms.getId(), MappedStatementMetadata::new);
+    }
+
+    /**
+     * 移除某个 MappedStatement 的元数据，mapper 重新加载之后调用
+     *
+     * @param id MappedStatement id
+     */
+    public static void evict(String id) {
+        CACHE.remove(id);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+}
@@ -0,0 +1,39 @@
+package io.github.taybct.tool.core.mybatis.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 数据权限过滤条件，sql 里面用户相关的值使用 {@code ?} 占位，值按顺序放在 parameters 里面，
+ * 这样每个用户生成的 sql 都是一样的，数据库和驱动可以复用同一个预编译语句
+ *
+ * @author XiJieYin <br> 2026/10/17 17:40
+ */
+@Getter
+@AllArgsConstructor
+public class DataScopeSql {
+
+    /**
+     * 过滤条件 sql
+     */
+    private final String sql;
+
+    /**
+     * 按 {@code ?} 顺序排列的参数值
+     */
+    private final List<Object> parameters;
+
+    /**
+     * 没有参数的过滤条件（比如自定义的规则）
+     *
+     * @param sql 过滤条件 sql
+     * @return DataScopeSql
+     */
+    public static DataScopeSql of(String sql) {
+        return new DataScopeSql(sql, Collections.emptyList());
+    }
+
+}
@@ -0,0 +1,296 @@
+package io.github.taybct.tool.core.mybatis.util;
+
+import io.github.taybct.tool.core.exception.def.BaseException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.ParenthesedExpressionList;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.select.ParenthesedSelect;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.update.Update;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据权限条件注入
+ * <br>
+ * 使用 JSqlParser 解析原始 sql，把 {@code exists(...)} 条件加到最外层查询（union 的每个分支，with 后面的主查询）的 where 上，
+ * 解析和改写的结果按 {@link org.apache.ibatis.mapping.MappedStatement#getId()} 缓存起来，之后每次执行只需要把条件拼接进去
+ * <br>
+ * 解析失败或者找不到可以加条件的位置的 sql 直接报错，不去猜条件应该加在哪里，以免条件没加上或者加错了地方
+ *
+ * @author XiJieYin <br> 2026/10/17 18:30
+ */
+@Slf4j
+public class DataScopeSqlInjector {
+
+    /**
+     * 每个 MappedStatement 最多缓存多少种 sql（动态 sql 会产生不同的语句）
+     */
+    private static final int MAX_SQL_PER_STATEMENT = 16;
+
+    /**
+     * 改写时使用的占位列名，渲染的时候替换成真正的条件
+     */
+    private static final String MARKER = "__data_scope_condition__";
+
+    /**
+     * MappedStatement id -> (原始 sql -> 改写之后的模板)
+     */
+    private static final Map<String, Map<String, Injection>> CACHE = new ConcurrentHashMap<>();
+
+    private DataScopeSqlInjector() {
+    }
+
+    /**
+     * 获取注入模板，第一次的时候解析，之后从缓存里面拿
+     *
+     * @param id  MappedStatement id
+     * @param sql 原始 sql
+     * @return 注入模板
+     */
+    public static Injection get(String id, String sql) {
+        Map<String, Injection> statementCache = CACHE.computeIfAbsent(id, key -> new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Injection> eldest) {
+                return size() > MAX_SQL_PER_STATEMENT;
+            }
+        });
+        synchronized (statementCache) {
+            Injection injection = statementCache.get(sql);
+            if (injection == null) {
+                injection = compile(sql);
+                statementCache.put(sql, injection);
+            }
+            return injection;
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * 解析并改写 sql
+     *
+     * @param sql 原始 sql
+     * @return 注入模板
+     */
+    public static Injection compile(String sql) {
+        Statement statement;
+        try {
+            statement = CCJSqlParserUtil.parse(sql);
+        } catch (JSQLParserException | RuntimeException e) {
+            log.error("数据权限 sql 解析失败：{}", sql, e);
+            throw new BaseException("数据权限 sql 解析失败，不能添加数据权限条件！", e);
+        }
+        if (!inject(statement)) {
+            throw new BaseException("不支持添加数据权限条件的 sql：" + sql);
+        }
+        // 解析之后再生成的 sql 没有注释了，统计占位符的时候只需要考虑引号
+        return new Injection(statement.toString().split(MARKER, -1));
+    }
+
+    /**
+     * 往语句里面加上占位条件
+     *
+     * @param statement 语句
+     * @return 是否加上了
+     */
+    private static boolean inject(Statement statement) {
+        if (statement instanceof Select select) {
+            return injectSelect(select);
+        }
+        if (statement instanceof Update update) {
+            update.setWhere(and(update.getWhere()));
+            return true;
+        }
+        if (statement instanceof Delete delete) {
+            delete.setWhere(and(delete.getWhere()));
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean injectSelect(Select select) {
+        // with 里面的子查询不管，只处理主查询
+        if (select instanceof PlainSelect plainSelect) {
+            plainSelect.setWhere(and(plainSelect.getWhere()));
+            return true;
+        }
+        if (select instanceof ParenthesedSelect parenthesedSelect) {
+            return injectSelect(parenthesedSelect.getSelect());
+        }
+        if (select instanceof SetOperationList setOperationList) {
+            boolean injected = false;
+            for (Select s : setOperationList.getSelects()) {
+                injected |= injectSelect(s);
+            }
+            return injected;
+        }
+        return false;
+    }
+
+    private static Expression and(Expression where) {
+        Column marker = new Column(MARKER);
+        if (where == null) {
+            return marker;
+        }
+        return new AndExpression(marker, where instanceof OrExpression ? new ParenthesedExpressionList<>(where) : where);
+    }
+
+    /**
+     * 统计 sql 里面有多少个 {@code ?} 占位符，和 jdbc 驱动的规则一样：
+     * 字符串（{@code '...'}）、带引号的标识符（{@code "..."}、{@code `...`}）和注释里面的不算，
+     * {@code ??} 是转义的 {@code ?} 运算符（比如 pg 的 jsonb），也不算
+     *
+     * @param sql sql
+     * @return 占位符数量
+     */
+    static int countPlaceholder(String sql) {
+        int count = 0;
+        int length = sql.length();
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            char next = i + 1 < length ? sql.charAt(i + 1) : 0;
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '-' && next == '-') {
+                int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? length : end;
+            } else if (c == '/' && next == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '?') {
+                if (next == '?') {
+                    i++;
+                } else {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 跳过引号里面的内容，两个连续的引号是转义
+     *
+     * @param sql   sql
+     * @param start 开始的引号的位置
+     * @param quote 引号
+     * @return 结束的引号的位置
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+
+    /**
+     * 改写好的 sql 模板
+     */
+    @Getter
+    public static class Injection {
+
+        /**
+         * 被条件分隔开的 sql 片段，比条件多一个
+         */
+        private final String[] segments;
+
+        /**
+         * 每个条件前面有多少个原始 sql 的 {@code ?}，用来确定绑定参数插入的位置
+         */
+        private final int[] placeholderIndexes;
+
+        /**
+         * 原始 sql 的 {@code ?} 总数
+         */
+        private final int placeholderCount;
+
+        Injection(String[] segments) {
+            this.segments = segments;
+            this.placeholderIndexes = new int[segments.length - 1];
+            int count = 0;
+            for (int i = 0; i < this.placeholderIndexes.length; i++) {
+                count += countPlaceholder(segments[i]);
+                this.placeholderIndexes[i] = count;
+            }
+            this.placeholderCount = count + countPlaceholder(segments[segments.length - 1]);
+        }
+
+        /**
+         * 把条件拼接进去
+         *
+         * @param conditionSql 数据权限条件
+         * @return 增强后的 sql
+         */
+        public String render(String conditionSql) {
+            String condition = "exists(" + conditionSql + ")";
+            StringBuilder sb = new StringBuilder(this.segments[0]);
+            for (int i = 1; i < this.segments.length; i++) {
+                sb.append(condition).append(this.segments[i]);
+            }
+            return sb.toString();
+        }
+
+        /**
+         * 条件出现的次数
+         *
+         * @return 次数
+         */
+        public int getConditionCount() {
+            return this.placeholderIndexes.length;
+        }
+
+        /**
+         * 把条件的参数按位置插入到原来的参数里面
+         *
+         * @param original   原来的参数
+         * @param parameters 条件的参数
+         * @param <T>        参数类型
+         * @return 合并后的参数
+         */
+        public <T> List<T> merge(List<T> original, List<T> parameters) {
+            if (original.size() != this.placeholderCount) {
+                // 占位符和参数对不上，插入的位置就不可信，宁可报错也不能绑错参数
+                throw new BaseException("数据权限参数绑定失败，sql 里面有 " + this.placeholderCount
+                        + " 个占位符，参数有 " + original.size() + " 个！");
+            }
+            List<T> merged = new ArrayList<>(original.size() + parameters.size() * this.placeholderIndexes.length);
+            int from = 0;
+            for (int index : this.placeholderIndexes) {
+                merged.addAll(original.subList(from, index));
+                merged.addAll(parameters);
+                from = index;
+            }
+            merged.addAll(original.subList(from, original.size()));
+            return merged;
+        }
+    }
+
+}
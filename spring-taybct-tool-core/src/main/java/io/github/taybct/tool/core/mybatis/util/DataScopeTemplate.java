@@ -0,0 +1,182 @@
+package io.github.taybct.tool.core.mybatis.util;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 编译好的数据权限 sql 模板
+ * <br>
+ * 表名、字段名这些配置相关的占位符在编译的时候就已经替换好了，只剩下和当前用户有关的 {@code {userId}} 和
+ * {@code {roleCodeArray}} 两个槽位，渲染的时候按顺序拼接，不需要再做正则替换
+ *
+ * @author XiJieYin <br> 2026/10/17 16:20
+ */
+public class DataScopeTemplate {
+
+    /**
+     * 用户 id 槽位
+     */
+    public static final String USER_ID = "userId";
+
+    /**
+     * 角色 code 集合槽位
+     */
+    public static final String ROLE_CODE_ARRAY = "roleCodeArray";
+
+    /**
+     * 槽位之间的 sql 片段，比槽位多一个
+     */
+    @Getter
+    private final String[] literals;
+
+    /**
+     * 槽位，按出现的顺序
+     */
+    @Getter
+    private final String[] slots;
+
+    /**
+     * 渲染之后的大概长度，用于初始化 StringBuilder
+     */
+    private final int length;
+
+    private DataScopeTemplate(String[] literals, String[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int len = 0;
+        for (String literal : literals) {
+            len += literal.length();
+        }
+        this.length = len + slots.length * 24;
+    }
+
+    /**
+     * 编译模板，把模板按槽位拆分
+     *
+     * @param template 已经替换好配置占位符的模板
+     * @return 编译好的模板
+     */
+    public static DataScopeTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                break;
+            }
+            String name = template.substring(open + 1, close);
+            if (USER_ID.equals(name) || ROLE_CODE_ARRAY.equals(name)) {
+                literals.add(template.substring(start, open));
+                slots.add(name);
+                start = close + 1;
+            } else {
+                // 不是槽位的花括号原样保留
+                literals.add(template.substring(start, open + 1));
+                slots.add(null);
+                start = open + 1;
+            }
+        }
+        literals.add(template.substring(start));
+        return merge(literals, slots);
+    }
+
+    /**
+     * 把不是槽位的片段合并起来
+     */
+    private static DataScopeTemplate merge(List<String> literals, List<String> slots) {
+        List<String> mergedLiterals = new ArrayList<>();
+        List<String> mergedSlots = new ArrayList<>();
+        StringBuilder current = new StringBuilder(literals.get(0));
+        for (int i = 0; i < slots.size(); i++) {
+            String slot = slots.get(i);
+            if (slot == null) {
+                current.append(literals.get(i + 1));
+            } else {
+                mergedLiterals.add(current.toString());
+                mergedSlots.add(slot);
+                current = new StringBuilder(literals.get(i + 1));
+            }
+        }
+        mergedLiterals.add(current.toString());
+        return new DataScopeTemplate(mergedLiterals.toArray(new String[0]), mergedSlots.toArray(new String[0]));
+    }
+
+    /**
+     * 渲染模板
+     *
+     * @param userId        用户 id
+     * @param roleCodeArray 角色 code 集合，如：'a','b'
+     * @return sql
+     */
+    public String render(String userId, String roleCodeArray) {
+        if (this.slots.length == 0) {
+            return this.literals[0];
+        }
+        StringBuilder sb = new StringBuilder(this.length);
+        for (int i = 0; i < this.slots.length; i++) {
+            sb.append(this.literals[i]);
+            sb.append(USER_ID.equals(this.slots[i]) ? userId : roleCodeArray);
+        }
+        sb.append(this.literals[this.slots.length]);
+        return sb.toString();
+    }
+
+    /**
+     * 渲染成使用 {@code ?} 占位的 sql，用户 id 和角色 code 按出现的顺序放到参数里面
+     * <br>
+     * 角色 code 的个数会补齐到 2 的幂（用最后一个 code 补），这样不同角色数量的用户也只会产生少量几种 sql
+     *
+     * @param userId    用户 id
+     * @param roleCodes 角色 code 集合
+     * @return 参数化的 sql
+     */
+    public DataScopeSql renderBound(Object userId, Collection<String> roleCodes) {
+        if (this.slots.length == 0) {
+            return DataScopeSql.of(this.literals[0]);
+        }
+        List<String> codes = roleCodes == null ? Collections.emptyList() : roleCodes.stream().sorted().toList();
+        int size = codes.isEmpty() ? 0 : Integer.highestOneBit(codes.size() - 1) << 1;
+        size = Math.max(size, codes.size());
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sb = new StringBuilder(this.length);
+        for (int i = 0; i < this.slots.length; i++) {
+            sb.append(this.literals[i]);
+            if (USER_ID.equals(this.slots[i])) {
+                sb.append('?');
+                parameters.add(userId);
+            } else if (codes.isEmpty()) {
+                // 没有角色的时候 in (null) 什么都匹配不到
+                sb.append("NULL");
+            } else {
+                for (int j = 0; j < size; j++) {
+                    sb.append(j == 0 ? "?" : ",?");
+                    parameters.add(codes.get(Math.min(j, codes.size() - 1)));
+                }
+            }
+        }
+        sb.append(this.literals[this.slots.length]);
+        return new DataScopeSql(sb.toString(), parameters);
+    }
+
+    /**
+     * 是否有某个槽位
+     *
+     * @param slot 槽位
+     * @return boolean
+     */
+    public boolean hasSlot(String slot) {
+        for (String s : this.slots) {
+            if (s.equals(slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -3,6 +3,7 @@ package io.github.taybct.tool.core.mybatis.util;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.annotation.DbType;
+import io.github.taybct.tool.core.annotation.DataScope;
 import io.github.taybct.tool.core.bean.ILoginUser;
 import io.github.taybct.tool.core.enums.DataScopeFilterType;
 import io.github.taybct.tool.core.enums.DataScopeGetNotDealType;
@@ -14,8 +15,10 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.sql.DataSource;
+import java.io.Serial;
 import java.sql.DatabaseMetaData;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -226,6 +229,29 @@ public class DataScopeUtil {
      */
     public static final String conditionSqlTemplateStatusFilter = " and dept_table_m_alias.{statusField} = {enableStatus} ";
 
+    /**
+     * 渲染结果缓存的最大数量
+     */
+    private static final int CONDITION_CACHE_SIZE = 4096;
+
+    /**
+     * 编译好的模板，key 是 (注解, 数据库类型, 全局配置)，注解来自 mapper 方法，实例是固定的
+     */
+    private static final Map<TemplateKey, DataScopeTemplate> TEMPLATE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 渲染好的 sql，key 是 (模板, 用户 id, 角色 code 集合)，按最近最少使用淘汰
+     */
+    private static final Map<ConditionKey, String> CONDITION_CACHE = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ConditionKey, String> eldest) {
+            return size() > CONDITION_CACHE_SIZE;
+        }
+    });
+
     private DataScopeUtil() {
     }
 
@@ -245,7 +271,82 @@ public class DataScopeUtil {
         return new DataScopeUtil(properties, userSupplier);
     }
 
+    /**
+     * 获取数据权限过滤条件
+     *
+     * @param dataScope 数据权限配置
+     * @param dbType    数据库类型
+     * @return sql
+     */
     public String getConditionSql(DataScopeData dataScope, DbType dbType) {
+        return render(compile(dataScope, dbType), false);
+    }
+
+    /**
+     * 获取数据权限过滤条件，模板按 (注解, 数据库类型) 编译一次，渲染结果按 (用户, 角色) 缓存
+     *
+     * @param dataScope mapper 方法上的注解
+     * @param dbType    数据库类型
+     * @return sql
+     */
+    public String getConditionSql(DataScope dataScope, DbType dbType) {
+        DataScopeTemplate template = TEMPLATE_CACHE.computeIfAbsent(new TemplateKey(dataScope, dbType, properties)
+                , key -> compile(new DataScopeData(dataScope), dbType));
+        return render(template, properties.isConditionCache());
+    }
+
+    /**
+     * 获取参数化的数据权限过滤条件，用户 id 和角色 code 不会拼接到 sql 里面，而是作为 JDBC 参数绑定
+     *
+     * @param dataScope mapper 方法上的注解
+     * @param dbType    数据库类型
+     * @return 过滤条件和参数
+     */
+    public DataScopeSql getBoundConditionSql(DataScope dataScope, DbType dbType) {
+        DataScopeTemplate template = TEMPLATE_CACHE.computeIfAbsent(new TemplateKey(dataScope, dbType, properties)
+                , key -> compile(new DataScopeData(dataScope), dbType));
+        if (template.getSlots().length == 0) {
+            return DataScopeSql.of(template.render(null, null));
+        }
+        ILoginUser loginUser = userSupplier.get();
+        return template.renderBound(loginUser.getUserId()
+                , template.hasSlot(DataScopeTemplate.ROLE_CODE_ARRAY) ? loginUser.checkAuthorities() : null);
+    }
+
+    /**
+     * 使用当前用户渲染模板
+     *
+     * @param template 编译好的模板
+     * @param useCache 是否使用渲染结果缓存
+     * @return sql
+     */
+    public String render(DataScopeTemplate template, boolean useCache) {
+        if (template.getSlots().length == 0) {
+            return template.render(null, null);
+        }
+        ILoginUser loginUser = userSupplier.get();
+        if (!useCache) {
+            return renderQueryCondition(template, loginUser);
+        }
+        Set<String> roleCodeSet = template.hasSlot(DataScopeTemplate.ROLE_CODE_ARRAY)
+                ? new HashSet<>(loginUser.checkAuthorities()) : Collections.emptySet();
+        ConditionKey key = new ConditionKey(template, loginUser.getUserId(), roleCodeSet);
+        String sql = CONDITION_CACHE.get(key);
+        if (sql == null) {
+            sql = renderQueryCondition(template, loginUser);
+            CONDITION_CACHE.put(key, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * 编译数据权限模板，配置相关的占位符都会在这里替换掉，只留下用户相关的槽位
+     *
+     * @param dataScope 数据权限配置
+     * @param dbType    数据库类型
+     * @return 编译好的模板
+     */
+    public DataScopeTemplate compile(DataScopeData dataScope, DbType dbType) {
         StringBuilder conditionSql = new StringBuilder();
 
         StringBuilder singleConditionUser = new StringBuilder();
@@ -329,7 +430,7 @@ public class DataScopeUtil {
             conditionSql.append(conditionSqlTemplateStatusFilter);
         }
 
-        return replaceQueryCondition(replacePlaceholder(conditionSql.toString(), dataScope));
+        return DataScopeTemplate.compile(replacePlaceholder(conditionSql.toString(), dataScope));
     }
 
     /**
@@ -340,31 +441,62 @@ public class DataScopeUtil {
      * @return string
      */
     public String replacePlaceholder(String template, DataScopeData dataScope) {
-        return template.replaceAll("[{]userScopeTable[}]", StrUtil.emptyToDefault(dataScope.getUserScopeTable(), properties.getUserScopeTable()))
-                .replaceAll("[{]userScopeField[}]", StrUtil.emptyToDefault(dataScope.getUserScopeField(), properties.getUserScopeField()))
-                .replaceAll("[{]userScopeDeptId[}]", StrUtil.emptyToDefault(dataScope.getUserScopeDeptId(), properties.getUserScopeDeptId()))
-                .replaceAll("[{]roleScopeTable[}]", StrUtil.emptyToDefault(dataScope.getRoleScopeTable(), properties.getRoleScopeTable()))
-                .replaceAll("[{]roleScopeField[}]", StrUtil.emptyToDefault(dataScope.getRoleScopeField(), properties.getRoleScopeField()))
-                .replaceAll("[{]roleScopeDeptId[}]", StrUtil.emptyToDefault(dataScope.getRoleScopeDeptId(), properties.getRoleScopeDeptId()))
-                .replaceAll("[{]roleTable[}]", StrUtil.emptyToDefault(dataScope.getRoleTable(), properties.getRoleTable()))
-                .replaceAll("[{]roleField[}]", StrUtil.emptyToDefault(dataScope.getRoleField(), properties.getRoleField()))
-                .replaceAll("[{]roleCode[}]", StrUtil.emptyToDefault(dataScope.getRoleCode(), properties.getRoleCode()))
-                .replaceAll("[{]deptTable[}]", StrUtil.emptyToDefault(dataScope.getDeptTable(), properties.getDeptTable()))
-                .replaceAll("[{]deptId[}]", StrUtil.emptyToDefault(dataScope.getDeptId(), properties.getDeptId()))
-                .replaceAll("[{]deptPidAll[}]", StrUtil.emptyToDefault(dataScope.getDeptPidAll(), properties.getDeptPidAll()))
-                .replaceAll("[{]multiTable[}]", StrUtil.emptyToDefault(dataScope.getMultiTable(), properties.getMultiTable()))
-                .replaceAll("[{]multiFiled[}]", StrUtil.emptyToDefault(dataScope.getMultiFiled(), properties.getMultiFiled()))
-                .replaceAll("[{]multiDeptId[}]", StrUtil.emptyToDefault(dataScope.getMultiDeptId(), properties.getMultiDeptId()))
-                .replaceAll("[{]alias[}]", dataScope.getAlias())
-                .replaceAll("[{]field[}]", dataScope.getField())
-                .replaceAll("[{]logicField[}]", StrUtil.emptyToDefault(dataScope.getLogicField(), properties.getLogicField()))
-                .replaceAll("[{]notDeletedStatus[}]", StrUtil.emptyToDefault(dataScope.getNotDeletedStatus(), properties.getNotDeletedStatus()))
-                .replaceAll("[{]extensionScopeTable[}]", StrUtil.emptyToDefault(dataScope.getExtensionScopeTable(), properties.getExtensionScopeTable()))
-                .replaceAll("[{]extensionScopeField[}]", StrUtil.emptyToDefault(dataScope.getExtensionScopeField(), properties.getExtensionScopeField()))
-                .replaceAll("[{]extensionScopeDeptId[}]", StrUtil.emptyToDefault(dataScope.getExtensionScopeDeptId(), properties.getExtensionScopeDeptId()))
-                .replaceAll("[{]statusField[}]", StrUtil.emptyToDefault(dataScope.getStatusField(), properties.getStatusField()))
-                .replaceAll("[{]enableStatus[}]", StrUtil.emptyToDefault(dataScope.getEnableStatus(), properties.getEnableStatus()))
-                ;
+        Map<String, String> values = placeholderValues(dataScope);
+        // 一次扫描替换所有的占位符，不认识的占位符原样保留（如 {userId}）
+        StringBuilder sb = new StringBuilder(template.length() + 256);
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                break;
+            }
+            String value = values.get(template.substring(open + 1, close));
+            if (value == null) {
+                sb.append(template, start, open + 1);
+                start = open + 1;
+            } else {
+                sb.append(template, start, open).append(value);
+                start = close + 1;
+            }
+        }
+        sb.append(template, start, template.length());
+        return sb.toString();
+    }
+
+    /**
+     * 模板占位符对应的值，注解上的值优先，然后是全局配置
+     *
+     * @param dataScope 注解
+     * @return 占位符 -> 值
+     */
+    private Map<String, String> placeholderValues(DataScopeData dataScope) {
+        Map<String, String> values = new HashMap<>(32);
+        values.put("userScopeTable", StrUtil.emptyToDefault(dataScope.getUserScopeTable(), properties.getUserScopeTable()));
+        values.put("userScopeField", StrUtil.emptyToDefault(dataScope.getUserScopeField(), properties.getUserScopeField()));
+        values.put("userScopeDeptId", StrUtil.emptyToDefault(dataScope.getUserScopeDeptId(), properties.getUserScopeDeptId()));
+        values.put("roleScopeTable", StrUtil.emptyToDefault(dataScope.getRoleScopeTable(), properties.getRoleScopeTable()));
+        values.put("roleScopeField", StrUtil.emptyToDefault(dataScope.getRoleScopeField(), properties.getRoleScopeField()));
+        values.put("roleScopeDeptId", StrUtil.emptyToDefault(dataScope.getRoleScopeDeptId(), properties.getRoleScopeDeptId()));
+        values.put("roleTable", StrUtil.emptyToDefault(dataScope.getRoleTable(), properties.getRoleTable()));
+        values.put("roleField", StrUtil.emptyToDefault(dataScope.getRoleField(), properties.getRoleField()));
+        values.put("roleCode", StrUtil.emptyToDefault(dataScope.getRoleCode(), properties.getRoleCode()));
+        values.put("deptTable", StrUtil.emptyToDefault(dataScope.getDeptTable(), properties.getDeptTable()));
+        values.put("deptId", StrUtil.emptyToDefault(dataScope.getDeptId(), properties.getDeptId()));
+        values.put("deptPidAll", StrUtil.emptyToDefault(dataScope.getDeptPidAll(), properties.getDeptPidAll()));
+        values.put("multiTable", StrUtil.emptyToDefault(dataScope.getMultiTable(), properties.getMultiTable()));
+        values.put("multiFiled", StrUtil.emptyToDefault(dataScope.getMultiFiled(), properties.getMultiFiled()));
+        values.put("multiDeptId", StrUtil.emptyToDefault(dataScope.getMultiDeptId(), properties.getMultiDeptId()));
+        values.put("alias", dataScope.getAlias());
+        values.put("field", dataScope.getField());
+        values.put("logicField", StrUtil.emptyToDefault(dataScope.getLogicField(), properties.getLogicField()));
+        values.put("notDeletedStatus", StrUtil.emptyToDefault(dataScope.getNotDeletedStatus(), properties.getNotDeletedStatus()));
+        values.put("extensionScopeTable", StrUtil.emptyToDefault(dataScope.getExtensionScopeTable(), properties.getExtensionScopeTable()));
+        values.put("extensionScopeField", StrUtil.emptyToDefault(dataScope.getExtensionScopeField(), properties.getExtensionScopeField()));
+        values.put("extensionScopeDeptId", StrUtil.emptyToDefault(dataScope.getExtensionScopeDeptId(), properties.getExtensionScopeDeptId()));
+        values.put("statusField", StrUtil.emptyToDefault(dataScope.getStatusField(), properties.getStatusField()));
+        values.put("enableStatus", StrUtil.emptyToDefault(dataScope.getEnableStatus(), properties.getEnableStatus()));
+        return values;
     }
 
     /**
@@ -373,11 +505,40 @@ public class DataScopeUtil {
      * @return string
      */
     public String replaceQueryCondition(String template) {
-        ILoginUser loginUser = userSupplier.get();
-        Set<String> roleCodeSet = loginUser.checkAuthorities();
-        String roleCodeArray = CollectionUtil.join(roleCodeSet.stream().map(code -> "'" + code + "'").collect(Collectors.toSet()), ",");
-        return template.replaceAll("[{]userId[}]", loginUser.getUserId().toString())
-                .replaceAll("[{]roleCodeArray[}]", roleCodeArray);
+        return renderQueryCondition(DataScopeTemplate.compile(template), userSupplier.get());
+    }
+
+    /**
+     * 使用用户 id，角色 code 渲染模板
+     *
+     * @param template  编译好的模板
+     * @param loginUser 当前用户
+     * @return string
+     */
+    private static String renderQueryCondition(DataScopeTemplate template, ILoginUser loginUser) {
+        String roleCodeArray = template.hasSlot(DataScopeTemplate.ROLE_CODE_ARRAY)
+                ? CollectionUtil.join(loginUser.checkAuthorities().stream().map(code -> "'" + code + "'").collect(Collectors.toSet()), ",")
+                : null;
+        return template.render(String.valueOf(loginUser.getUserId()), roleCodeArray);
+    }
+
+    /**
+     * 清空编译好的模板和渲染结果，数据权限的全局配置修改之后调用
+     */
+    public static void clearCache() {
+        TEMPLATE_CACHE.clear();
+        CONDITION_CACHE.clear();
+    }
+
+    /**
+     * 清除某个用户的渲染结果，用户的角色修改之后调用
+     *
+     * @param userId 用户 id
+     */
+    public static void evictUser(Long userId) {
+        synchronized (CONDITION_CACHE) {
+            CONDITION_CACHE.keySet().removeIf(key -> Objects.equals(key.userId(), userId));
+        }
     }
 
     /**
@@ -392,6 +553,32 @@ public class DataScopeUtil {
         return DbType.getDbType(metaData.getDatabaseProductName().toLowerCase());
     }
 
+    /**
+     * 模板缓存 key，注解和全局配置都按实例比较
+     */
+    private record TemplateKey(DataScope dataScope, DbType dbType, DataScopeProperties properties) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TemplateKey other
+                    && this.dataScope == other.dataScope
+                    && this.dbType == other.dbType
+                    && this.properties == other.properties;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(this.dataScope) * 31 + Objects.hashCode(this.dbType)) * 31
+                    + System.identityHashCode(this.properties);
+        }
+    }
+
+    /**
+     * 渲染结果缓存 key，模板按实例比较
+     */
+    private record ConditionKey(DataScopeTemplate template, Long userId, Set<String> roleCodes) {
+    }
+
 }
 
 
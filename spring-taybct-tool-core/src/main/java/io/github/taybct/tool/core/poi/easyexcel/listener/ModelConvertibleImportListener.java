@@ -0,0 +1,297 @@
+package io.github.taybct.tool.core.poi.easyexcel.listener;
+
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.read.listener.ReadListener;
+import com.alibaba.excel.util.ListUtils;
+import io.github.taybct.tool.core.bean.ModelConvertible;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 模型转换导入监听器
+ * <br>
+ * 和 {@link ModelConvertibleListener} 一样按批把数据交给 consumer，区别是：
+ * <ul>
+ *     <li>默认每批 {@value #DEFAULT_BATCH_SIZE} 条，不会把整个 sheet 都放在内存里面</li>
+ *     <li>parallelism 大于 0 的时候，转换（{@link ModelConvertible#bean()}）和入库放到工作线程里面做，和解析同时进行，
+ *     排队的批次满了之后由解析线程自己处理，解析就自然慢下来了，内存里面最多只有 (parallelism + queueCapacity + 1) 批数据</li>
+ *     <li>每一批的异常单独记录下来，不影响后面的批次</li>
+ *     <li>可以从指定的行开始导入，方便失败之后接着导</li>
+ * </ul>
+ * parallelism 大于 0 的时候 consumer 会被多个线程同时调用，需要是线程安全的；
+ * 工作线程在每个 sheet 第一次提交批次的时候创建，sheet 解析完（{@link #doAfterAllAnalysed}）等这个 sheet 的批次都处理完之后关闭，
+ * 读多个 sheet 的时候每个 sheet 用自己的工作线程
+ *
+ * @param <T> 需要转换成哪种数据类型
+ * @author XiJieYin <br> 2026/10/17 22:50
+ */
+@Slf4j
+public class ModelConvertibleImportListener<T> implements ReadListener<ModelConvertible<T>> {
+
+    /**
+     * 默认每批的大小
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * 数据获取
+     */
+    private final Consumer<List<T>> consumer;
+
+    /**
+     * 每批的大小
+     */
+    private final int batchSize;
+
+    /**
+     * 工作线程数，0 表示在解析线程上处理
+     */
+    private final int parallelism;
+
+    /**
+     * 最多有多少批在排队等待处理
+     */
+    private final int queueCapacity;
+
+    /**
+     * 当前 sheet 的工作线程，只在解析线程上访问
+     */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 从第几行开始导入（sheet 里面的行号，从 0 开始，包括表头），前面的行直接跳过
+     */
+    @Setter
+    private int resumeFromRow = 0;
+
+    /**
+     * 进度回调，每处理完一批调用一次
+     */
+    @Setter
+    private Consumer<Progress> progressListener;
+
+    /**
+     * 当前正在积累的批次
+     */
+    private List<ModelConvertible<T>> cachedDataList;
+
+    /**
+     * 当前批次第一行的行号
+     */
+    private int batchFirstRow = -1;
+
+    /**
+     * 当前批次最后一行的行号
+     */
+    private int batchLastRow = -1;
+
+    /**
+     * 读取到的行数（不包括跳过的）
+     */
+    private final AtomicLong readRows = new AtomicLong();
+
+    /**
+     * 处理成功的行数
+     */
+    private final AtomicLong processedRows = new AtomicLong();
+
+    /**
+     * 处理失败的行数
+     */
+    private final AtomicLong failedRows = new AtomicLong();
+
+    /**
+     * 处理失败的批次
+     */
+    @Getter
+    private final List<BatchError> errors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * 在解析线程上按默认批次大小处理
+     *
+     * @param consumer 获取读取的结果
+     */
+    public ModelConvertibleImportListener(Consumer<List<T>> consumer) {
+        this(consumer, DEFAULT_BATCH_SIZE, 0, 0);
+    }
+
+    /**
+     * 在解析线程上处理
+     *
+     * @param consumer  获取读取的结果
+     * @param batchSize 每批的大小
+     */
+    public ModelConvertibleImportListener(Consumer<List<T>> consumer, int batchSize) {
+        this(consumer, batchSize, 0, 0);
+    }
+
+    /**
+     * 解析和处理同时进行
+     *
+     * @param consumer      获取读取的结果，需要线程安全
+     * @param batchSize     每批的大小
+     * @param parallelism   工作线程数，0 表示在解析线程上处理
+     * @param queueCapacity 最多有多少批在排队等待处理
+     */
+    public ModelConvertibleImportListener(Consumer<List<T>> consumer, int batchSize, int parallelism, int queueCapacity) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        this.consumer = consumer;
+        this.batchSize = batchSize;
+        this.cachedDataList = ListUtils.newArrayListWithExpectedSize(batchSize);
+        this.parallelism = Math.max(parallelism, 0);
+        this.queueCapacity = Math.max(queueCapacity, 1);
+    }
+
+    @Override
+    public void invoke(ModelConvertible<T> data, AnalysisContext context) {
+        int rowIndex = context.readRowHolder().getRowIndex();
+        if (rowIndex < this.resumeFromRow) {
+            return;
+        }
+        this.readRows.incrementAndGet();
+        if (this.batchFirstRow < 0) {
+            this.batchFirstRow = rowIndex;
+        }
+        this.batchLastRow = rowIndex;
+        this.cachedDataList.add(data);
+        if (this.cachedDataList.size() >= this.batchSize) {
+            submit();
+        }
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        if (!this.cachedDataList.isEmpty()) {
+            submit();
+        }
+        shutdown();
+    }
+
+    @Override
+    public void onException(Exception exception, AnalysisContext context) throws Exception {
+        // 解析出错之后已经提交的批次处理完再抛出去
+        shutdown();
+        throw exception;
+    }
+
+    /**
+     * 提交当前批次
+     */
+    private void submit() {
+        List<ModelConvertible<T>> batch = this.cachedDataList;
+        int firstRow = this.batchFirstRow;
+        int lastRow = this.batchLastRow;
+        this.cachedDataList = ListUtils.newArrayListWithExpectedSize(this.batchSize);
+        this.batchFirstRow = -1;
+        this.batchLastRow = -1;
+        if (this.parallelism == 0) {
+            process(batch, firstRow, lastRow);
+        } else {
+            executor().execute(() -> process(batch, firstRow, lastRow));
+        }
+    }
+
+    /**
+     * 当前 sheet 的工作线程，没有就创建
+     *
+     * @return 工作线程
+     */
+    private ThreadPoolExecutor executor() {
+        if (this.executor == null) {
+            AtomicInteger index = new AtomicInteger();
+            ThreadFactory threadFactory = r -> {
+                Thread thread = new Thread(r, "excel-import-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            // 队列满了由解析线程自己处理，相当于背压
+            this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism, 0L, TimeUnit.MILLISECONDS
+                    , new ArrayBlockingQueue<>(this.queueCapacity)
+                    , threadFactory
+                    , new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return this.executor;
+    }
+
+    /**
+     * 转换并处理一个批次
+     *
+     * @param batch    批次
+     * @param firstRow 第一行的行号
+     * @param lastRow  最后一行的行号
+     */
+    private void process(List<ModelConvertible<T>> batch, int firstRow, int lastRow) {
+        try {
+            this.consumer.accept(batch.stream().map(ModelConvertible::bean).toList());
+            this.processedRows.addAndGet(batch.size());
+        } catch (Exception e) {
+            log.error("导入第 {} 到 {} 行失败", firstRow, lastRow, e);
+            this.failedRows.addAndGet(batch.size());
+            this.errors.add(new BatchError(firstRow, lastRow, e));
+        }
+        if (this.progressListener != null) {
+            this.progressListener.accept(getProgress());
+        }
+    }
+
+    /**
+     * 等当前 sheet 的批次都处理完之后关闭工作线程，下一个 sheet 会重新创建
+     */
+    private void shutdown() {
+        ThreadPoolExecutor current = this.executor;
+        if (current == null) {
+            return;
+        }
+        this.executor = null;
+        current.shutdown();
+        try {
+            while (!current.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.debug("等待导入任务完成，已处理 {} 行", this.processedRows.get());
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 当前进度
+     *
+     * @return 进度
+     */
+    public Progress getProgress() {
+        return new Progress(this.readRows.get(), this.processedRows.get(), this.failedRows.get());
+    }
+
+    /**
+     * 导入进度
+     *
+     * @param readRows      读取到的行数
+     * @param processedRows 处理成功的行数
+     * @param failedRows    处理失败的行数
+     */
+    public record Progress(long readRows, long processedRows, long failedRows) {
+    }
+
+    /**
+     * 处理失败的批次
+     *
+     * @param firstRow  第一行的行号
+     * @param lastRow   最后一行的行号
+     * @param exception 异常
+     */
+    public record BatchError(int firstRow, int lastRow, Exception exception) {
+    }
+
+}
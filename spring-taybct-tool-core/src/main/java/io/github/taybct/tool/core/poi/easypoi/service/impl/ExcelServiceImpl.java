@@ -28,6 +28,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
@@ -70,22 +71,22 @@ public class ExcelServiceImpl implements IExcelService {
         String infoRows = params.getInfoRows();
         //拿到的一行的单元格
         JSONObject infoRowCells = new JSONObject();
+        // 文件只读一次，信息行和数据行都从这份数据里面解析
+        byte[] bytes = file.getBytes();
         if (infoRows != null) {
             JSONObject rows = JSONObject.parseObject(infoRows);
+            //{行:{列:字段名}}
+            Map<Integer, Map<Integer, String>> cells = new LinkedHashMap<>();
             for (String rowKey : rows.keySet()) {
-                //拿到要读取的行
-                int rownum = Integer.parseInt(rowKey);
                 //这是数据指定每一个数据是在第几列 {0:xm,1:xb}这样的
                 JSONObject infoReadCells = rows.getJSONObject(rowKey);
+                Map<Integer, String> rowCells = cells.computeIfAbsent(Integer.parseInt(rowKey), k -> new LinkedHashMap<>());
                 for (String cellKey : infoReadCells.keySet()) {
-                    //拿到要读取的列
-                    int cellnum = Integer.parseInt(cellKey);
-                    //字段名
-                    String field = infoReadCells.getString(cellKey);
-                    Object obj = EasyPOIUtil.readExcelData(file, sheetName, rownum, cellnum);
-                    infoRowCells.put(field, obj);
+                    rowCells.put(Integer.parseInt(cellKey), infoReadCells.getString(cellKey));
                 }
             }
+            //所有的信息单元格一次读出来
+            infoRowCells.putAll(EasyPOIUtil.readExcelData(new ByteArrayInputStream(bytes), sheetName, cells));
         }
         result.setInfoRowCells(infoRowCells);
         //数据行
@@ -114,12 +115,12 @@ public class ExcelServiceImpl implements IExcelService {
         if (modelType != null) {
             Class<?> clazz = Class.forName(this.importModelBase + "." + modelType);
 
-            list = ExcelImportUtil.importExcel(file.getInputStream(), clazz, importParams);
+            list = ExcelImportUtil.importExcel(new ByteArrayInputStream(bytes), clazz, importParams);
         } else {
-            list = ExcelImportUtil.importExcel(file.getInputStream(), Map.class, importParams);
+            list = ExcelImportUtil.importExcel(new ByteArrayInputStream(bytes), Map.class, importParams);
         }
         for (Object obj : list) {
-            JSONObject unknowable = JSONObject.parseObject(JSONObject.toJSONString(obj, JSONWriter.Feature.WriteMapNullValue));
+            JSONObject unknowable = toJSONObject(obj);
             for (Object o : unknowable.values()) {
                 if (o != null) {
                     if (mergeInfoRows) {
@@ -137,18 +138,39 @@ public class ExcelServiceImpl implements IExcelService {
         return result;
     }
 
+    /**
+     * 转成 JSONObject，Map 直接复制，实体类转成 JSONObject 树，不经过 JSON 字符串
+     *
+     * @param obj 对象
+     * @return JSONObject
+     */
+    private static JSONObject toJSONObject(Object obj) {
+        if (obj instanceof JSONObject jsonObject) {
+            return jsonObject;
+        }
+        if (obj instanceof Map<?, ?> map) {
+            JSONObject jsonObject = new JSONObject(map.size());
+            map.forEach((k, v) -> jsonObject.put(String.valueOf(k), v));
+            return jsonObject;
+        }
+        return JSONObject.from(obj, JSONWriter.Feature.WriteMapNullValue);
+    }
+
     @Override
     public <T> boolean batchImportExcel(ExcelReadData excelData, ExcelParamsDTO params, Class<T> clazz, ExcelImpDel excelImpDel) throws Exception {
         //最后读取出来的结果，可能是一条数据，也可能是多条数据
         List<T> list = new ArrayList<>();
         //所有的表头信息
-        JSONObject infoRowCells = JSONObject.parseObject(JSONObject.toJSONString(excelData.getInfoRowCells(), JSONWriter.Feature.WriteMapNullValue));
+        JSONObject infoRowCells = excelData.getInfoRowCells() == null ? new JSONObject() : excelData.getInfoRowCells();
         //所有的数据表
-        JSONArray dataRows = JSONArray.parseArray(JSONArray.toJSONString(excelData.getDataRows(), JSONWriter.Feature.WriteMapNullValue));
+        JSONArray dataRows = excelData.getDataRows() == null ? new JSONArray() : excelData.getDataRows();
         //用来获取实体类有哪些字段
         Constructor<T> declaredConstructor = clazz.getDeclaredConstructor();
         T temp = declaredConstructor.newInstance();
-        JSONObject fields = JSONObject.parseObject(JSONObject.toJSONString(temp, JSONWriter.Feature.WriteMapNullValue));
+        JSONObject fields = JSONObject.from(temp, JSONWriter.Feature.WriteMapNullValue);
+        //每批的大小
+        int batchSize = excelImpDel.batchSize();
+        boolean success = true;
         //默认读取多行数据
         Boolean multiRows = params.getMultiRows();
         if (!multiRows) {
@@ -167,7 +189,7 @@ public class ExcelServiceImpl implements IExcelService {
         } else {
             //如果是要读取多行
             for (Object rowObj : dataRows) {
-                JSONObject row = JSONObject.parseObject(JSONObject.toJSONString(rowObj, JSONWriter.Feature.WriteMapNullValue));
+                JSONObject row = toJSONObject(rowObj);
 
                 JSONObject voJsonObj = new JSONObject();
                 for (String key : fields.keySet()) {
@@ -186,9 +208,17 @@ public class ExcelServiceImpl implements IExcelService {
                 }
                 T vo = voJsonObj.toJavaObject(clazz);
                 list.add(vo);
+                if (batchSize > 0 && list.size() >= batchSize) {
+                    // 够一批就先处理掉
+                    success &= excelImpDel.del(list, params);
+                    list = new ArrayList<>(batchSize);
+                }
+            }
+            if (batchSize > 0 && list.isEmpty() && !dataRows.isEmpty()) {
+                return success;
             }
         }
-        return excelImpDel.del(list, params);
+        return excelImpDel.del(list, params) && success;
     }
 
     @Override
@@ -237,11 +267,6 @@ public class ExcelServiceImpl implements IExcelService {
         JSONObject params = template.getParamsJSONObject();
         // 分页参数
         SqlPageParams sqlPageParams = template.getSqlPageParams();
-        // 查询结果
-        List<Map<String, Object>> list = excelExpDel.getList(dbFields, params, sqlPageParams);
-        if (list == null) {
-            list = new ArrayList<>();
-        }
         String fileName = template.getFileName();
         String excelFileName = fileName + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddhhmmss", Locale.CHINA));
         //Workbook workbook = ExcelExportUtil.exportExcel(new ExportParams(fileName, template.getSheetName()), entity, list);
@@ -258,7 +283,8 @@ public class ExcelServiceImpl implements IExcelService {
         // 设置字典翻译
         exportParams.setDictHandler(EasyPOIUtil.excelDictHandler);
         IWriter<Workbook> writer = ExcelExportUtil.exportBigExcel(exportParams, entity);
-        writer.write(list);
+        // 查询结果一批一批写进去，xlsx 使用 SXSSF，超过窗口的行会刷到临时文件
+        excelExpDel.fetch(dbFields, params, sqlPageParams, writer::write);
         Workbook workbook = writer.get();
         if (CollectionUtil.isNotEmpty(mergeColumns)) {
             PoiMergeCellUtil.mergeCells(workbook.getSheetAt(0), template.getMergeSameStartRow(), ArrayUtil.toArray(mergeColumns, Integer.class));
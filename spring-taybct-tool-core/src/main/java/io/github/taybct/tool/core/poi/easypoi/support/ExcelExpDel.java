@@ -4,8 +4,10 @@ import cn.afterturn.easypoi.excel.entity.params.ExcelExportEntity;
 import com.alibaba.fastjson2.JSONObject;
 import io.github.taybct.tool.core.mybatis.support.SqlPageParams;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Excel 导出处理类
@@ -29,4 +31,44 @@ public interface ExcelExpDel {
      * @return 获取数据行
      */
     List<Map<String, Object>> getList(List<String> fields, JSONObject params, SqlPageParams sqlPageParams);
+
+    /**
+     * 分批获取数据行，每查出一批就交给 consumer 写到 Excel 里面，写过的行会刷到临时文件，不会一直占着内存
+     * <br>
+     * 默认调用一次 {@link #getList(List, JSONObject, SqlPageParams)} 全部查出来，数据量大的时候覆盖这个方法，
+     * 使用 MyBatis 的 {@code Cursor}（配合 {@link #forEachChunk(Iterable, int, Consumer)}）或者按主键分页
+     * （{@code where id > 上一批最后一个 id}）分批查询
+     *
+     * @param fields        需要查询的字段
+     * @param params        查询条件
+     * @param sqlPageParams 分页参数
+     * @param consumer      处理每一批数据行
+     */
+    default void fetch(List<String> fields, JSONObject params, SqlPageParams sqlPageParams, Consumer<List<Map<String, Object>>> consumer) {
+        List<Map<String, Object>> list = getList(fields, params, sqlPageParams);
+        if (list != null && !list.isEmpty()) {
+            consumer.accept(list);
+        }
+    }
+
+    /**
+     * 把逐行返回的数据（比如 MyBatis 的 {@code Cursor}）按固定大小分批
+     *
+     * @param rows     数据行
+     * @param size     每批的大小
+     * @param consumer 处理每一批数据行
+     */
+    static void forEachChunk(Iterable<Map<String, Object>> rows, int size, Consumer<List<Map<String, Object>>> consumer) {
+        List<Map<String, Object>> chunk = new ArrayList<>(size);
+        for (Map<String, Object> row : rows) {
+            chunk.add(row);
+            if (chunk.size() >= size) {
+                consumer.accept(chunk);
+                chunk = new ArrayList<>(size);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            consumer.accept(chunk);
+        }
+    }
 }
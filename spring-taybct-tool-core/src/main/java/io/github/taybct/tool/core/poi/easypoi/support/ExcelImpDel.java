@@ -16,4 +16,13 @@ public interface ExcelImpDel {
      */
     <T> boolean del(List<T> list, ExcelParamsDTO params);
 
+    /**
+     * 每次交给 {@link #del(List, ExcelParamsDTO)} 多少条数据，小于等于 0 的时候全部数据一次处理
+     *
+     * @return 每批的大小
+     */
+    default int batchSize() {
+        return 0;
+    }
+
 }
@@ -18,7 +18,8 @@ import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
@@ -31,10 +32,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.*;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.*;
 
 /**
  * EasyPoi 工具类
@@ -252,9 +250,16 @@ public class EasyPOIUtil {
             response.setCharacterEncoding("utf-8");
             //response.setHeader("content-Type", "application/vnd.ms-excel");
             response.setHeader("Content-Disposition", "attachment;filename=" + URLEncoder.encode(fileName + "." + ExcelTypeEnum.XLSX.getValue(), StandardCharsets.UTF_8));
-            workbook.write(response.getOutputStream());
+            OutputStream out = response.getOutputStream();
+            workbook.write(out);
+            out.flush();
         } catch (Exception e) {
             throw new IOException(e.getMessage());
+        } finally {
+            if (workbook instanceof SXSSFWorkbook sxssfWorkbook) {
+                // 删除 SXSSF 写行时产生的临时文件
+                sxssfWorkbook.dispose();
+            }
         }
     }
 
@@ -306,6 +311,44 @@ public class EasyPOIUtil {
         }
     }
 
+    /**
+     * 一次读取多个单元格，整个文件只解析一次
+     *
+     * @param inputStream 文件流
+     * @param sheetName   表格
+     * @param cells       要读取的单元格 {行:{列:字段名}}
+     * @return {字段名:单元格的值}
+     */
+    public static Map<String, Object> readExcelData(InputStream inputStream, String sheetName, Map<Integer, Map<Integer, String>> cells) throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        try (Workbook workbook = WorkbookFactory.create(inputStream)) {
+            Sheet sheet = workbook.getSheet(sheetName);
+            for (Map.Entry<Integer, Map<Integer, String>> rowEntry : cells.entrySet()) {
+                Row row = sheet.getRow(rowEntry.getKey());
+                for (Map.Entry<Integer, String> cellEntry : rowEntry.getValue().entrySet()) {
+                    result.put(cellEntry.getValue(), getCellValue(row == null ? null : row.getCell(cellEntry.getKey())));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取单元格的值，和 {@link #readExcelData(MultipartFile, String, int, int)} 的规则一样
+     *
+     * @param cell 单元格
+     * @return 值
+     */
+    private static Object getCellValue(Cell cell) {
+        if (cell == null) {
+            return "";
+        }
+        if (cell.getCellType() == CellType.NUMERIC) {
+            return cell.getNumericCellValue();
+        }
+        return cell.getStringCellValue();
+    }
+
     /**
      * excel 导入
      *
@@ -0,0 +1,288 @@
+package io.github.taybct.tool.core.redis;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * {@linkplain io.github.taybct.tool.core.annotation.CacheTimeOut @CacheTimeOut} 的本地缓存（一级缓存）
+ * <br>
+ * 每个 cacheName 一个有界的近似 LRU 缓存，每个值都有自己的过期时间；删除和更新的时候通过 redis 频道通知其他节点删除本地缓存
+ * <br>
+ * 读不加锁，只记录一下访问时间；超过容量的时候由一个线程批量淘汰（先删过期的，再删最久没有访问的，删到容量的 90%），
+ * 淘汰期间缓存的数量可能会短暂的超过容量
+ *
+ * @author XiJieYin <br> 2026/10/17 20:10
+ */
+@Slf4j
+public class CacheTimeOutNearCache {
+
+    /**
+     * 消息里面各部分的分隔符
+     */
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * 当前节点的标识，收到自己发出的消息时不用处理
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * cacheName -> 本地缓存
+     */
+    private final Map<String, Region> regions = new ConcurrentHashMap<>();
+
+    /**
+     * 每个 cacheName 最多缓存多少个 key
+     */
+    private final int maxSize;
+
+    /**
+     * 最长的过期时间（毫秒）
+     */
+    private final long maxTtlMillis;
+
+    /**
+     * 发送删除通知
+     */
+    private final Consumer<String> publisher;
+
+    public CacheTimeOutNearCache(int maxSize, long maxTtlMillis, Consumer<String> publisher) {
+        this.maxSize = maxSize;
+        this.maxTtlMillis = maxTtlMillis;
+        this.publisher = publisher;
+    }
+
+    /**
+     * 获取本地缓存
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存键
+     * @return 缓存值，没有或者已经过期的时候为 null
+     */
+    public Object get(String cacheName, String key) {
+        return region(cacheName).get(key);
+    }
+
+    /**
+     * 放入本地缓存
+     *
+     * @param cacheName     缓存名
+     * @param key           缓存键
+     * @param value         缓存值
+     * @param timeoutMillis 注解上配置的超时时间（毫秒），小于等于 0 的时候使用最长的过期时间
+     */
+    public void put(String cacheName, String key, Object value, long timeoutMillis) {
+        if (value == null) {
+            return;
+        }
+        long ttl = timeoutMillis > 0 ? Math.min(timeoutMillis, this.maxTtlMillis) : this.maxTtlMillis;
+        region(cacheName).put(key, value, System.currentTimeMillis() + ttl);
+    }
+
+    /**
+     * 删除本地缓存，并且通知其他节点也删除
+     *
+     * @param cacheName 缓存名
+     * @param keys      缓存键
+     */
+    public void invalidate(String cacheName, Collection<String> keys) {
+        evict(cacheName, keys);
+        try {
+            this.publisher.accept(nodeId + SEPARATOR + cacheName + SEPARATOR + String.join(SEPARATOR, keys));
+        } catch (Exception e) {
+            log.warn("发送本地缓存删除通知失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 处理其他节点发过来的删除通知
+     *
+     * @param message 通知内容
+     */
+    public void onInvalidation(String message) {
+        if (message == null) {
+            return;
+        }
+        String[] parts = message.split(SEPARATOR);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        evict(parts[1], Arrays.asList(parts).subList(2, parts.length));
+    }
+
+    /**
+     * 只删除本节点的本地缓存
+     *
+     * @param cacheName 缓存名
+     * @param keys      缓存键
+     */
+    public void evict(String cacheName, Collection<String> keys) {
+        Region region = this.regions.get(cacheName);
+        if (region != null) {
+            region.remove(keys);
+        }
+    }
+
+    /**
+     * 获取每个 cacheName 的命中统计
+     *
+     * @return cacheName -> 统计
+     */
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        this.regions.forEach((cacheName, region) -> stats.put(cacheName
+                , new Stats(region.hits.sum(), region.misses.sum(), region.size())));
+        return stats;
+    }
+
+    private Region region(String cacheName) {
+        return this.regions.computeIfAbsent(cacheName, name -> new Region(this.maxSize));
+    }
+
+    /**
+     * 命中统计
+     *
+     * @param hits   命中次数
+     * @param misses 未命中次数
+     * @param size   当前缓存的数量
+     */
+    public record Stats(long hits, long misses, int size) {
+
+        /**
+         * 命中率
+         *
+         * @return 0 ~ 1
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * 缓存值
+     */
+    private static final class Entry {
+
+        /**
+         * 值
+         */
+        final Object value;
+
+        /**
+         * 过期时间戳
+         */
+        final long expireAt;
+
+        /**
+         * 最后访问时间（{@link System#nanoTime()}），淘汰的时候用
+         */
+        volatile long accessTime;
+
+        Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+            this.accessTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * 淘汰的候选，访问时间要先取出来，排序的时候不能再变
+     *
+     * @param key        缓存键
+     * @param entry      缓存值
+     * @param accessTime 取出来的访问时间
+     */
+    private record Candidate(String key, Entry entry, long accessTime) {
+    }
+
+    /**
+     * 一个 cacheName 的本地缓存
+     */
+    private static class Region {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final Map<String, Entry> map = new ConcurrentHashMap<>();
+
+        /**
+         * 同一时间只有一个线程做淘汰，其他线程不等待
+         */
+        private final ReentrantLock evictionLock = new ReentrantLock();
+
+        private final int maxSize;
+
+        Region(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        Object get(String key) {
+            Entry entry = this.map.get(key);
+            if (entry != null && entry.expireAt <= System.currentTimeMillis()) {
+                // 只删除取到的这一个，期间被重新放进去的新值不能删掉
+                this.map.remove(key, entry);
+                entry = null;
+            }
+            if (entry == null) {
+                this.misses.increment();
+                return null;
+            }
+            entry.accessTime = System.nanoTime();
+            this.hits.increment();
+            return entry.value;
+        }
+
+        void put(String key, Object value, long expireAt) {
+            this.map.put(key, new Entry(value, expireAt));
+            if (this.map.size() > this.maxSize) {
+                evict();
+            }
+        }
+
+        void remove(Collection<String> keys) {
+            keys.forEach(this.map::remove);
+        }
+
+        /**
+         * 先删过期的，还是超过容量的话按访问时间删掉最久没有访问的，删到容量的 90%，
+         * 这样不用每次放入都淘汰一次
+         */
+        private void evict() {
+            if (!this.evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                if (this.map.size() <= this.maxSize) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                this.map.values().removeIf(entry -> entry.expireAt <= now);
+                int excess = this.map.size() - (this.maxSize - this.maxSize / 10);
+                if (excess <= 0) {
+                    return;
+                }
+                List<Candidate> candidates = new ArrayList<>(this.map.size());
+                this.map.forEach((key, entry) -> candidates.add(new Candidate(key, entry, entry.accessTime)));
+                candidates.sort(Comparator.comparingLong(Candidate::accessTime));
+                for (int i = 0; i < excess && i < candidates.size(); i++) {
+                    Candidate candidate = candidates.get(i);
+                    this.map.remove(candidate.key(), candidate.entry());
+                }
+            } finally {
+                this.evictionLock.unlock();
+            }
+        }
+
+        int size() {
+            return this.map.size();
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.taybct.tool.core.redis;
+
+import io.github.taybct.tool.core.constant.PropertiesPrefixConstants;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * {@linkplain io.github.taybct.tool.core.annotation.CacheTimeOut @CacheTimeOut} 缓存配置
+ *
+ * @author XiJieYin <br> 2026/10/17 20:10
+ */
+@Data
+@ConfigurationProperties(prefix = PropertiesPrefixConstants.CACHE_TIME_OUT)
+public class CacheTimeOutProperties implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = -6215794311370426312L;
+
+    /**
+     * 是否开启本地缓存（一级缓存），开启之后先查本地缓存，没有再查 redis，默认关闭
+     * <br>
+     * 注意：本地缓存返回的是同一个对象，调用方不要修改缓存返回的结果
+     */
+    private Boolean nearCache = false;
+    /**
+     * 每个 cacheName 本地最多缓存多少个 key
+     */
+    private Integer nearCacheMaxSize = 1000;
+    /**
+     * 本地缓存最长的过期时间，实际的过期时间取这个和注解上的 timeout 里面小的那个
+     */
+    private Duration nearCacheMaxTtl = Duration.ofSeconds(30);
+    /**
+     * 多个节点之间通知删除本地缓存的 redis 频道
+     */
+    private String invalidationChannel = "taybct:cache-time-out:invalidation";
+    /**
+     * 缓存没有命中的时候，同一个节点上同一组缓存键是否只让一个调用去执行方法，其他的调用等它的结果
+     */
+    private Boolean singleFlight = true;
+    /**
+     * 等待其他调用获取结果的最长时间，超过之后自己去执行方法，不会一直卡住
+     */
+    private Duration singleFlightTimeout = Duration.ofSeconds(10);
+    /**
+     * 提前刷新的系数，大于 0 的时候开启（一般用 1），缓存快过期的时候会按概率提前刷新，避免大量的缓存同时过期
+     * <br>
+     * 开启之后查询缓存的时候会在同一个 pipeline 里面顺便查询剩余的过期时间
+     */
+    private Double earlyRefreshBeta = 0D;
+
+}
@@ -10,38 +10,49 @@ import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.github.taybct.tool.core.constant.CacheConstants;
 import io.github.taybct.tool.core.constant.ISysParamsObtainService;
+import io.github.taybct.tool.core.constant.PropertiesPrefixConstants;
 import io.github.taybct.tool.core.constant.PropertyParams;
 import io.github.taybct.tool.core.interceptor.CacheTimeOutMethodInterceptor;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.util.Assert;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * redis配置
  *
  * @author xijieyin
  */
-@EnableConfigurationProperties(CacheProperties.class)
+@EnableConfigurationProperties({CacheProperties.class, CacheTimeOutProperties.class})
 @AutoConfiguration
 @EnableCaching
 @ConditionalOnClass(RedisTemplate.class)
@@ -125,8 +136,50 @@ public class RedisConfiguration extends CachingConfigurerSupport {
                 .cacheDefaults(redisCacheConfiguration).build();
     }
 
+    /**
+     * {@linkplain io.github.taybct.tool.core.annotation.CacheTimeOut @CacheTimeOut} 的本地缓存
+     *
+     * @param redisTemplate redisTemplate
+     * @param properties    配置
+     * @return CacheTimeOutNearCache
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = PropertiesPrefixConstants.CACHE_TIME_OUT, name = "near-cache", havingValue = "true")
+    public CacheTimeOutNearCache cacheTimeOutNearCache(RedisTemplate<String, Object> redisTemplate
+            , CacheTimeOutProperties properties) {
+        return new CacheTimeOutNearCache(properties.getNearCacheMaxSize()
+                , properties.getNearCacheMaxTtl().toMillis()
+                , message -> redisTemplate.convertAndSend(properties.getInvalidationChannel(), message));
+    }
+
+    /**
+     * 订阅其他节点发过来的本地缓存删除通知
+     *
+     * @param connectionFactory redis 连接
+     * @param redisTemplate     redisTemplate
+     * @param nearCache         本地缓存
+     * @param properties        配置
+     * @return RedisMessageListenerContainer
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = PropertiesPrefixConstants.CACHE_TIME_OUT, name = "near-cache", havingValue = "true")
+    public RedisMessageListenerContainer cacheTimeOutInvalidationListenerContainer(RedisConnectionFactory connectionFactory
+            , RedisTemplate<String, Object> redisTemplate
+            , CacheTimeOutNearCache nearCache
+            , CacheTimeOutProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            nearCache.onInvalidation(body == null ? null : body.toString());
+        }, new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+
     @Bean
-    public DefaultPointcutAdvisor cacheTimeOutPointcutAdvisor(RedisTemplate<String, Object> redisTemplate) {
+    public DefaultPointcutAdvisor cacheTimeOutPointcutAdvisor(RedisTemplate<String, Object> redisTemplate
+            , CacheTimeOutProperties properties
+            , ObjectProvider<CacheTimeOutNearCache> nearCacheProvider) {
         CacheTimeOutMethodInterceptor methodInterceptor = new CacheTimeOutMethodInterceptor(
                 key -> Boolean.TRUE.equals(redisTemplate.hasKey(key))
                 , key -> redisTemplate.opsForValue().get(key)
@@ -136,6 +189,16 @@ public class RedisConfiguration extends CachingConfigurerSupport {
                 redisTemplate.delete(key);
             }
         });
+        nearCacheProvider.ifAvailable(methodInterceptor::setNearCache);
+        boolean earlyRefresh = properties.getEarlyRefreshBeta() != null && properties.getEarlyRefreshBeta() > 0;
+        methodInterceptor.setSingleFlight(Boolean.TRUE.equals(properties.getSingleFlight()));
+        Optional.ofNullable(properties.getSingleFlightTimeout())
+                .ifPresent(timeout -> methodInterceptor.setSingleFlightTimeoutMillis(timeout.toMillis()));
+        methodInterceptor.setEarlyRefreshBeta(earlyRefresh ? properties.getEarlyRefreshBeta() : 0);
+        methodInterceptor.setMultiGetValue(earlyRefresh ? keys -> multiGetWithTtl(redisTemplate, keys)
+                : keys -> Optional.ofNullable(redisTemplate.opsForValue().multiGet(keys))
+                .map(values -> values.stream().map(value -> new CacheTimeOutMethodInterceptor.CachedValue(value, -1)).toList())
+                .orElse(null));
         // 匹配一个切点，这里使用注解
         AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
         pointcut.setExpression("@annotation(io.github.taybct.tool.core.annotation.CacheTimeOut)");
@@ -147,6 +210,35 @@ public class RedisConfiguration extends CachingConfigurerSupport {
         return advisor;
     }
 
+    /**
+     * 在一个 pipeline 里面查询缓存值和剩余的过期时间
+     *
+     * @param redisTemplate redisTemplate
+     * @param keys          缓存键
+     * @return 缓存值
+     */
+    @SuppressWarnings("unchecked")
+    private static List<CacheTimeOutMethodInterceptor.CachedValue> multiGetWithTtl(RedisTemplate<String, Object> redisTemplate
+            , List<String> keys) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String key : keys) {
+                    ops.opsForValue().get(key);
+                    ops.getExpire(key, TimeUnit.MILLISECONDS);
+                }
+                return null;
+            }
+        });
+        List<CacheTimeOutMethodInterceptor.CachedValue> values = new ArrayList<>(keys.size());
+        for (int i = 0; i + 1 < results.size(); i += 2) {
+            long ttl = results.get(i + 1) instanceof Long l ? l : -1;
+            values.add(new CacheTimeOutMethodInterceptor.CachedValue(results.get(i), ttl));
+        }
+        return values;
+    }
+
     @Bean
     public ISysParamsObtainService sysParamsObtainService(RedisTemplate<String, Object> redisTemplate
             , PropertyParams propertyParams) {
@@ -18,6 +18,8 @@ import org.springframework.core.MethodParameter;
 import org.springframework.core.io.InputStreamSource;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -31,8 +33,10 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -49,6 +53,27 @@ public class AOPUtil {
      */
     public final static String SPEL_FLAG = "#";
 
+    /**
+     * 用于SpEL表达式解析，表达式执行过几次之后会编译成字节码，编译失败的时候退回到解释执行
+     */
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, AOPUtil.class.getClassLoader()));
+
+    /**
+     * 用于获取方法参数定义名字
+     */
+    private static final DefaultParameterNameDiscoverer NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 解析好的表达式
+     */
+    private static final Map<ExpressionKey, Expression> EXPRESSION_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 方法的参数名
+     */
+    private static final Map<Method, String[]> PARAMETER_NAMES_CACHE = new ConcurrentHashMap<>();
+
     /**
      * 获取到 key 对应的字段的位置
      *
@@ -169,14 +194,41 @@ public class AOPUtil {
         if (!StrUtil.contains(spELString, SPEL_FLAG)) {
             return spELString;
         }
-        // 用于获取方法参数定义名字.
-        DefaultParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
-        String[] paramNames = nameDiscoverer.getParameterNames(methodInvocation.getMethod());
-        // 用于SpEL表达式解析.
-        SpelExpressionParser parser = new SpelExpressionParser();
-        // 解析后的SPEL
-        Expression expression = parser.parseExpression(spELString);
         // spring表达式上下文
+        EvaluationContext context = createEvaluationContext(methodInvocation);
+        Object resultValue = result.get();
+        if (resultValue != null) {
+            context.setVariable("result", resultValue);
+        }
+        return generateKeyBySpEL(spELString, methodInvocation.getMethod(), context);
+    }
+
+    /**
+     * 使用已经创建好的上下文解析SPEL表达式，同一次方法调用里面的多个表达式可以共用一个上下文
+     *
+     * @param spELString 表达式
+     * @param method     方法
+     * @param context    上下文，见 {@link #createEvaluationContext(MethodInvocation)}
+     * @return 解析后的结果
+     */
+    public static String generateKeyBySpEL(String spELString, Method method, EvaluationContext context) {
+        if (!StrUtil.contains(spELString, SPEL_FLAG)) {
+            return spELString;
+        }
+        // 解析后的SPEL，按方法和表达式缓存
+        Expression expression = EXPRESSION_CACHE.computeIfAbsent(new ExpressionKey(method, spELString)
+                , key -> PARSER.parseExpression(key.expression()));
+        return Optional.ofNullable(expression.getValue(context)).map(Object::toString).orElse("");
+    }
+
+    /**
+     * 创建 spring 表达式上下文，方法的参数会按参数名放到变量里面
+     *
+     * @param methodInvocation 切点
+     * @return 上下文
+     */
+    public static EvaluationContext createEvaluationContext(MethodInvocation methodInvocation) {
+        String[] paramNames = getParameterNames(methodInvocation.getMethod());
         EvaluationContext context = new StandardEvaluationContext();
         Object[] args = methodInvocation.getArguments();
         // 给上下文赋值变量
@@ -184,10 +236,27 @@ public class AOPUtil {
             assert paramNames != null;
             context.setVariable(paramNames[i], args[i]);
         }
-        if (result.get() != null) {
-            context.setVariable("result", result.get());
-        }
-        return Optional.ofNullable(expression.getValue(context)).map(Object::toString).orElse("");
+        return context;
+    }
+
+    /**
+     * 获取方法的参数名，每个方法只获取一次
+     *
+     * @param method 方法
+     * @return 参数名
+     */
+    public static String[] getParameterNames(Method method) {
+        return PARAMETER_NAMES_CACHE.computeIfAbsent(method
+                , m -> Optional.ofNullable(NAME_DISCOVERER.getParameterNames(m)).orElse(new String[0]));
+    }
+
+    /**
+     * 表达式缓存 key
+     *
+     * @param method     方法
+     * @param expression 表达式
+     */
+    private record ExpressionKey(Method method, String expression) {
     }
 
 }
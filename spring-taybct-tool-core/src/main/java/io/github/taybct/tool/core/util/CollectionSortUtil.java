@@ -9,9 +9,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.CollectionUtils;
 
 import java.lang.reflect.Field;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.*;
 import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 /**
  * 集合排序工具
@@ -24,6 +27,41 @@ public class CollectionSortUtil {
 
     private final static String REGEX = "[`~!@#$%^&*()+=|{}':;',//[//].<>/?~！@#￥%……&*（）——+|{}【】‘；：”“’。，、？]";
 
+    /**
+     * 排序时需要去掉的标点符号
+     */
+    private final static Pattern PUNCTUATION = Pattern.compile(REGEX);
+
+    /**
+     * 超过这个数量的集合使用并行排序
+     */
+    private final static int PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * 汉语拼音缓存最多保存多少个
+     */
+    private final static int PINYIN_CACHE_SIZE = 10_000;
+
+    /**
+     * 汉语拼音输出格式，只读，可以共用
+     */
+    private final static HanyuPinyinOutputFormat PINYIN_FORMAT = new HanyuPinyinOutputFormat();
+
+    /**
+     * 汉语拼音缓存，经常排序的名字（字典、机构名等）不用每次都转换
+     */
+    private final static Map<String, String> PINYIN_CACHE = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > PINYIN_CACHE_SIZE;
+        }
+    });
+
+    /**
+     * Collator 不是线程安全的，每个线程一个
+     */
+    private final static ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(() -> Collator.getInstance(Locale.CHINA));
+
     public static <T> LinkedHashSet<T> sortListByName(LinkedHashSet<T> source) {
         return sortListByName(source, "name", true);
     }
@@ -69,19 +107,58 @@ public class CollectionSortUtil {
         }
         field.setAccessible(true);
         try {
-            source.sort(comparingAny(t -> {
+            sortByAny(source, t -> {
                 try {
                     return field.get(t);
                 } catch (IllegalAccessException e) {
                     throw new RuntimeException(e);
                 }
-            }, asc));
+            }, asc);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
         return source;
     }
 
+    /**
+     * 用任何类型排序（包括汉语拼音），规则和 {@link #comparingAny(Function, boolean)} 一样
+     * <br>
+     * 每个元素只计算一次排序键，然后按排序键排序，数量多的时候并行计算和排序，最后把顺序写回原集合
+     *
+     * @param source   源集合
+     * @param getValue 获取值
+     * @param asc      true 正序 false 倒序
+     * @param <T>      类型
+     * @return 排好序的源集合
+     */
+    public static <T> List<T> sortByAny(List<T> source, Function<T, ?> getValue, boolean asc) {
+        if (CollectionUtils.isEmpty(source) || source.size() == 1) {
+            return source;
+        }
+        int size = source.size();
+        Object[] elements = source.toArray();
+        SortKey[] keys = new SortKey[size];
+        boolean parallel = size >= PARALLEL_THRESHOLD;
+        IntStream indexes = IntStream.range(0, size);
+        (parallel ? indexes.parallel() : indexes).forEach(i -> keys[i] = sortKey(getValue.apply((T) elements[i])));
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Comparator<Integer> comparator = (i1, i2) -> SortKey.compare(keys[i1], keys[i2]) * (asc ? 1 : -1);
+        if (parallel) {
+            Arrays.parallelSort(order, comparator);
+        } else {
+            Arrays.sort(order, comparator);
+        }
+        ListIterator<T> iterator = source.listIterator();
+        for (Integer index : order) {
+            iterator.next();
+            iterator.set((T) elements[index]);
+        }
+        return source;
+    }
+
     /**
      * 用任何类型比较
      *
@@ -104,76 +181,113 @@ public class CollectionSortUtil {
      * @return 比较结果
      */
     public static <T> Comparator<T> comparingAny(Function<T, ?> getValue, boolean asc) {
-        return (o1, o2) -> {
-            // 如果有排序字段是空的，那空的字段就要往后面排，也就是说，如果是 o2 = null 那 o2 就得排在后面
-            Collator cmp = Collator.getInstance(Locale.CHINA);
-            Optional<Object> optional1;
-            Optional<Object> optional2;
-            optional1 = Optional.ofNullable(getValue.apply(o1));
-            optional2 = Optional.ofNullable(getValue.apply(o2));
-            if (optional1.isEmpty() || optional2.isEmpty()) {
-                if (optional2.isEmpty() && optional1.isPresent()) {
-                    return (asc ? 1 : -1);
-                } else if (optional2.isPresent()) {
-                    return -1 * (asc ? 1 : -1);
-                }
-                return 0;
+        // 如果有排序字段是空的，空的排在最前面（倒序的时候在最后面）
+        return (o1, o2) -> SortKey.compare(sortKey(getValue.apply(o1)), sortKey(getValue.apply(o2))) * (asc ? 1 : -1);
+    }
+
+    /**
+     * 计算排序键：去掉标点符号，按数字和非数字拆分，数字按数值比较，非数字转成汉语拼音（解决多音字问题 如 重(chong)庆）之后按中文规则比较
+     *
+     * @param value 值
+     * @return 排序键，值为 null 的时候返回 null
+     */
+    public static SortKey sortKey(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String name = PUNCTUATION.matcher(value.toString()).replaceAll("");
+        List<Object> tokens = new ArrayList<>();
+        Collator collator = COLLATOR.get();
+        int i = 0;
+        int length = name.length();
+        while (i < length) {
+            int start = i;
+            boolean digit = Character.isDigit(name.charAt(i));
+            while (i < length && Character.isDigit(name.charAt(i)) == digit) {
+                i++;
             }
-            String name1 = optional1.get().toString().replaceAll(REGEX, "");
-            String name2 = optional2.get().toString().replaceAll(REGEX, "");
-
-
-            for (int i = 0; i < name1.length() && i < name2.length(); i++) {
-                if (name1.charAt(i) != name2.charAt(i) || (Character.isDigit(name1.charAt(i)) && Character.isDigit(name2.charAt(i)))) {
-                    //如果两个字符不再相等而且都是数字，就直接比较数字
-                    if (Character.isDigit(name1.charAt(i)) && Character.isDigit(name2.charAt(i))) {
-                        //如果是数字，就把后面的所有的不是数字的字符替换成 _ ，然后按照 _ 分成数组，只比较数组的第一个，如果第一个相等，就再比较数组的第二个，一直比较下去，直到没得比
-                        name1 = name1.substring(i);
-                        name2 = name2.substring(i);
-                        //装数据的数组
-                        String[] numArr1 = removeEmptyChar(name1.replaceAll("\\D", "_").split("_"));
-                        String[] numArr2 = removeEmptyChar(name2.replaceAll("\\D", "_").split("_"));
-
-                        String[] charArr1 = removeEmptyChar(name1.replaceAll("\\d", "_").split("_"));
-                        String[] charArr2 = removeEmptyChar(name1.replaceAll("\\d", "_").split("_"));
-                        for (int j = 0; j < numArr1.length && j < numArr2.length; j++) {
-                            if (!numArr1[j].equalsIgnoreCase(numArr2[j])) {
-                                //如果先比较数字是不相等的，就可以直接比较哪个大，哪个小了
-                                return (Integer.parseInt(numArr1[j]) - Integer.parseInt(numArr2[j])) * (asc ? 1 : -1);
-                            } else {
-                                //如果先比较的数字是相等的，就要再比较数字后面的字符是否相等，如果相等，就进行下一个循环来再比较数字
-                                //如果字符不相等，就直接跳出了，进入到下面的逻辑 按中文比较
-                                if (j < charArr1.length && j < charArr2.length) {
-                                    if (!charArr1[j].equalsIgnoreCase(charArr2[j])) {
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                        return 0;
-                    } else {
-                        //如果有一个不是数字，那就没有可比性
-                        break;
-                    }
-                }
+            String part = name.substring(start, i);
+            tokens.add(digit ? normalizeNumber(part) : collator.getCollationKey(toPinyin(part)));
+        }
+        return new SortKey(tokens.toArray());
+    }
+
+    /**
+     * 数字统一转成去掉前面的 0 的 ASCII 数字，先比较长度再比较字符就是比较数值，不会溢出
+     */
+    private static String normalizeNumber(String digits) {
+        StringBuilder sb = new StringBuilder(digits.length());
+        for (int i = 0; i < digits.length(); i++) {
+            int d = Character.digit(digits.charAt(i), 10);
+            if (sb.isEmpty() && d == 0) {
+                continue;
             }
-            //汉语拼音解决多音字问题 如 重(chong)庆
-            HanyuPinyinOutputFormat pinyinOutputFormat = new HanyuPinyinOutputFormat();
+            sb.append((char) ('0' + d));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 转换成汉语拼音，转换过的从缓存里面拿
+     */
+    private static String toPinyin(String text) {
+        String pinyin = PINYIN_CACHE.get(text);
+        if (pinyin == null) {
             try {
-                name1 = PinyinHelper.toHanYuPinyinString(name1, pinyinOutputFormat, " ", true);
-                name2 = PinyinHelper.toHanYuPinyinString(name2, pinyinOutputFormat, " ", true);
+                pinyin = PinyinHelper.toHanYuPinyinString(text, PINYIN_FORMAT, " ", true);
             } catch (BadHanyuPinyinOutputFormatCombination badHanyuPinyinOutputFormatCombination) {
                 throw new RuntimeException(badHanyuPinyinOutputFormatCombination);
             }
-            int compared = cmp.compare(name1, name2);
-            if (compared > 0) {
-                return (asc ? 1 : -1);
-            } else if (compared < 0) {
-                return -1 * (asc ? 1 : -1);
+            PINYIN_CACHE.put(text, pinyin);
+        }
+        return pinyin;
+    }
+
+    /**
+     * 排序键，由数字（{@code String}）和汉语拼音的 {@link CollationKey} 组成
+     */
+    public static final class SortKey implements Comparable<SortKey> {
+
+        private final Object[] tokens;
+
+        private SortKey(Object[] tokens) {
+            this.tokens = tokens;
+        }
+
+        /**
+         * 比较，null 最小
+         *
+         * @param k1 排序键
+         * @param k2 排序键
+         * @return 比较结果
+         */
+        public static int compare(SortKey k1, SortKey k2) {
+            if (k1 == null || k2 == null) {
+                return k1 == k2 ? 0 : (k1 == null ? -1 : 1);
             }
-            return 0;
+            return k1.compareTo(k2);
+        }
 
-        };
+        @Override
+        public int compareTo(SortKey o) {
+            for (int i = 0; i < this.tokens.length && i < o.tokens.length; i++) {
+                Object t1 = this.tokens[i];
+                Object t2 = o.tokens[i];
+                int compared;
+                if (t1 instanceof String n1 && t2 instanceof String n2) {
+                    compared = n1.length() != n2.length() ? Integer.compare(n1.length(), n2.length()) : n1.compareTo(n2);
+                } else if (t1 instanceof CollationKey c1 && t2 instanceof CollationKey c2) {
+                    compared = c1.compareTo(c2);
+                } else {
+                    // 数字排在前面
+                    compared = t1 instanceof String ? -1 : 1;
+                }
+                if (compared != 0) {
+                    return compared > 0 ? 1 : -1;
+                }
+            }
+            return Integer.compare(this.tokens.length, o.tokens.length);
+        }
     }
 
     /**
@@ -10,22 +10,18 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.annotation.DbType;
-import com.baomidou.mybatisplus.annotation.TableId;
-import com.baomidou.mybatisplus.annotation.TableLogic;
 import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.metadata.OrderItem;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
-import com.baomidou.mybatisplus.core.toolkit.reflect.GenericTypeUtils;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.github.taybct.tool.core.annotation.TableFieldDefault;
-import io.github.taybct.tool.core.annotation.TableFieldJSON;
-import io.github.taybct.tool.core.annotation.TableLogicUnique;
 import io.github.taybct.tool.core.config.DefaultTableFieldDefaultHandler;
 import io.github.taybct.tool.core.config.TableFieldDefaultHandler;
 import io.github.taybct.tool.core.constant.PageRequestConstants;
+import io.github.taybct.tool.core.mybatis.support.EntityMetadata;
+import io.github.taybct.tool.core.mybatis.support.MappedStatementMetadata;
 import io.github.taybct.tool.core.mybatis.util.MybatisOptional;
 import io.github.taybct.tool.core.request.SqlQueryParams;
 import jakarta.validation.constraints.NotNull;
@@ -38,13 +34,10 @@ import org.postgresql.util.PGobject;
 import org.springframework.beans.BeanUtils;
 import org.springframework.util.Assert;
 
-import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.*;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * 原 get 请求需要分页的工具类 GetPageUtil
@@ -284,23 +277,11 @@ public class MyBatisUtil {
      */
     public static <T> void setInsertDefaultValue(Collection<T> domains) {
         domains.forEach(entity -> {
-            Class<?> clazz = entity.getClass();
-            for (; clazz != Object.class; clazz = clazz.getSuperclass()) {
-                Field[] fields = clazz.getDeclaredFields();
-                for (Field field : fields) {
-                    if (!Modifier.isStatic(field.getModifiers())) {
-                        field.setAccessible(true);
-                        try {
-                            Object fieldValue = field.get(entity);
-                            if (field.isAnnotationPresent(TableFieldDefault.class) && ObjectUtil.isEmpty(fieldValue)) {
-                                Object defaultValue = getDefaultValue(entity, field);
-                                if (ObjectUtil.isNotEmpty(defaultValue)) {
-                                    field.set(entity, defaultValue);
-                                }
-                            }
-                        } catch (IllegalAccessException e) {
-                            throw new RuntimeException(e);
-                        }
+            for (EntityMetadata.FieldMetadata fieldMetadata : EntityMetadata.of(entity.getClass()).getFields()) {
+                if (fieldMetadata.isTableFieldDefaultPresent() && ObjectUtil.isEmpty(fieldMetadata.getAccessor().get(entity))) {
+                    Object defaultValue = getDefaultValue(entity, fieldMetadata.getField());
+                    if (ObjectUtil.isNotEmpty(defaultValue)) {
+                        fieldMetadata.getAccessor().set(entity, defaultValue);
                     }
                 }
             }
@@ -314,24 +295,7 @@ public class MyBatisUtil {
      * @return Method
      */
     public static Method getMethod(MappedStatement mappedStatement) {
-        String id = mappedStatement.getId();
-        // 获取 Class Method
-        String clazzName = id.substring(0, id.lastIndexOf('.'));
-        String mapperMethod = id.substring(id.lastIndexOf('.') + 1);
-
-        Class<?> clazz;
-        try {
-            clazz = Class.forName(clazzName);
-        } catch (ClassNotFoundException e) {
-            return null;
-        }
-        Method[] methods = clazz.getMethods();
-        for (Method method : methods) {
-            if (method.getName().equals(mapperMethod)) {
-                return method;
-            }
-        }
-        return null;
+        return MappedStatementMetadata.of(mappedStatement).getMethod();
     }
 
     /**
@@ -358,13 +322,7 @@ public class MyBatisUtil {
                     }
                 }
             } else {
-                List<Field> fields = new ArrayList<>();
-                BeanUtil.getAllFields(fields, params.getClass());
-                for (Field field : fields) {
-                    if (field.isAnnotationPresent(TableFieldDefault.class)) {
-                        return true;
-                    }
-                }
+                return EntityMetadata.of(params.getClass()).isTableFieldDefaultPresent();
             }
         }
         return false;
@@ -415,9 +373,8 @@ public class MyBatisUtil {
             paramMap = new MapperMethod.ParamMap<>();
         }
         if (params != null) {
-            Method method = getMethod(ms);
-            Parameter[] parameters = method.getParameters();
-            String paramName = parameters[0].getName();
+            MappedStatementMetadata metadata = MappedStatementMetadata.of(ms);
+            String paramName = metadata.getFirstParameterName();
             if (params instanceof MapperMethod.ParamMap) {
                 for (Object o : ((Map) params).values()) {
                     if (o != null && !BeanUtils.isSimpleValueType(o.getClass())) {
@@ -431,7 +388,7 @@ public class MyBatisUtil {
                 Class<?> cls = params.getClass();
                 if (BeanUtils.isSimpleValueType(cls)) {
                     if (!isCollection) {
-                        paramName = checkMybatisPlusBaseMapper(ms, method, paramName);
+                        paramName = checkMybatisPlusBaseMapper(metadata, paramName);
                         paramMap.put(paramName, params);
                     }
                 } else if (params instanceof IPage) {
@@ -451,90 +408,34 @@ public class MyBatisUtil {
                     SqlCommandType sqlCommandType = ms.getSqlCommandType();
                     // 是否是更新操作
                     boolean isUpdate = sqlCommandType.equals(SqlCommandType.UPDATE);
-                    List<Field> fields = new ArrayList<>();
-                    BeanUtil.getAllFields(fields, cls);
-                    Method[] methods = cls.getMethods();
-                    // 主键类型
-                    Class<?> pkClass = null;
-                    // 主键
-                    String pkKey = null;
+                    // 实体类的字段、注解、读写方法都是解析一次之后缓存起来的
+                    EntityMetadata entityMetadata = EntityMetadata.of(cls);
                     // 主键值
                     Object pkVal = null;
                     // 唯一逻辑删除键
-                    String tableLogicUniqueKey = null;
-                    // 检查是否有这个逻辑唯一键
-                    boolean hasTableLogicUniqueKey = false;
+                    String tableLogicUniqueKey = entityMetadata.getTableLogicUniqueKey();
                     // 是否需要设置逻辑唯一键
                     boolean willSetTableLogicUniqueKey = false;
-                    if (cls.isAnnotationPresent(TableLogicUnique.class)) {
-                        TableLogicUnique annotation = cls.getAnnotation(TableLogicUnique.class);
-                        tableLogicUniqueKey = annotation.value();
-                    }
-                    for (Field field : fields) {
-                        if (Modifier.isStatic(field.getModifiers())) {
-                            // 如果是静态字段，就不管
-                            continue;
-                        }
-                        Object fieldValue = null;
-                        String fieldName = field.getName();
-                        if (StringUtil.isNotBlank(tableLogicUniqueKey) && tableLogicUniqueKey.equals(fieldName)) {
-                            hasTableLogicUniqueKey = true;
-                        }
-                        try {
-                            Method readMethod = (new PropertyDescriptor(fieldName, cls)).getReadMethod();
-                            fieldValue = readMethod.invoke(params);
-                        } catch (Exception e) {
-                            log.trace(e.getMessage(), e);
-                        }
-                        field.setAccessible(true);
-                        try {
-                            if (fieldValue == null) {
-                                fieldValue = field.get(params);
-                            }
-                        } catch (Exception e) {
-                            log.trace(e.getMessage(), e);
-                        }
-                        if (fieldValue == null) {
-                            String firstUpper = StringUtil.upperFirst(fieldName);
-                            List<Method> methodList = Arrays.stream(methods).filter(m -> m.getName().equals("is" + firstUpper)
-                                            || m.getName().equals("get" + firstUpper))
-                                    .collect(Collectors.toList());
-                            Method readMethod;
-                            if (CollectionUtil.isNotEmpty(methodList) && (readMethod = methodList.get(0)) != null) {
-                                try {
-                                    fieldValue = readMethod.invoke(params);
-                                } catch (IllegalAccessException | InvocationTargetException e) {
-                                    log.trace(e.getMessage(), e);
-                                }
-                            }
-                        }
-                        if (setDefault && field.isAnnotationPresent(TableFieldDefault.class) && ObjectUtil.isEmpty(fieldValue)) {
-                            fieldValue = getDefaultValue(params, field, ms);
+                    for (EntityMetadata.FieldMetadata fieldMetadata : entityMetadata.getFields()) {
+                        String fieldName = fieldMetadata.getName();
+                        Object fieldValue = fieldMetadata.read(params);
+                        if (setDefault && fieldMetadata.isTableFieldDefaultPresent() && ObjectUtil.isEmpty(fieldValue)) {
+                            fieldValue = getDefaultValue(params, fieldMetadata.getField(), ms);
                             // 这里拿到默认值后，把值设置进去
                             if (ObjectUtil.isNotEmpty(fieldValue)) {
-                                try {
-                                    (new PropertyDescriptor(fieldName, cls)).getWriteMethod().invoke(params, fieldValue);
-                                } catch (IllegalAccessException | InvocationTargetException |
-                                         IntrospectionException e) {
-                                    log.trace(e.getMessage(), e);
-                                }
+                                fieldMetadata.write(params, fieldValue);
                             }
                         }
-                        if (field.isAnnotationPresent(TableFieldJSON.class) && ObjectUtil.isNotNull(fieldValue)) {
+                        if (fieldMetadata.isJson() && ObjectUtil.isNotNull(fieldValue)) {
                             // 如果是表 json 类型字段处理
                             fieldValue = getJSONFieldValue(ms, fieldValue);
                             // 这里拿到默认值后，把值设置进去
                             if (ObjectUtil.isNotEmpty(fieldValue)) {
-                                try {
-                                    (new PropertyDescriptor(fieldName, cls)).getWriteMethod().invoke(params, fieldValue);
-                                } catch (IllegalAccessException | InvocationTargetException |
-                                         IntrospectionException e) {
-                                    log.trace(e.getMessage(), e);
-                                }
+                                fieldMetadata.write(params, fieldValue);
                             }
                         }
                         // 如果是更新操作，而且不是空值的逻辑键
-                        if (field.isAnnotationPresent(TableLogic.class) && isUpdate && ObjectUtil.isNotEmpty(fieldValue)) {
+                        if (fieldMetadata.isTableLogic() && isUpdate && ObjectUtil.isNotEmpty(fieldValue)) {
                             if (SpringUtil.getContext() != null) {
                                 String logicDeleteValue = SpringUtil.getContext()
                                         .getEnvironment().getProperty("mybatis-plus.global-config.db-config.logic-delete-value");
@@ -542,9 +443,7 @@ public class MyBatisUtil {
                                 willSetTableLogicUniqueKey = Convert.toStr(fieldValue).equals(logicDeleteValue);
                             }
                         }
-                        if (field.isAnnotationPresent(TableId.class) && isUpdate && ObjectUtil.isNotEmpty(fieldValue)) {
-                            pkClass = field.getType();
-                            pkKey = fieldName;
+                        if (fieldMetadata.isTableId() && isUpdate && ObjectUtil.isNotEmpty(fieldValue)) {
                             pkVal = fieldValue;
                         }
                         // 如果是集合对象的话，就不需要设置这些值
@@ -552,7 +451,7 @@ public class MyBatisUtil {
                             paramMap.putIfAbsent(fieldName, fieldValue);
                         }
                     }
-                    if (hasTableLogicUniqueKey && willSetTableLogicUniqueKey && ObjectUtil.isNotNull(pkVal)) {
+                    if (entityMetadata.isTableLogicUniqueKeyPresent() && willSetTableLogicUniqueKey && ObjectUtil.isNotNull(pkVal)) {
                         paramMap.putIfAbsent(tableLogicUniqueKey, pkVal);
                     }
                 }
@@ -564,34 +463,13 @@ public class MyBatisUtil {
     /**
      * 检查是否是 MyBatisPlus 的 BaseMapper 里面的方法，如果是的话，返回正确的字段名
      *
-     * @param ms        方法
-     * @param method    方法
+     * @param metadata  方法的元数据
      * @param paramName 原字段名
      * @return 字段名
      */
-    private static String checkMybatisPlusBaseMapper(MappedStatement ms, Method method, String paramName) {
+    private static String checkMybatisPlusBaseMapper(MappedStatementMetadata metadata, String paramName) {
         // 判断获取到的方法是不是 Mybatis plus 的 BaseMapper 里面的方法，如果是的话，那所有的使用 id 的操作都是简单类型的，但是如果 id 和实际不一样的话，得要看实体类里面具体是什么值
-        if (method.getDeclaringClass().equals(BaseMapper.class)) {
-            String clazzName = ms.getId().substring(0, ms.getId().lastIndexOf('.'));
-            try {
-                Class<?>[] classes = GenericTypeUtils.resolveTypeArguments(Class.forName(clazzName), BaseMapper.class);
-                if (null != classes) {
-                    // 这里去找到继承 BaseMapper 的形参的类型来获取类型里面所有的字段，有 @TableId 的字段就可以知道是 @TableId 了
-                    List<Field> fields = new ArrayList<>();
-                    BeanUtil.getAllFields(fields, classes[0]);
-                    for (Field field : fields) {
-                        // 这边拿到第一个就算
-                        if (field.isAnnotationPresent(TableId.class)) {
-                            return field.getName();
-                        }
-                    }
-                }
-            } catch (ClassNotFoundException e) {
-                log.trace(e.getMessage(), e);
-                // 如果报错，就直接用字段名
-            }
-        }
-        return paramName;
+        return Optional.ofNullable(metadata.getBaseMapperKeyName()).orElse(paramName);
     }
 
     /**
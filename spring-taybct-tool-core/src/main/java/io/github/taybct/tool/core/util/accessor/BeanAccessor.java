@@ -0,0 +1,135 @@
+package io.github.taybct.tool.core.util.accessor;
+
+import io.github.taybct.tool.core.util.BeanUtil;
+import io.github.taybct.tool.core.util.StringUtil;
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对象读写器，每个类型只解析一次，之后读写字段都不需要再做 {@link java.beans.PropertyDescriptor} 之类的内省
+ * <pre>
+ * {@code
+ * BeanAccessor accessor = BeanAccessor.of(User.class);
+ * for (PropertyAccessor property : accessor.getProperties()) {
+ *     Object value = property.get(user);
+ * }
+ * accessor.set(user, "name", "taybct");
+ * }
+ * </pre>
+ *
+ * @author XiJieYin <br> 2026/10/17 14:05
+ */
+@Getter
+public class BeanAccessor {
+
+    /**
+     * 已经解析过的类型
+     */
+    private static final Map<Class<?>, BeanAccessor> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 所有非静态字段的读写器（包括父类的字段，顺序和 {@link BeanUtil#getAllFields(Class)} 一致）
+     */
+    private final List<PropertyAccessor> properties;
+
+    /**
+     * 字段名 -> 读写器，同名字段以子类的为准
+     */
+    private final Map<String, PropertyAccessor> propertyMap;
+
+    private BeanAccessor(Class<?> type) {
+        this.type = type;
+        Map<String, Method> methodMap = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) && !method.isBridge()) {
+                methodMap.putIfAbsent(method.getName() + "#" + method.getParameterCount(), method);
+            }
+        }
+        List<PropertyAccessor> list = new ArrayList<>();
+        Map<String, PropertyAccessor> map = new HashMap<>();
+        for (Field field : BeanUtil.getAllFields(type)) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                // 如果是静态字段，就不管
+                continue;
+            }
+            String firstUpper = StringUtil.upperFirst(field.getName());
+            Method readMethod = Optional.ofNullable(methodMap.get("get" + firstUpper + "#0"))
+                    .orElseGet(() -> methodMap.get("is" + firstUpper + "#0"));
+            if (readMethod != null && readMethod.getReturnType() == void.class) {
+                readMethod = null;
+            }
+            Method writeMethod = methodMap.get("set" + firstUpper + "#1");
+            if (writeMethod != null && !writeMethod.getParameterTypes()[0].isAssignableFrom(field.getType())) {
+                writeMethod = null;
+            }
+            PropertyAccessor accessor = new PropertyAccessor(field, readMethod, writeMethod);
+            list.add(accessor);
+            map.putIfAbsent(accessor.getName(), accessor);
+        }
+        this.properties = Collections.unmodifiableList(list);
+        this.propertyMap = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 获取类型的读写器，第一次获取的时候生成，之后从缓存里面拿
+     *
+     * @param type 类型
+     * @return 读写器
+     */
+    public static BeanAccessor of(Class<?> type) {
+        return CACHE.computeIfAbsent(type, BeanAccessor::new);
+    }
+
+    /**
+     * 清空缓存，一般在热加载类之后调用
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * 获取字段的读写器
+     *
+     * @param name 字段名
+     * @return 读写器，找不到的时候为 null
+     */
+    public PropertyAccessor getProperty(String name) {
+        return this.propertyMap.get(name);
+    }
+
+    /**
+     * 读取字段值
+     *
+     * @param bean 对象
+     * @param name 字段名
+     * @return 字段值，字段不存在或者不可读的时候为 null
+     */
+    public Object get(Object bean, String name) {
+        PropertyAccessor accessor = this.propertyMap.get(name);
+        return accessor == null ? null : accessor.get(bean);
+    }
+
+    /**
+     * 设置字段值
+     *
+     * @param bean  对象
+     * @param name  字段名
+     * @param value 值
+     * @return 是否设置成功
+     */
+    public boolean set(Object bean, String name, Object value) {
+        PropertyAccessor accessor = this.propertyMap.get(name);
+        return accessor != null && accessor.set(bean, value);
+    }
+
+}
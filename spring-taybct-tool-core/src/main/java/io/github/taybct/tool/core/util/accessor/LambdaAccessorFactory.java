@@ -0,0 +1,141 @@
+package io.github.taybct.tool.core.util.accessor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 使用 {@link LambdaMetafactory} 把 getter/setter 生成为 lambda，调用的时候和直接调用方法差不多，不需要每次都反射
+ * <br>
+ * 如果生成失败（比如类加载器或者模块不允许访问），就退回到普通的反射调用
+ *
+ * @author XiJieYin <br> 2026/10/17 14:05
+ */
+@Slf4j
+final class LambdaAccessorFactory {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private LambdaAccessorFactory() {
+    }
+
+    /**
+     * 生成 getter
+     *
+     * @param method getter 方法
+     * @return {@code bean -> bean.getXxx()}
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Method method) {
+        Class<?> owner = method.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, LOOKUP);
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup
+                    , "apply"
+                    , MethodType.methodType(Function.class)
+                    , MethodType.methodType(Object.class, Object.class)
+                    , handle
+                    , MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()), owner));
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            log.trace("生成 getter 失败，使用反射：" + method, e);
+            return bean -> invoke(method, bean);
+        }
+    }
+
+    /**
+     * 生成 setter
+     *
+     * @param method setter 方法
+     * @return {@code (bean, value) -> bean.setXxx(value)}
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(Method method) {
+        Class<?> owner = method.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, LOOKUP);
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup
+                    , "accept"
+                    , MethodType.methodType(BiConsumer.class)
+                    , MethodType.methodType(void.class, Object.class, Object.class)
+                    , handle
+                    , MethodType.methodType(void.class, owner, ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable e) {
+            log.trace("生成 setter 失败，使用反射：" + method, e);
+            return (bean, value) -> invoke(method, bean, value);
+        }
+    }
+
+    /**
+     * 直接读字段，字段没有 getter 的时候使用
+     *
+     * @param field 字段
+     * @return 读取字段的方法，字段不能访问的时候为 null
+     */
+    static Function<Object, Object> fieldGetter(Field field) {
+        if (!trySetAccessible(field)) {
+            return null;
+        }
+        return bean -> {
+            try {
+                return field.get(bean);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * 直接写字段，字段没有 setter 的时候使用
+     *
+     * @param field 字段
+     * @return 写字段的方法，字段不能访问或者是 final 的时候为 null
+     */
+    static BiConsumer<Object, Object> fieldSetter(Field field) {
+        if (Modifier.isFinal(field.getModifiers()) || !trySetAccessible(field)) {
+            return null;
+        }
+        return (bean, value) -> {
+            try {
+                field.set(bean, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static boolean trySetAccessible(Field field) {
+        try {
+            return field.trySetAccessible();
+        } catch (SecurityException e) {
+            log.trace(e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private static Object invoke(Method method, Object bean, Object... args) {
+        try {
+            return method.invoke(bean, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable target = e.getTargetException();
+            throw target instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(target);
+        }
+    }
+
+}
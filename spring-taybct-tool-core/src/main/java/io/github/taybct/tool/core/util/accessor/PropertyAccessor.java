@@ -0,0 +1,118 @@
+package io.github.taybct.tool.core.util.accessor;
+
+import lombok.Getter;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 单个字段的读写器，getter/setter 在创建的时候就已经生成好了
+ * <br>
+ * 读：优先 getter（get/is 前缀），没有 getter 就直接读字段；写：优先 setter，没有 setter 就直接写字段
+ *
+ * @author XiJieYin <br> 2026/10/17 14:05
+ */
+@Getter
+public class PropertyAccessor {
+
+    /**
+     * 字段
+     */
+    private final Field field;
+
+    /**
+     * 字段名
+     */
+    private final String name;
+
+    /**
+     * 字段类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 读取方法，字段不可读的时候为 null
+     */
+    private final Function<Object, Object> getter;
+
+    /**
+     * 写入方法，字段不可写的时候为 null
+     */
+    private final BiConsumer<Object, Object> setter;
+
+    PropertyAccessor(Field field, Method readMethod, Method writeMethod) {
+        this.field = field;
+        this.name = field.getName();
+        this.type = field.getType();
+        this.getter = readMethod != null ? LambdaAccessorFactory.getter(readMethod) : LambdaAccessorFactory.fieldGetter(field);
+        this.setter = writeMethod != null ? LambdaAccessorFactory.setter(writeMethod) : LambdaAccessorFactory.fieldSetter(field);
+    }
+
+    /**
+     * 是否可读
+     *
+     * @return boolean
+     */
+    public boolean isReadable() {
+        return this.getter != null;
+    }
+
+    /**
+     * 是否可写
+     *
+     * @return boolean
+     */
+    public boolean isWritable() {
+        return this.setter != null;
+    }
+
+    /**
+     * 读取字段值
+     *
+     * @param bean 对象
+     * @return 字段值，不可读的时候返回 null
+     */
+    public Object get(Object bean) {
+        return this.getter == null ? null : this.getter.apply(bean);
+    }
+
+    /**
+     * 设置字段值
+     *
+     * @param bean  对象
+     * @param value 值
+     * @return 是否设置成功（字段不可写的时候返回 false）
+     */
+    public boolean set(Object bean, Object value) {
+        if (this.setter == null) {
+            return false;
+        }
+        this.setter.accept(bean, value);
+        return true;
+    }
+
+    /**
+     * 字段上是否有某个注解
+     *
+     * @param annotationClass 注解类型
+     * @return boolean
+     */
+    public boolean isAnnotationPresent(Class<? extends Annotation> annotationClass) {
+        return this.field.isAnnotationPresent(annotationClass);
+    }
+
+    /**
+     * 获取字段上的注解
+     *
+     * @param annotationClass 注解类型
+     * @param <A>             注解类型
+     * @return 注解
+     */
+    public <A extends Annotation> A getAnnotation(Class<A> annotationClass) {
+        return this.field.getAnnotation(annotationClass);
+    }
+
+}
@@ -21,12 +21,12 @@ import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
 import org.springframework.core.io.ClassPathResource;
 
-import javax.crypto.Cipher;
 import java.io.ByteArrayInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.charset.Charset;
 import java.security.*;
 import java.security.cert.*;
 import java.security.cert.Certificate;
@@ -142,65 +142,25 @@ public class RSACoder {
      * 用私钥对信息生成数字签名
      */
     public static String sign(byte[] data, String privateKey) throws Exception {
-        // 解密由base64编码的私钥
-        byte[] keyBytes = decryptBASE64(privateKey);
-        // 构造PKCS8EncodedKeySpec对象
-        PKCS8EncodedKeySpec pkcs8KeySpec = new PKCS8EncodedKeySpec(keyBytes);
-        // KEY_ALGORITHM 指定的加密算法
-        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
-        // 取私钥匙对象
-        PrivateKey priKey = keyFactory.generatePrivate(pkcs8KeySpec);
-        // 用私钥对信息生成数字签名
-        Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
-        signature.initSign(priKey);
-        signature.update(data);
-        return encryptBASE64(signature.sign());
+        return encryptBASE64(RSAEngine.sign(RSAEngine.privateKey(privateKey), data));
     }
 
     /**
      * 获取私钥
      */
     public static PrivateKey strToPrivateKey(String privateKey) throws Exception {
-        // 解密由base64编码的私钥
-        byte[] keyBytes = decryptBASE64(privateKey);
-        // 构造PKCS8EncodedKeySpec对象
-        PKCS8EncodedKeySpec pkcs8KeySpec = new PKCS8EncodedKeySpec(keyBytes);
-        // KEY_ALGORITHM 指定的加密算法
-        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
-        // 取私钥匙对象
-        return keyFactory.generatePrivate(pkcs8KeySpec);
+        return RSAEngine.privateKey(privateKey);
     }
 
     /**
      * 校验数字签名
      */
     public static boolean verify(byte[] data, String publicKey, String sign) throws Exception {
-        // 解密由base64编码的公钥
-        byte[] keyBytes = decryptBASE64(publicKey);
-        // 构造X509EncodedKeySpec对象
-        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(keyBytes);
-        // KEY_ALGORITHM 指定的加密算法
-        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
-        // 取公钥匙对象
-        PublicKey pubKey = keyFactory.generatePublic(keySpec);
-        Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
-        signature.initVerify(pubKey);
-        signature.update(data);
-        // 验证签名是否正常
-        return signature.verify(decryptBASE64(sign));
+        return RSAEngine.verify(RSAEngine.publicKey(publicKey), data, decryptBASE64(sign));
     }
 
     public static byte[] decryptByPrivateKey(byte[] data, String key) throws Exception {
-        // 对密钥解密
-        byte[] keyBytes = decryptBASE64(key);
-        // 取得私钥
-        PKCS8EncodedKeySpec pkcs8KeySpec = new PKCS8EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
-        Key privateKey = keyFactory.generatePrivate(pkcs8KeySpec);
-        // 对数据解密
-        Cipher cipher = Cipher.getInstance(keyFactory.getAlgorithm());
-        cipher.init(Cipher.DECRYPT_MODE, privateKey);
-        return cipher.doFinal(data);
+        return RSAEngine.decrypt(RSAEngine.privateKey(key), data);
     }
 
     /**
@@ -216,16 +176,7 @@ public class RSACoder {
      * 用公钥解密
      */
     public static byte[] decryptByPublicKey(byte[] data, String key) throws Exception {
-        // 对密钥解密
-        byte[] keyBytes = decryptBASE64(key);
-        // 取得公钥
-        X509EncodedKeySpec x509KeySpec = new X509EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
-        Key publicKey = keyFactory.generatePublic(x509KeySpec);
-        // 对数据解密
-        Cipher cipher = Cipher.getInstance(keyFactory.getAlgorithm());
-        cipher.init(Cipher.DECRYPT_MODE, publicKey);
-        return cipher.doFinal(data);
+        return RSAEngine.decrypt(RSAEngine.publicKey(key), data);
     }
 
     /**
@@ -239,16 +190,7 @@ public class RSACoder {
      * @since 1.0.5
      */
     public static byte[] encryptByPublicKey(String data, String key) throws Exception {
-        // 对公钥解密
-        byte[] keyBytes = decryptBASE64(key);
-        // 取得公钥
-        X509EncodedKeySpec x509KeySpec = new X509EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
-        Key publicKey = keyFactory.generatePublic(x509KeySpec);
-        // 对数据加密
-        Cipher cipher = Cipher.getInstance(keyFactory.getAlgorithm());
-        cipher.init(Cipher.ENCRYPT_MODE, publicKey);
-        return cipher.doFinal(data.getBytes());
+        return RSAEngine.encrypt(RSAEngine.publicKey(key), data.getBytes());
     }
 
     /**
@@ -262,16 +204,7 @@ public class RSACoder {
      * @since 1.0.5
      */
     public static byte[] encryptByPrivateKey(byte[] data, String key) throws Exception {
-        // 对密钥解密
-        byte[] keyBytes = decryptBASE64(key);
-        // 取得私钥
-        PKCS8EncodedKeySpec pkcs8KeySpec = new PKCS8EncodedKeySpec(keyBytes);
-        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
-        Key privateKey = keyFactory.generatePrivate(pkcs8KeySpec);
-        // 对数据加密
-        Cipher cipher = Cipher.getInstance(keyFactory.getAlgorithm());
-        cipher.init(Cipher.ENCRYPT_MODE, privateKey);
-        return cipher.doFinal(data);
+        return RSAEngine.encrypt(RSAEngine.privateKey(key), data);
     }
 
     /**
@@ -453,17 +386,27 @@ public class RSACoder {
      */
     @NotNull
     public static String encryptBase64StringByPublicKey(String publicKey, String sourceStr) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < sourceStr.length(); i += encryptSplitSize) {
-            byte[] encryptStrByte;
-            try {
-                encryptStrByte = RSACoder.encryptByPublicKey(sourceStr.substring(i, Math.min(i + encryptSplitSize, sourceStr.length())), publicKey);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-            sb.append(new String(Base64.encodeBase64(encryptStrByte)));
+        try {
+            return encryptBase64StringByPublicKey(RSAEngine.publicKey(publicKey), sourceStr);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 用公钥加密
+     *
+     * @param publicKey 公钥
+     * @param sourceStr 明文
+     * @return String 密文
+     */
+    @NotNull
+    public static String encryptBase64StringByPublicKey(PublicKey publicKey, String sourceStr) {
+        try {
+            return RSAEngine.encryptBase64(publicKey, sourceStr, encryptSplitSize, Charset.defaultCharset());
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
         }
-        return sb.toString();
     }
 
     /**
@@ -475,7 +418,7 @@ public class RSACoder {
      * @since 1.0.5
      */
     public static String encryptBase64StringByPublicKey(String sourceStr) {
-        return encryptBase64StringByPublicKey(getPublicKey(), sourceStr);
+        return encryptBase64StringByPublicKey(keyPair().getPublic(), sourceStr);
     }
 
     /**
@@ -488,7 +431,7 @@ public class RSACoder {
      * @since 3.1.0
      */
     public static String encryptBase64StringByTypePublicKey(String sourceStr, String keypairType) {
-        return encryptBase64StringByPublicKey(getPublicKey(keyPair(keypairType)), sourceStr);
+        return encryptBase64StringByPublicKey(keyPair(keypairType).getPublic(), sourceStr);
     }
 
     /**
@@ -502,12 +445,23 @@ public class RSACoder {
      */
     public static String decryptBase64StringByPrivateKey(String encryptStr, String privateKey) {
         try {
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < encryptStr.length(); i += decryptSplitSize) {
-                sb.append(new String(RSACoder.decryptByPrivateKey(Base64.decodeBase64(encryptStr.substring(i, Math.min(i + decryptSplitSize, encryptStr.length()))), privateKey)));
-            }
-            return sb.toString();
-        } catch (Exception e) {
+            return decryptBase64StringByPrivateKey(encryptStr, RSAEngine.privateKey(privateKey));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 用私钥解密
+     *
+     * @param encryptStr 密文
+     * @param privateKey 私钥
+     * @return String 明文
+     */
+    public static String decryptBase64StringByPrivateKey(String encryptStr, PrivateKey privateKey) {
+        try {
+            return RSAEngine.decryptBase64(privateKey, encryptStr, decryptSplitSize, Charset.defaultCharset());
+        } catch (GeneralSecurityException e) {
             throw new RuntimeException(e);
         }
     }
@@ -521,7 +475,7 @@ public class RSACoder {
      * @since 1.0.5
      */
     public static String decryptBase64StringByPrivateKey(String encryptStr) {
-        return decryptBase64StringByPrivateKey(encryptStr, getPrivateKey());
+        return decryptBase64StringByPrivateKey(encryptStr, keyPair().getPrivate());
     }
 
     /**
@@ -534,7 +488,7 @@ public class RSACoder {
      * @since 3.1.0
      */
     public static String decryptBase64StringByTypePrivateKey(String encryptStr, String keypairType) {
-        return decryptBase64StringByPrivateKey(encryptStr, getPrivateKey(keyPair(keypairType)));
+        return decryptBase64StringByPrivateKey(encryptStr, keyPair(keypairType).getPrivate());
     }
 
     /**
@@ -819,10 +773,8 @@ public class RSACoder {
      * @return 公钥
      */
     public static PublicKey getPublicKey(String publicKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
-        // 解密由base64编码的公钥
-        byte[] keyBytes = decryptBASE64(publicKey);
-        // 取私钥匙对象
-        return getPublicKey(keyBytes);
+        // 解析过的公钥从缓存里面拿
+        return RSAEngine.publicKey(publicKey);
     }
 
     /**
@@ -884,10 +836,8 @@ public class RSACoder {
      * 获取私钥
      */
     public static PrivateKey getPrivateKey(String privateKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
-        // 解密由base64编码的私钥
-        byte[] keyBytes = decryptBASE64(privateKey);
-        // 取私钥匙对象
-        return getPrivateKey(keyBytes);
+        // 解析过的私钥从缓存里面拿
+        return RSAEngine.privateKey(privateKey);
     }
 
     /**
@@ -0,0 +1,210 @@
+package io.github.taybct.tool.core.util.rsa;
+
+import org.apache.hc.client5.http.utils.Base64;
+
+import javax.crypto.Cipher;
+import java.nio.charset.Charset;
+import java.security.*;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RSA 加解密引擎
+ * <br>
+ * base64 的密钥解析过一次之后就缓存起来，{@link Cipher}、{@link Signature} 每个线程创建一个重复使用，
+ * 不用每次加解密都去解析密钥和 {@code getInstance}
+ *
+ * @author XiJieYin <br> 2026/10/17 21:05
+ */
+public class RSAEngine {
+
+    /**
+     * 最多缓存多少个密钥（公钥有可能是前端传过来的，不能无限缓存）
+     */
+    private static final int KEY_CACHE_SIZE = 256;
+
+    /**
+     * base64 公钥 -> 公钥
+     */
+    private static final Map<String, PublicKey> PUBLIC_KEY_CACHE = lruCache();
+
+    /**
+     * base64 私钥 -> 私钥
+     */
+    private static final Map<String, PrivateKey> PRIVATE_KEY_CACHE = lruCache();
+
+    /**
+     * 每个线程一个 Cipher
+     */
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(RSACoder.KEY_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /**
+     * 每个线程一个 Signature
+     */
+    private static final ThreadLocal<Signature> SIGNATURE = ThreadLocal.withInitial(() -> {
+        try {
+            return Signature.getInstance(RSACoder.SIGNATURE_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private RSAEngine() {
+    }
+
+    private static <V> Map<String, V> lruCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > KEY_CACHE_SIZE;
+            }
+        });
+    }
+
+    /**
+     * 解析 base64 公钥，解析过的从缓存里面拿
+     *
+     * @param publicKey base64 公钥
+     * @return 公钥
+     */
+    public static PublicKey publicKey(String publicKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        PublicKey key = PUBLIC_KEY_CACHE.get(publicKey);
+        if (key == null) {
+            key = KeyFactory.getInstance(RSACoder.KEY_ALGORITHM)
+                    .generatePublic(new X509EncodedKeySpec(Base64.decodeBase64(publicKey)));
+            PUBLIC_KEY_CACHE.put(publicKey, key);
+        }
+        return key;
+    }
+
+    /**
+     * 解析 base64 私钥，解析过的从缓存里面拿
+     *
+     * @param privateKey base64 私钥
+     * @return 私钥
+     */
+    public static PrivateKey privateKey(String privateKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        PrivateKey key = PRIVATE_KEY_CACHE.get(privateKey);
+        if (key == null) {
+            key = KeyFactory.getInstance(RSACoder.KEY_ALGORITHM)
+                    .generatePrivate(new PKCS8EncodedKeySpec(Base64.decodeBase64(privateKey)));
+            PRIVATE_KEY_CACHE.put(privateKey, key);
+        }
+        return key;
+    }
+
+    /**
+     * 加密
+     *
+     * @param key  公钥或者私钥
+     * @param data 明文
+     * @return 密文
+     */
+    public static byte[] encrypt(Key key, byte[] data) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key);
+        return cipher.doFinal(data);
+    }
+
+    /**
+     * 解密
+     *
+     * @param key  公钥或者私钥
+     * @param data 密文
+     * @return 明文
+     */
+    public static byte[] decrypt(Key key, byte[] data) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        return cipher.doFinal(data);
+    }
+
+    /**
+     * 分段加密，每段加密之后转成 base64 拼接起来，整个过程只初始化一次 Cipher
+     *
+     * @param key       公钥
+     * @param source    明文
+     * @param splitSize 每段的长度
+     * @param charset   字符集
+     * @return 密文
+     */
+    public static String encryptBase64(Key key, String source, int splitSize, Charset charset) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < source.length(); i += splitSize) {
+            // doFinal 之后 Cipher 会回到初始化之后的状态，可以直接加密下一段
+            byte[] encrypted = cipher.doFinal(source.substring(i, Math.min(i + splitSize, source.length())).getBytes(charset));
+            sb.append(new String(Base64.encodeBase64(encrypted)));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 分段解密，整个过程只初始化一次 Cipher
+     *
+     * @param key       私钥
+     * @param encrypted 密文
+     * @param splitSize 每段 base64 密文的长度
+     * @param charset   字符集
+     * @return 明文
+     */
+    public static String decryptBase64(Key key, String encrypted, int splitSize, Charset charset) throws GeneralSecurityException {
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < encrypted.length(); i += splitSize) {
+            byte[] decrypted = cipher.doFinal(Base64.decodeBase64(encrypted.substring(i, Math.min(i + splitSize, encrypted.length()))));
+            sb.append(new String(decrypted, charset));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 签名
+     *
+     * @param key  私钥
+     * @param data 数据
+     * @return 签名
+     */
+    public static byte[] sign(PrivateKey key, byte[] data) throws GeneralSecurityException {
+        Signature signature = SIGNATURE.get();
+        signature.initSign(key);
+        signature.update(data);
+        return signature.sign();
+    }
+
+    /**
+     * 验签
+     *
+     * @param key  公钥
+     * @param data 数据
+     * @param sign 签名
+     * @return 是否通过
+     */
+    public static boolean verify(PublicKey key, byte[] data, byte[] sign) throws GeneralSecurityException {
+        Signature signature = SIGNATURE.get();
+        signature.initVerify(key);
+        signature.update(data);
+        return signature.verify(sign);
+    }
+
+    /**
+     * 清空密钥缓存
+     */
+    public static void clear() {
+        PUBLIC_KEY_CACHE.clear();
+        PRIVATE_KEY_CACHE.clear();
+    }
+
+}
@@ -7,22 +7,16 @@ import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.util.FileUtil;
 import org.bouncycastle.asn1.DERSequence;
-import org.bouncycastle.asn1.gm.GMNamedCurves;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x500.X500NameBuilder;
 import org.bouncycastle.asn1.x500.style.BCStyle;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.KeyPurposeId;
-import org.bouncycastle.asn1.x9.X9ECParameters;
 import org.bouncycastle.cert.X509v3CertificateBuilder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
 import org.bouncycastle.crypto.InvalidCipherTextException;
-import org.bouncycastle.crypto.engines.SM2Engine;
 import org.bouncycastle.crypto.params.ECDomainParameters;
-import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
-import org.bouncycastle.crypto.params.ECPublicKeyParameters;
-import org.bouncycastle.crypto.params.ParametersWithRandom;
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPrivateKey;
 import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPublicKey;
 import org.bouncycastle.jce.X509KeyUsage;
@@ -203,10 +197,7 @@ public class SM2Coder {
      */
     public static String sign(byte[] data, PrivateKey privateKey) throws SignatureException, NoSuchAlgorithmException, NoSuchProviderException, InvalidKeyException {
         // 用私钥对信息生成数字签名
-        Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM, PROVIDER);
-        signature.initSign(privateKey);
-        signature.update(data);
-        return encryptBASE64(signature.sign());
+        return encryptBASE64(SM2CryptoEngine.sign(privateKey, data));
     }
 
     /**
@@ -252,12 +243,8 @@ public class SM2Coder {
      * @return 校验结果
      */
     public static boolean verify(byte[] data, PublicKey publicKey, String sign) throws SignatureException, InvalidKeyException, NoSuchAlgorithmException, NoSuchProviderException {
-        // 取公钥匙对象
-        Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM, PROVIDER);
-        signature.initVerify(publicKey);
-        signature.update(data);
         // 验证签名是否正常
-        return signature.verify(decryptBASE64(sign));
+        return SM2CryptoEngine.verify(publicKey, data, decryptBASE64(sign));
     }
 
 
@@ -280,18 +267,11 @@ public class SM2Coder {
      * @return 解密结果
      */
     public static byte[] decryptByPrivateKey(byte[] data, PrivateKey privateKey) throws InvalidCipherTextException {
-        //获取解密参数
-        BCECPrivateKey bcecPrivateKey = (BCECPrivateKey) privateKey;
-        ECParameterSpec ecParameterSpec = bcecPrivateKey.getParameters();
-        ECDomainParameters ecDomainParameters = new ECDomainParameters(
-                ecParameterSpec.getCurve(), ecParameterSpec.getG(),
-                ecParameterSpec.getN());
-        ECPrivateKeyParameters localECPrivateKeyParameters = new ECPrivateKeyParameters(
-                bcecPrivateKey.getD(), ecDomainParameters);
-        //初始化解密引擎
-        SM2Engine sm2Engine = new SM2Engine();
-        sm2Engine.init(false, localECPrivateKeyParameters);
-        return sm2Engine.processBlock(data, 0, data.length);
+        try {
+            return SM2CryptoEngine.decrypt(privateKey, data);
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
     /**
@@ -335,19 +315,11 @@ public class SM2Coder {
      * @return byte[]  密文数据
      */
     public static byte[] encryptByPublicKey(byte[] data, PublicKey publicKey) throws InvalidCipherTextException {
-        //获取加密参数
-        BCECPublicKey bcecPublicKey = (BCECPublicKey) publicKey;
-        ECParameterSpec ecParameterSpec = bcecPublicKey.getParameters();
-        ECDomainParameters ecDomainParameters = new ECDomainParameters(
-                ecParameterSpec.getCurve(), ecParameterSpec.getG(),
-                ecParameterSpec.getN());
-        ECPublicKeyParameters ecPublicKeyParameters = new ECPublicKeyParameters(bcecPublicKey.getQ(),
-                ecDomainParameters);
-        //初始化加密引擎
-        SM2Engine sm2Engine = new SM2Engine();
-        sm2Engine.init(true, new ParametersWithRandom(ecPublicKeyParameters));
-        //加密
-        return sm2Engine.processBlock(data, 0, data.length);
+        try {
+            return SM2CryptoEngine.encrypt(publicKey, data);
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
     /**
@@ -537,7 +509,7 @@ public class SM2Coder {
      * @since 1.0.5
      */
     public static String encryptBase64StringByPublicKey(String sourceStr) throws InvalidCipherTextException, InvalidKeySpecException, NoSuchAlgorithmException {
-        return encryptBase64StringByPublicKey(getPublicKey(keyPair()), sourceStr);
+        return encryptBASE64(encryptByPublicKey(sourceStr.getBytes(StandardCharsets.UTF_8), keyPair().getPublic()));
     }
 
     /**
@@ -550,7 +522,7 @@ public class SM2Coder {
      * @since 3.1.0
      */
     public static String encryptBase64StringByTypePublicKey(String sourceStr, String keypairType) throws InvalidCipherTextException, InvalidKeySpecException, NoSuchAlgorithmException {
-        return encryptBase64StringByPublicKey(getPublicKey(keyPair(keypairType)), sourceStr);
+        return encryptBASE64(encryptByPublicKey(sourceStr.getBytes(StandardCharsets.UTF_8), keyPair(keypairType).getPublic()));
     }
 
     /**
@@ -575,7 +547,7 @@ public class SM2Coder {
      * @since 1.0.5
      */
     public static String decryptBase64StringByPrivateKey(String encryptStr) throws InvalidCipherTextException, NoSuchAlgorithmException, InvalidKeySpecException {
-        return decryptBase64StringByPrivateKey(encryptStr, getPrivateKey(keyPair()));
+        return new String(decryptByPrivateKey(decryptBASE64(encryptStr), keyPair().getPrivate()), StandardCharsets.UTF_8);
     }
 
     /**
@@ -588,7 +560,7 @@ public class SM2Coder {
      * @since 3.1.0
      */
     public static String decryptBase64StringByTypePrivateKey(String encryptStr, String keypairType) throws InvalidCipherTextException, NoSuchAlgorithmException, InvalidKeySpecException {
-        return decryptBase64StringByPrivateKey(encryptStr, getPrivateKey(keyPair(keypairType)));
+        return new String(decryptByPrivateKey(decryptBASE64(encryptStr), keyPair(keypairType).getPrivate()), StandardCharsets.UTF_8);
     }
 
     /**
@@ -873,10 +845,8 @@ public class SM2Coder {
      * @return 公钥
      */
     public static PublicKey getPublicKey(String publicKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
-        // 解密由base64编码的公钥
-        byte[] keyBytes = decryptBASE64(publicKey);
-        // 取私钥匙对象
-        return getPublicKey(keyBytes);
+        // 解析过的公钥从缓存里面拿
+        return SM2CryptoEngine.publicKey(publicKey);
     }
 
     /**
@@ -938,10 +908,8 @@ public class SM2Coder {
      * 获取私钥
      */
     public static PrivateKey getPrivateKey(String privateKey) throws NoSuchAlgorithmException, InvalidKeySpecException {
-        // 解密由base64编码的私钥
-        byte[] keyBytes = decryptBASE64(privateKey);
-        // 取私钥匙对象
-        return getPrivateKey(keyBytes);
+        // 解析过的私钥从缓存里面拿
+        return SM2CryptoEngine.privateKey(privateKey);
     }
 
     /**
@@ -1018,9 +986,9 @@ public class SM2Coder {
         String stringY = pubKeyHex.substring(stringX.length());
         BigInteger x = new BigInteger(stringX, 16);
         BigInteger y = new BigInteger(stringY, 16);
-        X9ECParameters x9ECParameters = GMNamedCurves.getByName(SM2_CURVE_NAME);
-        ECParameterSpec ecDomainParameters = new ECParameterSpec(x9ECParameters.getCurve(), x9ECParameters.getG(), x9ECParameters.getN());
-        ECPublicKeySpec ecPublicKeySpec = new ECPublicKeySpec(x9ECParameters.getCurve().createPoint(x, y), ecDomainParameters);
+        ECDomainParameters domain = SM2CryptoEngine.DOMAIN;
+        ECParameterSpec ecDomainParameters = new ECParameterSpec(domain.getCurve(), domain.getG(), domain.getN());
+        ECPublicKeySpec ecPublicKeySpec = new ECPublicKeySpec(domain.getCurve().createPoint(x, y), ecDomainParameters);
         return new BCECPublicKey(ALGORITHM, ecPublicKeySpec, BouncyCastleProvider.CONFIGURATION);
     }
 
@@ -1032,8 +1000,8 @@ public class SM2Coder {
      */
     public static BCECPrivateKey getECPrivateKeyByPrivateKeyHex(String privateKeyHex) {
         BigInteger d = new BigInteger(privateKeyHex, 16);
-        X9ECParameters x9ECParameters = GMNamedCurves.getByName(SM2_CURVE_NAME);
-        ECParameterSpec ecDomainParameters = new ECParameterSpec(x9ECParameters.getCurve(), x9ECParameters.getG(), x9ECParameters.getN());
+        ECDomainParameters domain = SM2CryptoEngine.DOMAIN;
+        ECParameterSpec ecDomainParameters = new ECParameterSpec(domain.getCurve(), domain.getG(), domain.getN());
         ECPrivateKeySpec ecPrivateKeySpec = new ECPrivateKeySpec(d, ecDomainParameters);
         return new BCECPrivateKey(ALGORITHM, ecPrivateKeySpec, BouncyCastleProvider.CONFIGURATION);
     }
@@ -0,0 +1,271 @@
+package io.github.taybct.tool.core.util.sm;
+
+import org.bouncycastle.asn1.gm.GMNamedCurves;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.CryptoException;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.SM2Engine;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.crypto.signers.SM2Signer;
+import org.bouncycastle.jcajce.provider.asymmetric.util.ECUtil;
+import org.bouncycastle.math.ec.FixedPointUtil;
+
+import java.security.*;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SM2 加解密、签名引擎
+ * <br>
+ * sm2p256v1 的曲线参数只创建一次，并且提前算好基点 G 的定点乘法表（签名、加密都要做 k*G），
+ * 解析过的密钥和转换出来的 {@link ECPublicKeyParameters}、{@link ECPrivateKeyParameters} 都缓存起来，
+ * 公钥的点对象一直复用，验签时算出来的 WNAF 预计算表也就跟着点一起留下来了，同一个公钥第二次验签开始不用再算
+ * <br>
+ * {@link SM2Engine}、{@link SM2Signer} 不是线程安全的，每个线程一个
+ *
+ * @author XiJieYin <br> 2026/10/17 22:10
+ */
+public class SM2CryptoEngine {
+
+    /**
+     * 最多缓存多少个密钥
+     */
+    private static final int KEY_CACHE_SIZE = 256;
+
+    /**
+     * sm2p256v1 曲线参数
+     */
+    public static final ECDomainParameters DOMAIN;
+
+    static {
+        X9ECParameters x9ECParameters = GMNamedCurves.getByName(SM2Coder.SM2_CURVE_NAME);
+        DOMAIN = new ECDomainParameters(x9ECParameters.getCurve(), x9ECParameters.getG(), x9ECParameters.getN(), x9ECParameters.getH());
+        // 基点的定点乘法表，FixedPointCombMultiplier 会直接用
+        FixedPointUtil.precompute(DOMAIN.getG());
+    }
+
+    /**
+     * base64 公钥 -> 公钥
+     */
+    private static final Map<String, PublicKey> PUBLIC_KEY_CACHE = lruCache();
+
+    /**
+     * base64 私钥 -> 私钥
+     */
+    private static final Map<String, PrivateKey> PRIVATE_KEY_CACHE = lruCache();
+
+    /**
+     * 公钥 -> 公钥参数
+     */
+    private static final Map<PublicKey, ECPublicKeyParameters> PUBLIC_PARAMETERS_CACHE = lruCache();
+
+    /**
+     * 私钥 -> 私钥参数
+     */
+    private static final Map<PrivateKey, ECPrivateKeyParameters> PRIVATE_PARAMETERS_CACHE = lruCache();
+
+    private static final ThreadLocal<SM2Engine> ENGINE = ThreadLocal.withInitial(SM2Engine::new);
+
+    private static final ThreadLocal<SM2Signer> SIGNER = ThreadLocal.withInitial(SM2Signer::new);
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private SM2CryptoEngine() {
+    }
+
+    private static <K, V> Map<K, V> lruCache() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > KEY_CACHE_SIZE;
+            }
+        });
+    }
+
+    /**
+     * 解析 base64 公钥，解析过的从缓存里面拿
+     *
+     * @param publicKey base64 公钥
+     * @return 公钥
+     */
+    public static PublicKey publicKey(String publicKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        PublicKey key = PUBLIC_KEY_CACHE.get(publicKey);
+        if (key == null) {
+            key = KeyFactory.getInstance(SM2Coder.ALGORITHM).generatePublic(new X509EncodedKeySpec(SM2Coder.decryptBASE64(publicKey)));
+            PUBLIC_KEY_CACHE.put(publicKey, key);
+        }
+        return key;
+    }
+
+    /**
+     * 解析 base64 私钥，解析过的从缓存里面拿
+     *
+     * @param privateKey base64 私钥
+     * @return 私钥
+     */
+    public static PrivateKey privateKey(String privateKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        PrivateKey key = PRIVATE_KEY_CACHE.get(privateKey);
+        if (key == null) {
+            key = KeyFactory.getInstance(SM2Coder.ALGORITHM).generatePrivate(new PKCS8EncodedKeySpec(SM2Coder.decryptBASE64(privateKey)));
+            PRIVATE_KEY_CACHE.put(privateKey, key);
+        }
+        return key;
+    }
+
+    /**
+     * 获取公钥参数，曲线是 sm2p256v1 的话使用共享的 {@link #DOMAIN}
+     *
+     * @param publicKey 公钥
+     * @return 公钥参数
+     */
+    public static ECPublicKeyParameters publicKeyParameters(PublicKey publicKey) throws InvalidKeyException {
+        ECPublicKeyParameters parameters = PUBLIC_PARAMETERS_CACHE.get(publicKey);
+        if (parameters == null) {
+            ECPublicKeyParameters converted = (ECPublicKeyParameters) ECUtil.generatePublicKeyParameter(publicKey);
+            ECDomainParameters domain = domain(converted.getParameters());
+            parameters = domain == converted.getParameters() ? converted : new ECPublicKeyParameters(converted.getQ(), domain);
+            PUBLIC_PARAMETERS_CACHE.put(publicKey, parameters);
+        }
+        return parameters;
+    }
+
+    /**
+     * 获取私钥参数，曲线是 sm2p256v1 的话使用共享的 {@link #DOMAIN}
+     *
+     * @param privateKey 私钥
+     * @return 私钥参数
+     */
+    public static ECPrivateKeyParameters privateKeyParameters(PrivateKey privateKey) throws InvalidKeyException {
+        ECPrivateKeyParameters parameters = PRIVATE_PARAMETERS_CACHE.get(privateKey);
+        if (parameters == null) {
+            ECPrivateKeyParameters converted = (ECPrivateKeyParameters) ECUtil.generatePrivateKeyParameter(privateKey);
+            ECDomainParameters domain = domain(converted.getParameters());
+            parameters = domain == converted.getParameters() ? converted : new ECPrivateKeyParameters(converted.getD(), domain);
+            PRIVATE_PARAMETERS_CACHE.put(privateKey, parameters);
+        }
+        return parameters;
+    }
+
+    private static ECDomainParameters domain(ECDomainParameters parameters) {
+        if (DOMAIN.getCurve().equals(parameters.getCurve())
+                && DOMAIN.getG().equals(parameters.getG())
+                && DOMAIN.getN().equals(parameters.getN())) {
+            return DOMAIN;
+        }
+        return parameters;
+    }
+
+    /**
+     * 公钥加密（C1C2C3）
+     *
+     * @param publicKey 公钥
+     * @param data      明文
+     * @return 密文
+     */
+    public static byte[] encrypt(PublicKey publicKey, byte[] data) throws InvalidKeyException, InvalidCipherTextException {
+        SM2Engine engine = ENGINE.get();
+        engine.init(true, new ParametersWithRandom(publicKeyParameters(publicKey), RANDOM.get()));
+        return engine.processBlock(data, 0, data.length);
+    }
+
+    /**
+     * 私钥解密（C1C2C3）
+     *
+     * @param privateKey 私钥
+     * @param data       密文
+     * @return 明文
+     */
+    public static byte[] decrypt(PrivateKey privateKey, byte[] data) throws InvalidKeyException, InvalidCipherTextException {
+        SM2Engine engine = ENGINE.get();
+        engine.init(false, privateKeyParameters(privateKey));
+        return engine.processBlock(data, 0, data.length);
+    }
+
+    /**
+     * 签名，和 {@code Signature.getInstance("SM3withSM2")} 的结果格式一致（默认用户 id，DER 编码）
+     *
+     * @param privateKey 私钥
+     * @param data       数据
+     * @return 签名
+     */
+    public static byte[] sign(PrivateKey privateKey, byte[] data) throws InvalidKeyException, SignatureException {
+        return sign(privateKey, new byte[][]{data})[0];
+    }
+
+    /**
+     * 批量签名，签名器只初始化一次
+     *
+     * @param privateKey 私钥
+     * @param data       数据
+     * @return 签名，顺序和 data 一致
+     */
+    public static byte[][] sign(PrivateKey privateKey, byte[][] data) throws InvalidKeyException, SignatureException {
+        SM2Signer signer = SIGNER.get();
+        signer.init(true, new ParametersWithRandom(privateKeyParameters(privateKey), RANDOM.get()));
+        byte[][] result = new byte[data.length][];
+        try {
+            for (int i = 0; i < data.length; i++) {
+                signer.update(data[i], 0, data[i].length);
+                result[i] = signer.generateSignature();
+            }
+        } catch (CryptoException e) {
+            signer.reset();
+            throw new SignatureException(e);
+        }
+        return result;
+    }
+
+    /**
+     * 验签
+     *
+     * @param publicKey 公钥
+     * @param data      数据
+     * @param sign      签名
+     * @return 是否通过
+     */
+    public static boolean verify(PublicKey publicKey, byte[] data, byte[] sign) throws InvalidKeyException {
+        return verify(publicKey, new byte[][]{data}, new byte[][]{sign})[0];
+    }
+
+    /**
+     * 批量验签，同一个公钥只初始化一次验签器
+     *
+     * @param publicKey 公钥
+     * @param data      数据
+     * @param signs     签名，和 data 一一对应
+     * @return 每一个是否通过
+     */
+    public static boolean[] verify(PublicKey publicKey, byte[][] data, byte[][] signs) throws InvalidKeyException {
+        if (data.length != signs.length) {
+            throw new IllegalArgumentException("data and signs must have the same length");
+        }
+        SM2Signer signer = SIGNER.get();
+        signer.init(false, publicKeyParameters(publicKey));
+        boolean[] result = new boolean[data.length];
+        for (int i = 0; i < data.length; i++) {
+            // 签名格式不对的时候 SM2Signer 不会自己 reset，这里每次都先 reset 一下
+            signer.reset();
+            signer.update(data[i], 0, data[i].length);
+            result[i] = signer.verifySignature(signs[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 清空密钥缓存
+     */
+    public static void clear() {
+        PUBLIC_KEY_CACHE.clear();
+        PRIVATE_KEY_CACHE.clear();
+        PUBLIC_PARAMETERS_CACHE.clear();
+        PRIVATE_PARAMETERS_CACHE.clear();
+    }
+
+}
@@ -35,7 +35,10 @@ public class SM3Coder {
 
     private static byte[] key;
 
-    private static SM3 sm3;
+    /**
+     * SM3 内部的 MessageDigest 不是线程安全的，每个线程一个
+     */
+    private static final ThreadLocal<SM3> SM3_HOLDER = new ThreadLocal<>();
 
     private static final String ALGORITHM = "HmacSM3";
     /**
@@ -71,7 +74,7 @@ public class SM3Coder {
         }
     }
 
-    public static byte[] getKey() throws IOException, NoSuchAlgorithmException, NoSuchProviderException {
+    public static synchronized byte[] getKey() throws IOException, NoSuchAlgorithmException, NoSuchProviderException {
         if (ArrayUtil.isEmpty(SM3Coder.key)) {
             byte[] key = null;
             if (prop != null) {
@@ -88,11 +91,45 @@ public class SM3Coder {
         return SM3Coder.key;
     }
 
+    /**
+     * 获取当前线程的 SM3
+     *
+     * @return SM3
+     */
     public static SM3 getSM3() throws IOException, NoSuchAlgorithmException, NoSuchProviderException {
-        if (ObjectUtil.isEmpty(SM3Coder.sm3)) {
+        SM3 sm3 = SM3_HOLDER.get();
+        if (sm3 == null) {
             sm3 = new SM3(SM3Coder.getKey());
+            SM3_HOLDER.set(sm3);
+        }
+        return sm3;
+    }
+
+    /**
+     * 摘要
+     *
+     * @param data 数据
+     * @return 摘要
+     */
+    @SneakyThrows
+    public static byte[] digest(byte[] data) {
+        return getSM3().digest(data);
+    }
+
+    /**
+     * 批量摘要，null 原样返回
+     *
+     * @param data 数据
+     * @return 16 进制摘要，顺序和 data 一致
+     */
+    @SneakyThrows
+    public static String[] digestHex(String[] data) {
+        SM3 sm3 = getSM3();
+        String[] result = new String[data.length];
+        for (int i = 0; i < data.length; i++) {
+            result[i] = data[i] == null ? null : sm3.digestHex(data[i], StandardCharsets.UTF_8);
         }
-        return SM3Coder.sm3;
+        return result;
     }
 
     public static byte[] generateKey() throws NoSuchAlgorithmException, NoSuchProviderException {
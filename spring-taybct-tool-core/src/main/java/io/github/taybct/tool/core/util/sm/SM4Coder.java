@@ -3,9 +3,9 @@ package io.github.taybct.tool.core.util.sm;
 import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.crypto.symmetric.SymmetricCrypto;
 import io.github.taybct.tool.core.config.PropConfig;
+import io.github.taybct.tool.core.enhance.IBatchEnhanceFunction;
 import io.github.taybct.tool.core.util.ObjectUtil;
 import io.github.taybct.tool.core.util.StringUtil;
-import lombok.SneakyThrows;
 import org.aspectj.util.FileUtil;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.springframework.core.io.ClassPathResource;
@@ -15,12 +15,10 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.SecureRandom;
 import java.security.Security;
-import java.util.function.Function;
 
 /**
  * SM4 加解密工具类
@@ -72,7 +70,7 @@ public class SM4Coder {
         }
     }
 
-    public static byte[] getKey() throws IOException, NoSuchAlgorithmException, NoSuchProviderException {
+    public static synchronized byte[] getKey() throws IOException, NoSuchAlgorithmException, NoSuchProviderException {
         if (ArrayUtil.isEmpty(SM4Coder.key)) {
             byte[] key = null;
             if (prop != null) {
@@ -89,13 +87,21 @@ public class SM4Coder {
         return SM4Coder.key;
     }
 
-    public static SymmetricCrypto getSM4() throws IOException, NoSuchAlgorithmException, NoSuchProviderException {
+    public static synchronized SymmetricCrypto getSM4() throws IOException, NoSuchAlgorithmException, NoSuchProviderException {
         if (ObjectUtil.isEmpty(SM4Coder.sm4)) {
             SM4Coder.sm4 = new SymmetricCrypto(ALGORITHM_ECB_PKCS5PADDING, SM4Coder.getKey());
         }
         return SM4Coder.sm4;
     }
 
+    /**
+     * 清除缓存的密钥，下次使用的时候重新加载
+     */
+    public static synchronized void reset() {
+        SM4Coder.key = null;
+        SM4Coder.sm4 = null;
+    }
+
     public static byte[] generateKey() throws NoSuchAlgorithmException, NoSuchProviderException {
         KeyGenerator kg = KeyGenerator.getInstance(ALGORITHM, PROVIDER);
         kg.init(DEFAULT_KEY_SIZE, new SecureRandom());
@@ -136,26 +142,34 @@ public class SM4Coder {
     }
 
     /**
-     * 加密
+     * 加密，每个线程使用自己的 Cipher，见 {@link SM4Engine}，批量加密的时候整批只取一次 Cipher
      */
-    public static class En implements Function<String, String> {
+    public static class En implements IBatchEnhanceFunction<String, String> {
 
-        @SneakyThrows
         @Override
         public String apply(String s) {
-            return SM4Coder.getSM4().encryptBase64(s, StandardCharsets.UTF_8);
+            return SM4Engine.encryptBase64(s);
+        }
+
+        @Override
+        public String[] applyBatch(String[] values) {
+            return SM4Engine.encrypt(values);
         }
     }
 
     /**
-     * 解密
+     * 解密，每个线程使用自己的 Cipher，见 {@link SM4Engine}，批量解密的时候整批只取一次 Cipher
      */
-    public static class De implements Function<String, String> {
+    public static class De implements IBatchEnhanceFunction<String, String> {
 
-        @SneakyThrows
         @Override
         public String apply(String s) {
-            return SM4Coder.getSM4().decryptStr(s, StandardCharsets.UTF_8);
+            return SM4Engine.decryptStr(s);
+        }
+
+        @Override
+        public String[] applyBatch(String[] values) {
+            return SM4Engine.decrypt(values);
         }
     }
 }
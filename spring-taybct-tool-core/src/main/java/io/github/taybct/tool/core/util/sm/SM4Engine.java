@@ -0,0 +1,218 @@
+package io.github.taybct.tool.core.util.sm;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.crypto.CryptoException;
+import cn.hutool.crypto.SecureUtil;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SM4 加解密引擎
+ * <br>
+ * {@link SM4Coder#getSM4()} 是一个共享的 {@code SymmetricCrypto}，内部加锁，所有线程都在抢同一个锁，
+ * 这里每个线程各自持有初始化好的加密、解密 {@link Cipher}（ECB 模式没有 IV，初始化一次可以一直用），线程之间互不影响
+ *
+ * @author XiJieYin <br> 2026/10/17 21:40
+ */
+public class SM4Engine {
+
+    private static final String ALGORITHM = "SM4";
+
+    private static final String TRANSFORMATION = "SM4/ECB/PKCS5Padding";
+
+    /**
+     * 密钥，第一次使用的时候从 {@link SM4Coder#getKey()} 加载
+     */
+    private static volatile SecretKeySpec secretKey;
+
+    /**
+     * 每个线程的加密 Cipher
+     */
+    private static final ThreadLocal<CipherHolder> ENCRYPT_CIPHER = new ThreadLocal<>();
+
+    /**
+     * 每个线程的解密 Cipher
+     */
+    private static final ThreadLocal<CipherHolder> DECRYPT_CIPHER = new ThreadLocal<>();
+
+    /**
+     * 线程持有的 Cipher 以及初始化它用的密钥，密钥换了之后重新初始化
+     */
+    private record CipherHolder(SecretKeySpec key, Cipher cipher) {
+    }
+
+    private SM4Engine() {
+    }
+
+    private static SecretKeySpec secretKey() {
+        SecretKeySpec key = secretKey;
+        if (key == null) {
+            synchronized (SM4Engine.class) {
+                key = secretKey;
+                if (key == null) {
+                    try {
+                        key = new SecretKeySpec(SM4Coder.getKey(), ALGORITHM);
+                    } catch (Exception e) {
+                        throw new CryptoException(e);
+                    }
+                    secretKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    private static Cipher cipher(ThreadLocal<CipherHolder> local, int mode) {
+        SecretKeySpec key = secretKey();
+        CipherHolder holder = local.get();
+        if (holder == null || holder.key() != key) {
+            try {
+                Cipher cipher = Cipher.getInstance(TRANSFORMATION, SM4Coder.PROVIDER);
+                cipher.init(mode, key);
+                holder = new CipherHolder(key, cipher);
+            } catch (Exception e) {
+                throw new CryptoException(e);
+            }
+            local.set(holder);
+        }
+        return holder.cipher();
+    }
+
+    private static byte[] doFinal(ThreadLocal<CipherHolder> local, int mode, byte[] data) {
+        try {
+            return cipher(local, mode).doFinal(data);
+        } catch (CryptoException e) {
+            throw e;
+        } catch (Exception e) {
+            // 出错之后 Cipher 的状态不确定，丢掉下次重新创建
+            local.remove();
+            throw new CryptoException(e);
+        }
+    }
+
+    private static int doFinal(ThreadLocal<CipherHolder> local, int mode, ByteBuffer input, ByteBuffer output) {
+        try {
+            return cipher(local, mode).doFinal(input, output);
+        } catch (CryptoException e) {
+            throw e;
+        } catch (Exception e) {
+            local.remove();
+            throw new CryptoException(e);
+        }
+    }
+
+    /**
+     * 重新加载密钥，各个线程的 Cipher 在下次使用的时候会用新的密钥重新初始化
+     */
+    public static void reset() {
+        // SM4Coder 里面也缓存了密钥，要一起清掉，不然重新加载的还是旧的密钥
+        SM4Coder.reset();
+        secretKey = null;
+    }
+
+    /**
+     * 加密
+     *
+     * @param data 明文
+     * @return 密文
+     */
+    public static byte[] encrypt(byte[] data) {
+        return doFinal(ENCRYPT_CIPHER, Cipher.ENCRYPT_MODE, data);
+    }
+
+    /**
+     * 解密
+     *
+     * @param data 密文
+     * @return 明文
+     */
+    public static byte[] decrypt(byte[] data) {
+        return doFinal(DECRYPT_CIPHER, Cipher.DECRYPT_MODE, data);
+    }
+
+    /**
+     * 加密，结果直接写到 output 里面，不产生中间数组
+     *
+     * @param input  明文
+     * @param output 密文，剩余空间至少要有 input.remaining() 补齐到 16 的倍数再加 16
+     * @return 写入的字节数
+     */
+    public static int encrypt(ByteBuffer input, ByteBuffer output) {
+        return doFinal(ENCRYPT_CIPHER, Cipher.ENCRYPT_MODE, input, output);
+    }
+
+    /**
+     * 解密，结果直接写到 output 里面，不产生中间数组
+     *
+     * @param input  密文
+     * @param output 明文，剩余空间至少要有 input.remaining()
+     * @return 写入的字节数
+     */
+    public static int decrypt(ByteBuffer input, ByteBuffer output) {
+        return doFinal(DECRYPT_CIPHER, Cipher.DECRYPT_MODE, input, output);
+    }
+
+    /**
+     * 加密成 base64 字符串，和 {@code SymmetricCrypto#encryptBase64(String, Charset)} 的结果一致
+     *
+     * @param data 明文
+     * @return base64 密文
+     */
+    public static String encryptBase64(String data) {
+        return Base64.encode(encrypt(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * 解密 base64 或者 hex 的密文，和 {@code SymmetricCrypto#decryptStr(String, Charset)} 的结果一致
+     *
+     * @param data 密文
+     * @return 明文
+     */
+    public static String decryptStr(String data) {
+        return new String(decrypt(SecureUtil.decode(data)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 批量加密，null 原样返回，整批只取一次 Cipher
+     *
+     * @param data 明文
+     * @return base64 密文，顺序和 data 一致
+     */
+    public static String[] encrypt(String[] data) {
+        String[] result = new String[data.length];
+        Cipher cipher = cipher(ENCRYPT_CIPHER, Cipher.ENCRYPT_MODE);
+        try {
+            for (int i = 0; i < data.length; i++) {
+                result[i] = data[i] == null ? null : Base64.encode(cipher.doFinal(data[i].getBytes(StandardCharsets.UTF_8)));
+            }
+        } catch (Exception e) {
+            ENCRYPT_CIPHER.remove();
+            throw new CryptoException(e);
+        }
+        return result;
+    }
+
+    /**
+     * 批量解密，null 原样返回，整批只取一次 Cipher
+     *
+     * @param data base64 或者 hex 密文
+     * @return 明文，顺序和 data 一致
+     */
+    public static String[] decrypt(String[] data) {
+        String[] result = new String[data.length];
+        Cipher cipher = cipher(DECRYPT_CIPHER, Cipher.DECRYPT_MODE);
+        try {
+            for (int i = 0; i < data.length; i++) {
+                result[i] = data[i] == null ? null : new String(cipher.doFinal(SecureUtil.decode(data[i])), StandardCharsets.UTF_8);
+            }
+        } catch (Exception e) {
+            DECRYPT_CIPHER.remove();
+            throw new CryptoException(e);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.github.taybct.tool.core.websocket.cluster;
+
+import io.github.taybct.tool.core.websocket.support.WebSocketFrame;
+import org.springframework.lang.Nullable;
+
+/**
+ * <pre>
+ * websocket 集群消息投递
+ * </pre>
+ * 会话都保存在各个节点自己的内存里面，发给其他节点上的用户的消息通过这个接口转发过去，
+ * 每个节点订阅自己节点上有连接的用户，只有持有会话的节点才会收到消息
+ *
+ * @author XiJieYin <br> 2026/10/18 00:50
+ */
+public interface IWebSocketClusterDelivery {
+
+    /**
+     * 发给指定用户，不会再发回当前节点
+     *
+     * @param userId    用户 id
+     * @param sessionId 指定的会话 id，为 null 的时候发给用户所有的会话
+     * @param frame     编码好的消息帧
+     */
+    void publish(Long userId, @Nullable String sessionId, WebSocketFrame frame);
+
+    /**
+     * 广播给其他所有节点
+     *
+     * @param frame 编码好的消息帧
+     */
+    void publishAll(WebSocketFrame frame);
+
+    /**
+     * 当前节点上用户有新的会话，每个会话调用一次
+     *
+     * @param userId 用户 id
+     */
+    void subscribe(Long userId);
+
+    /**
+     * 当前节点上用户的会话关闭了，每个会话调用一次，用户所有的会话都关闭之后不再接收这个用户的消息
+     *
+     * @param userId 用户 id
+     */
+    void unsubscribe(Long userId);
+
+    /**
+     * 添加接收其他节点转发过来的消息的处理
+     *
+     * @param receiver 处理
+     */
+    void addReceiver(Receiver receiver);
+
+    /**
+     * 接收其他节点转发过来的消息，投递到当前节点的会话上
+     */
+    interface Receiver {
+
+        /**
+         * 投递给当前节点上的用户
+         *
+         * @param userId    用户 id
+         * @param sessionId 指定的会话 id，为 null 的时候发给用户所有的会话
+         * @param frame     消息帧
+         */
+        void deliver(Long userId, @Nullable String sessionId, WebSocketFrame frame);
+
+        /**
+         * 投递给当前节点上所有的会话
+         *
+         * @param frame 消息帧
+         */
+        void deliverAll(WebSocketFrame frame);
+    }
+
+}
@@ -0,0 +1,225 @@
+package io.github.taybct.tool.core.websocket.cluster;
+
+import cn.hutool.core.util.IdUtil;
+import com.alibaba.fastjson2.JSONB;
+import io.github.taybct.tool.core.websocket.support.WebSocketFrame;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * 基于 redis 发布订阅的 websocket 集群消息投递
+ * </pre>
+ * <ul>
+ *     <li>每个用户一个频道，节点上有这个用户的会话才订阅，没有会话的节点收不到这个用户的消息</li>
+ *     <li>广播用一个所有节点都订阅的频道</li>
+ *     <li>发布的消息先放进队列，由一个线程把当时积压的所有消息放在同一个 pipeline 里面发出去，
+ *     同一时刻的大量消息只需要一次网络往返</li>
+ *     <li>消息里面带着发送节点的 id，节点不会处理自己发出去的消息</li>
+ * </ul>
+ *
+ * @author XiJieYin <br> 2026/10/18 00:50
+ */
+@Slf4j
+public class RedisWebSocketClusterDelivery implements IWebSocketClusterDelivery, MessageListener, DisposableBean {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final WebSocketClusterProperties properties;
+
+    /**
+     * 当前节点 id
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /**
+     * 当前节点上每个用户的会话数
+     */
+    private final Map<Long, Integer> subscriptions = new HashMap<>();
+
+    private final List<Receiver> receivers = new CopyOnWriteArrayList<>();
+
+    /**
+     * 等待发布的消息
+     */
+    private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingSize = new AtomicInteger();
+
+    /**
+     * 是否已经安排了发布
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "websocket-cluster-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final byte[] broadcastChannel;
+
+    public RedisWebSocketClusterDelivery(RedisTemplate<String, Object> redisTemplate
+            , RedisMessageListenerContainer listenerContainer
+            , WebSocketClusterProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.properties = properties;
+        this.broadcastChannel = properties.getBroadcastChannel().getBytes(StandardCharsets.UTF_8);
+        this.listenerContainer.addMessageListener(this, new ChannelTopic(properties.getBroadcastChannel()));
+    }
+
+    /**
+     * 集群里面传递的消息
+     *
+     * @param node        发送节点 id
+     * @param userId      用户 id，广播为 null
+     * @param sessionId   会话 id
+     * @param text        文本内容
+     * @param bytes       二进制内容
+     * @param coalesceKey 合并用的 key
+     */
+    public record ClusterMessage(String node, Long userId, String sessionId, String text, byte[] bytes,
+                                 String coalesceKey) {
+    }
+
+    /**
+     * 等待发布的消息
+     *
+     * @param channel 频道
+     * @param body    消息体
+     */
+    private record Pending(byte[] channel, byte[] body) {
+    }
+
+    private String userChannel(Long userId) {
+        return this.properties.getUserChannelPrefix() + userId;
+    }
+
+    @Override
+    public void publish(Long userId, @Nullable String sessionId, WebSocketFrame frame) {
+        enqueue(userChannel(userId).getBytes(StandardCharsets.UTF_8)
+                , new ClusterMessage(this.nodeId, userId, sessionId, frame.text(), frame.bytes(), frame.coalesceKey()));
+    }
+
+    @Override
+    public void publishAll(WebSocketFrame frame) {
+        enqueue(this.broadcastChannel
+                , new ClusterMessage(this.nodeId, null, null, frame.text(), frame.bytes(), frame.coalesceKey()));
+    }
+
+    private void enqueue(byte[] channel, ClusterMessage message) {
+        if (this.pendingSize.incrementAndGet() > this.properties.getMaxPending()) {
+            this.pendingSize.decrementAndGet();
+            log.warn("websocket 集群消息积压超过 {} 条，丢弃发给 {} 的消息", this.properties.getMaxPending(), new String(channel, StandardCharsets.UTF_8));
+            return;
+        }
+        this.pending.add(new Pending(channel, JSONB.toBytes(message)));
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            this.flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * 把积压的消息在一个 pipeline 里面发布出去
+     */
+    private void flush() {
+        // 先重置标记再取消息，取的过程中新来的消息会安排下一次发布，不会漏掉
+        this.flushScheduled.set(false);
+        List<Pending> batch = new ArrayList<>();
+        Pending next;
+        while ((next = this.pending.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        this.pendingSize.addAndGet(-batch.size());
+        try {
+            this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Pending item : batch) {
+                    connection.publish(item.channel(), item.body());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("websocket 集群消息发布失败，丢失 {} 条消息", batch.size(), e);
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Long userId) {
+        Integer count = this.subscriptions.merge(userId, 1, Integer::sum);
+        if (count == 1) {
+            this.listenerContainer.addMessageListener(this, new ChannelTopic(userChannel(userId)));
+        }
+    }
+
+    @Override
+    public synchronized void unsubscribe(Long userId) {
+        Integer count = this.subscriptions.computeIfPresent(userId, (id, c) -> c > 1 ? c - 1 : null);
+        if (count == null) {
+            this.listenerContainer.removeMessageListener(this, new ChannelTopic(userChannel(userId)));
+        }
+    }
+
+    @Override
+    public void addReceiver(Receiver receiver) {
+        this.receivers.add(receiver);
+    }
+
+    @Override
+    public void onMessage(Message message, @Nullable byte[] pattern) {
+        ClusterMessage clusterMessage;
+        try {
+            clusterMessage = JSONB.parseObject(message.getBody(), ClusterMessage.class);
+        } catch (Exception e) {
+            log.warn("无法解析的 websocket 集群消息：{}", new String(message.getChannel(), StandardCharsets.UTF_8), e);
+            return;
+        }
+        if (clusterMessage == null || this.nodeId.equals(clusterMessage.node())) {
+            return;
+        }
+        WebSocketFrame frame = new WebSocketFrame(clusterMessage.text(), clusterMessage.bytes(), clusterMessage.coalesceKey());
+        for (Receiver receiver : this.receivers) {
+            try {
+                if (clusterMessage.userId() == null) {
+                    receiver.deliverAll(frame);
+                } else {
+                    receiver.deliver(clusterMessage.userId(), clusterMessage.sessionId(), frame);
+                }
+            } catch (Exception e) {
+                log.error("websocket 集群消息投递失败！", e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.flusher.shutdown();
+        try {
+            if (!this.flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                this.flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package io.github.taybct.tool.core.websocket.cluster;
+
+import io.github.taybct.tool.core.constant.PropertiesPrefixConstants;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * websocket 集群配置
+ *
+ * @author XiJieYin <br> 2026/10/18 00:50
+ */
+@Data
+@ConfigurationProperties(prefix = PropertiesPrefixConstants.WEBSOCKET_CLUSTER)
+public class WebSocketClusterProperties implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 2950412937318826714L;
+
+    /**
+     * 是否开启，开启之后发给不在当前节点上的用户的消息会通过 redis 转发到用户所在的节点，默认关闭
+     */
+    private Boolean enabled = false;
+    /**
+     * 用户频道的前缀，后面跟上用户 id，每个节点只订阅自己节点上有连接的用户的频道
+     */
+    private String userChannelPrefix = "taybct:websocket:user:";
+    /**
+     * 广播频道，所有节点都订阅
+     */
+    private String broadcastChannel = "taybct:websocket:broadcast";
+    /**
+     * 最多积压多少条没有发到 redis 的消息，超过之后丢掉新的消息
+     */
+    private Integer maxPending = 100000;
+
+}
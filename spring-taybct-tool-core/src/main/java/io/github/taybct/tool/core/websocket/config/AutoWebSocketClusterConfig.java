@@ -0,0 +1,85 @@
+package io.github.taybct.tool.core.websocket.config;
+
+import io.github.taybct.tool.core.constant.PropertiesPrefixConstants;
+import io.github.taybct.tool.core.redis.RedisConfiguration;
+import io.github.taybct.tool.core.websocket.cluster.IWebSocketClusterDelivery;
+import io.github.taybct.tool.core.websocket.cluster.RedisWebSocketClusterDelivery;
+import io.github.taybct.tool.core.websocket.cluster.WebSocketClusterProperties;
+import io.github.taybct.tool.core.websocket.endpoint.AbstractWebSocketReactiveServer;
+import io.github.taybct.tool.core.websocket.endpoint.AbstractWebSocketServer;
+import jakarta.websocket.Session;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.web.reactive.socket.WebSocketSession;
+
+/**
+ * <pre>
+ * WebSocket 集群，通过 redis 把消息转发到用户连接所在的节点
+ * </pre>
+ *
+ * @author XiJieYin <br> 2026/10/18 00:50
+ */
+@AutoConfiguration(after = RedisConfiguration.class)
+@ConditionalOnClass(RedisTemplate.class)
+@ConditionalOnProperty(prefix = PropertiesPrefixConstants.WEBSOCKET_CLUSTER, name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(WebSocketClusterProperties.class)
+public class AutoWebSocketClusterConfig {
+
+    /**
+     * websocket 集群专用的订阅容器
+     *
+     * @param connectionFactory redis 连接
+     * @return RedisMessageListenerContainer
+     */
+    @Bean
+    public RedisMessageListenerContainer webSocketClusterListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public IWebSocketClusterDelivery webSocketClusterDelivery(RedisTemplate<String, Object> redisTemplate
+            , @Qualifier("webSocketClusterListenerContainer") RedisMessageListenerContainer webSocketClusterListenerContainer
+            , WebSocketClusterProperties properties) {
+        return new RedisWebSocketClusterDelivery(redisTemplate, webSocketClusterListenerContainer, properties);
+    }
+
+    /**
+     * servlet 的 websocket
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Session.class)
+    static class ServletWebSocketCluster {
+
+        @Bean
+        public InitializingBean servletWebSocketClusterRegistrar(IWebSocketClusterDelivery webSocketClusterDelivery) {
+            return () -> AbstractWebSocketServer.setClusterDelivery(webSocketClusterDelivery);
+        }
+    }
+
+    /**
+     * reactive 的 websocket
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(WebSocketSession.class)
+    static class ReactiveWebSocketCluster {
+
+        @Bean
+        public InitializingBean reactiveWebSocketClusterRegistrar(IWebSocketClusterDelivery webSocketClusterDelivery) {
+            return () -> AbstractWebSocketReactiveServer.setClusterDelivery(webSocketClusterDelivery);
+        }
+    }
+
+}
@@ -6,12 +6,17 @@ import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.alibaba.fastjson2.JSONObject;
 import io.github.taybct.tool.core.annotation.ServerReactiveEndpoint;
+import io.github.taybct.tool.core.websocket.cluster.IWebSocketClusterDelivery;
 import io.github.taybct.tool.core.websocket.constant.MessageTopic;
 import io.github.taybct.tool.core.websocket.enums.MessageUserType;
+import io.github.taybct.tool.core.websocket.support.LazyQueryParameterMap;
 import io.github.taybct.tool.core.websocket.support.MessageUser;
+import io.github.taybct.tool.core.websocket.support.PathTemplate;
 import io.github.taybct.tool.core.websocket.support.WSR;
+import io.github.taybct.tool.core.websocket.support.WebSocketFrame;
 import io.github.taybct.tool.core.websocket.support.WebsocketReactiveSession;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,8 +32,6 @@ import java.nio.charset.Charset;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * <pre>
@@ -58,13 +61,70 @@ public abstract class AbstractWebSocketReactiveServer implements WebSocketHandle
      * 存放路径请求参数
      */
     protected static final ConcurrentHashMap<String, Map<String, String>> pathParameterMap = new ConcurrentHashMap<>();
+    /**
+     * 集群消息投递，没有开启集群的时候为 null
+     */
+    @Getter
+    protected static volatile IWebSocketClusterDelivery clusterDelivery;
+
+    /**
+     * 编译好的路径模板
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile PathTemplate pathTemplate;
+
+    /**
+     * 开启集群消息投递，其他节点转发过来的消息投递到当前节点的会话上
+     *
+     * @param delivery 集群消息投递
+     */
+    public static void setClusterDelivery(IWebSocketClusterDelivery delivery) {
+        delivery.addReceiver(new IWebSocketClusterDelivery.Receiver() {
+            @Override
+            public void deliver(Long userId, @Nullable String sessionId, WebSocketFrame frame) {
+                if (StringUtils.hasText(sessionId)) {
+                    // 会话 id 只在节点内唯一，必须是这个用户的会话才投递，不然别的节点上的会话 id 撞上了就会发给别人
+                    Optional.ofNullable(webSocketRecordPool.get(sessionId))
+                            .filter(session -> Optional.ofNullable(userWebSocketRecordPool.get(userId))
+                                    .map(sessions -> sessions.contains(session))
+                                    .orElse(false))
+                            .ifPresent(session -> emit(session, frame));
+                } else {
+                    Optional.ofNullable(userWebSocketRecordPool.get(userId)).ifPresent(sessions -> sessions.forEach(session -> emit(session, frame)));
+                }
+            }
+
+            @Override
+            public void deliverAll(WebSocketFrame frame) {
+                webSocketRecordPool.values().forEach(session -> emit(session, frame));
+            }
+        });
+        clusterDelivery = delivery;
+    }
+
+    /**
+     * 把编码好的消息发给会话
+     *
+     * @param session 会话
+     * @param frame   消息帧
+     */
+    protected static void emit(WebsocketReactiveSession session, WebSocketFrame frame) {
+        if (!session.session().isOpen()) {
+            return;
+        }
+        if (frame.isBinary()) {
+            session.sink().next(session.session().binaryMessage(data -> data.wrap(frame.buffer())));
+        } else {
+            session.sink().next(session.session().textMessage(frame.text()));
+        }
+    }
 
     @NotNull
     @Override
     public Mono<Void> handle(WebSocketSession session) {
         HandshakeInfo handshakeInfo = session.getHandshakeInfo();
         Map<String, String> pathParameter = checkPathParameter(handshakeInfo.getUri().getPath());
-        Map<String, List<String>> requestParameter = checkRequestParameter(handshakeInfo.getUri().getQuery());
+        Map<String, List<String>> requestParameter = checkRequestParameter(handshakeInfo.getUri().getRawQuery());
         String userIdStr = getUserId(pathParameter);
         if (!StringUtils.hasText(userIdStr)) {
             throw new RuntimeException("用户id不能为空");
@@ -88,6 +148,9 @@ public abstract class AbstractWebSocketReactiveServer implements WebSocketHandle
                 -> {
             WebsocketReactiveSession websocketReactiveSession = new WebsocketReactiveSession(session, sink);
             cacheSession(userId, websocketReactiveSession);
+            if (clusterDelivery != null) {
+                clusterDelivery.subscribe(userId);
+            }
             onOpen(userId, websocketReactiveSession);
         }));
         /*
@@ -118,52 +181,46 @@ public abstract class AbstractWebSocketReactiveServer implements WebSocketHandle
      * @return 路径参数
      */
     public Map<String, String> checkPathParameter(String path) {
-        Map<String, String> pathParameterMap = new ConcurrentHashMap<>();
-        ServerReactiveEndpoint annotation = getClass().getAnnotation(ServerReactiveEndpoint.class);
-        if (annotation != null) {
-            String matchPath = annotation.value();
-            // 提取变量名
-            Pattern varNamePattern = Pattern.compile("\\{([^/]+)}");
-            Matcher varNameMatcher = varNamePattern.matcher(matchPath);
-            // 构建变量名列表
-            List<String> varNames = new ArrayList<>();
-            while (varNameMatcher.find()) {
-                varNames.add(varNameMatcher.group(1));
+        PathTemplate template = pathTemplate();
+        if (template != null) {
+            Map<String, String> pathParameter = template.match(path);
+            if (pathParameter != null) {
+                return pathParameter;
             }
-            // 构建用于匹配的正则表达式
-            String regex = matchPath.replaceAll("\\{[^/]+}", "([^/]+)");
-            Pattern pathPattern = Pattern.compile(regex);
-            Matcher pathMatcher = pathPattern.matcher(path);
-            // 如果匹配成功，将变量名和对应值存入Map
-            if (pathMatcher.matches()) {
-                for (int i = 0; i < varNames.size(); i++) {
-                    pathParameterMap.put(varNames.get(i), pathMatcher.group(i + 1));
-                }
-                return pathParameterMap;
+        }
+        return new HashMap<>();
+    }
+
+    /**
+     * 端点的路径模板，第一次调用的时候按 {@link ServerReactiveEndpoint#value()} 编译，
+     * {@link io.github.taybct.tool.core.websocket.support.WebSocketReactiveHandlerMapping} 注册端点的时候就会调用一次
+     *
+     * @return 路径模板，没有 {@link ServerReactiveEndpoint} 注解的时候返回 null
+     */
+    public PathTemplate pathTemplate() {
+        PathTemplate template = this.pathTemplate;
+        if (template == null) {
+            ServerReactiveEndpoint annotation = getClass().getAnnotation(ServerReactiveEndpoint.class);
+            if (annotation == null) {
+                return null;
             }
+            template = PathTemplate.compile(annotation.value());
+            this.pathTemplate = template;
         }
-        return pathParameterMap;
+        return template;
     }
 
     /**
-     * 用于获取请求参数
+     * 用于获取请求参数，参数在第一次读取的时候才解析
      *
      * <pre>
      * {@code /websocket/{userId}?toUserId=xxx}
      * </pre>
      *
-     * @param query 请求参数
+     * @param query 原始的（没有解码的）请求参数
      */
     public Map<String, List<String>> checkRequestParameter(String query) {
-        Map<String, List<String>> requestParameterMap = new ConcurrentHashMap<>();
-        String[] queryParamArr = query.split("&");
-        Arrays.stream(queryParamArr).forEach(queryParam -> {
-            String[] kv = queryParam.split("=");
-            List<String> values = requestParameterMap.getOrDefault(kv[0], new ArrayList<>());
-            values.add(kv[1]);
-            requestParameterMap.put(kv[0], values);
-        });
-        return requestParameterMap;
+        return new LazyQueryParameterMap(query);
     }
 
     @Override
@@ -263,6 +320,9 @@ public abstract class AbstractWebSocketReactiveServer implements WebSocketHandle
         // 删除session的请求参数
         requestParameterMap.remove(session.session().getId());
         pathParameterMap.remove(session.session().getId());
+        if (clusterDelivery != null && userId != null) {
+            clusterDelivery.unsubscribe(userId);
+        }
         onClose(session, userId);
         onlineCount();
     }
@@ -290,21 +350,26 @@ public abstract class AbstractWebSocketReactiveServer implements WebSocketHandle
     @Override
     public <E> void sendMessage(WSR<E> message) {
         if (!ObjectUtils.isEmpty(message)) {
-            log.debug("【websocket消息】 消息:{}", JSONObject.toJSONString(message));
             if (CollectionUtil.isEmpty(message.getToUser())) {
                 sendAllMessage(message);
             } else {
+                WebSocketFrame frame = WebSocketFrame.of(message);
+                log.debug("【websocket消息】 消息:{}", frame);
                 message.getToUser().forEach(messageToUser -> {
                     if (StringUtils.hasText(messageToUser.sessionId()) && webSocketRecordPool.containsKey(messageToUser.sessionId())) {
                         // 如果设置了指定的 session id 则发送给指定的 session
-                        sendMessage(message, messageToUser, webSocketRecordPool.get(messageToUser.sessionId()));
+                        sendMessage(message, frame, messageToUser, webSocketRecordPool.get(messageToUser.sessionId()));
                     } else {
                         // 如果只是指定发给某个用户，那这个用户所有联接的会话都会收到消息
                         if (userWebSocketRecordPool.containsKey(messageToUser.userId())) {
-                            userWebSocketRecordPool.get(messageToUser.userId()).forEach(session -> sendMessage(message, messageToUser, session));
-                        } else {
+                            userWebSocketRecordPool.get(messageToUser.userId()).forEach(session -> sendMessage(message, frame, messageToUser, session));
+                        } else if (clusterDelivery == null) {
                             log.warn("用户{}的websocket连接不存在或已断开！", messageToUser.userId());
                         }
+                        // 用户在其他节点上可能也有连接
+                        if (clusterDelivery != null) {
+                            clusterDelivery.publish(messageToUser.userId(), messageToUser.sessionId(), frame);
+                        }
                     }
                 });
             }
@@ -312,9 +377,22 @@ public abstract class AbstractWebSocketReactiveServer implements WebSocketHandle
     }
 
     public <E> void sendMessage(WSR<E> message, MessageUser messageToUser, WebsocketReactiveSession session) {
+        sendMessage(message, WebSocketFrame.of(message), messageToUser, session);
+    }
+
+    /**
+     * 发送已经编码好的消息
+     *
+     * @param message       消息
+     * @param frame         编码好的消息帧
+     * @param messageToUser 接收人
+     * @param session       会话
+     */
+    public <E> void sendMessage(WSR<E> message, WebSocketFrame frame, MessageUser messageToUser, WebsocketReactiveSession session) {
         if (session.session().isOpen()) {
             try {
-                send(message, session);
+                emit(session, frame);
+                afterSend(message, null);
             } catch (Exception e) {
                 log.error("消息发送失败！", e);
                 afterSend(message, e);
@@ -326,26 +404,25 @@ public abstract class AbstractWebSocketReactiveServer implements WebSocketHandle
 
     @Override
     public <E> void sendAllMessage(WSR<E> message) {
-        userWebSocketRecordPool.values().stream().flatMap(Collection::stream)
-                .forEach(session -> {
-                    try {
-                        if (session.session().isOpen()) {
-                            send(message, session);
-                        }
-                    } catch (Exception e) {
-                        log.error("广播消息失败！", e);
-                        afterSend(message, e);
-                    }
-                });
+        WebSocketFrame frame = WebSocketFrame.of(message);
+        log.debug("【websocket广播消息】 消息:{}", frame);
+        webSocketRecordPool.values().forEach(session -> {
+            try {
+                emit(session, frame);
+            } catch (Exception e) {
+                log.error("广播消息失败！", e);
+                afterSend(message, e);
+            }
+        });
+        if (clusterDelivery != null) {
+            clusterDelivery.publishAll(frame);
+        }
+        afterSend(message, null);
     }
 
     @Override
     public <E> void send(WSR<E> message, WebsocketReactiveSession session) {
-        if (message.getBytes() != null) {
-            session.sink().next(session.session().binaryMessage(data -> data.wrap(message.getBytes())));
-        } else {
-            session.sink().next(session.session().textMessage(JSONObject.toJSONString(message)));
-        }
+        emit(session, WebSocketFrame.of(message));
         afterSend(message, null);
     }
 
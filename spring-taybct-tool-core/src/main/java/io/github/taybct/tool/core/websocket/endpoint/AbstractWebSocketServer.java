@@ -3,10 +3,14 @@ package io.github.taybct.tool.core.websocket.endpoint;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.alibaba.fastjson2.JSONObject;
+import io.github.taybct.tool.core.websocket.cluster.IWebSocketClusterDelivery;
 import io.github.taybct.tool.core.websocket.constant.MessageTopic;
 import io.github.taybct.tool.core.websocket.enums.MessageUserType;
+import io.github.taybct.tool.core.websocket.enums.OverflowPolicy;
 import io.github.taybct.tool.core.websocket.support.MessageUser;
 import io.github.taybct.tool.core.websocket.support.WSR;
+import io.github.taybct.tool.core.websocket.support.WebSocketFrame;
+import io.github.taybct.tool.core.websocket.support.WebSocketSessionOutbound;
 import jakarta.websocket.*;
 import jakarta.websocket.server.PathParam;
 import lombok.Getter;
@@ -17,7 +21,6 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
-import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -56,6 +59,88 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
      * 会话用户
      */
     protected static final ConcurrentHashMap<String, Long> sessionUser = new ConcurrentHashMap<>();
+    /**
+     * 会话的发送队列
+     */
+    protected static final ConcurrentHashMap<String, WebSocketSessionOutbound> outboundPool = new ConcurrentHashMap<>();
+    /**
+     * 集群消息投递，没有开启集群的时候为 null
+     */
+    @Getter
+    protected static volatile IWebSocketClusterDelivery clusterDelivery;
+
+    /**
+     * 开启集群消息投递，其他节点转发过来的消息投递到当前节点的会话上
+     *
+     * @param delivery 集群消息投递
+     */
+    public static void setClusterDelivery(IWebSocketClusterDelivery delivery) {
+        delivery.addReceiver(new IWebSocketClusterDelivery.Receiver() {
+            @Override
+            public void deliver(Long userId, @Nullable String sessionId, WebSocketFrame frame) {
+                if (StringUtils.hasText(sessionId)) {
+                    // 会话 id 只在节点内唯一，必须是这个用户的会话才投递，不然别的节点上的会话 id 撞上了就会发给别人
+                    if (userId.equals(sessionUser.get(sessionId))) {
+                        Optional.ofNullable(sessionPool.get(sessionId)).ifPresent(session -> offer(session, frame));
+                    }
+                } else {
+                    Optional.ofNullable(userSessionPool.get(userId)).ifPresent(sessions -> sessions.forEach(session -> offer(session, frame)));
+                }
+            }
+
+            @Override
+            public void deliverAll(WebSocketFrame frame) {
+                sessionPool.values().forEach(session -> offer(session, frame));
+            }
+        });
+        clusterDelivery = delivery;
+    }
+
+    private static void offer(Session session, WebSocketFrame frame) {
+        WebSocketSessionOutbound outbound = outboundPool.get(session.getId());
+        if (outbound != null && session.isOpen()) {
+            outbound.offer(frame);
+        }
+    }
+
+    /**
+     * 每个会话最多排队多少条消息，可以重写
+     *
+     * @return 队列容量
+     */
+    protected int outboundCapacity() {
+        return 256;
+    }
+
+    /**
+     * 会话发送队列满了之后的处理方式，可以重写
+     *
+     * @return 处理方式
+     */
+    protected OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
+    /**
+     * 获取会话的发送队列，发送队列只在连接的时候创建，关闭之后就没有了
+     *
+     * @param session 会话
+     * @return 发送队列，会话已经关闭的时候为 null
+     */
+    @Nullable
+    protected WebSocketSessionOutbound outbound(Session session) {
+        return outboundPool.get(session.getId());
+    }
+
+    /**
+     * 编码消息，同一条消息发给多个会话的时候只编码一次
+     *
+     * @param message 消息
+     * @return 消息帧
+     */
+    protected WebSocketFrame encode(WSR<?> message) {
+        return WebSocketFrame.of(message);
+    }
 
     /**
      * 链接成功调用的方法
@@ -65,7 +150,11 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
         requestParameterMap.put(session.getId(), session.getRequestParameterMap());
         pathParameterMap.put(session.getId(), session.getPathParameters());
         sessionUser.put(session.getId(), userId);
+        outboundPool.put(session.getId(), new WebSocketSessionOutbound(session, outboundCapacity(), overflowPolicy()));
         cacheSession(userId, session);
+        if (clusterDelivery != null) {
+            clusterDelivery.subscribe(userId);
+        }
         onOpen(userId, session);
     }
 
@@ -136,6 +225,13 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
         requestParameterMap.remove(session.getId());
         pathParameterMap.remove(session.getId());
         sessionUser.remove(session.getId());
+        WebSocketSessionOutbound outbound = outboundPool.remove(session.getId());
+        if (outbound != null) {
+            outbound.close();
+        }
+        if (clusterDelivery != null && userId != null) {
+            clusterDelivery.unsubscribe(userId);
+        }
         onClose(session, userId);
         onlineCount();
     }
@@ -172,21 +268,26 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
     @Override
     public <E> void sendMessage(WSR<E> message) {
         if (!ObjectUtils.isEmpty(message)) {
-            log.debug("【websocket消息】 消息:{}", JSONObject.toJSONString(message));
             if (CollectionUtil.isEmpty(message.getToUser())) {
                 sendAllMessage(message);
             } else {
+                WebSocketFrame frame = encode(message);
+                log.debug("【websocket消息】 消息:{}", frame);
                 message.getToUser().forEach(messageToUser -> {
                     if (StringUtils.hasText(messageToUser.sessionId()) && sessionPool.containsKey(messageToUser.sessionId())) {
                         // 如果设置了指定的 session id 则发送给指定的 session
-                        sendMessage(message, messageToUser, sessionPool.get(messageToUser.sessionId()));
+                        sendMessage(message, frame, messageToUser, sessionPool.get(messageToUser.sessionId()));
                     } else {
                         // 如果只是指定发给某个用户，那这个用户所有联接的会话都会收到消息
                         if (userSessionPool.containsKey(messageToUser.userId())) {
-                            userSessionPool.get(messageToUser.userId()).forEach(session -> sendMessage(message, messageToUser, session));
-                        } else {
+                            userSessionPool.get(messageToUser.userId()).forEach(session -> sendMessage(message, frame, messageToUser, session));
+                        } else if (clusterDelivery == null) {
                             log.warn("用户{}的websocket连接不存在或已断开！", messageToUser.userId());
                         }
+                        // 用户在其他节点上可能也有连接
+                        if (clusterDelivery != null) {
+                            clusterDelivery.publish(messageToUser.userId(), messageToUser.sessionId(), frame);
+                        }
                     }
                 });
             }
@@ -194,9 +295,22 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
     }
 
     public <E> void sendMessage(WSR<E> message, MessageUser messageToUser, Session session) {
+        sendMessage(message, encode(message), messageToUser, session);
+    }
+
+    /**
+     * 发送已经编码好的消息
+     *
+     * @param message       消息
+     * @param frame         编码好的消息帧
+     * @param messageToUser 接收人
+     * @param session       会话
+     */
+    public <E> void sendMessage(WSR<E> message, WebSocketFrame frame, MessageUser messageToUser, Session session) {
         if (session.isOpen()) {
             try {
-                send(message, session);
+                send(frame, session);
+                afterSend(message, null);
             } catch (Exception e) {
                 log.error("消息发送失败！", e);
                 afterSend(message, e);
@@ -207,23 +321,28 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
     }
 
     /**
-     * 发送广播消息
+     * 发送广播消息，消息只编码一次，每个会话只是把同一个帧放进自己的发送队列，不会等客户端接收
      *
      * @param message 消息
      */
     @Override
     public <E> void sendAllMessage(WSR<E> message) {
-        userSessionPool.values().stream().flatMap(Collection::stream)
-                .forEach(session -> {
-                    try {
-                        if (session.isOpen()) {
-                            send(message, session);
-                        }
-                    } catch (Exception e) {
-                        log.error("广播消息失败！", e);
-                        afterSend(message, e);
-                    }
-                });
+        WebSocketFrame frame = encode(message);
+        log.debug("【websocket广播消息】 消息:{}", frame);
+        sessionPool.values().forEach(session -> {
+            try {
+                if (session.isOpen()) {
+                    send(frame, session);
+                }
+            } catch (Exception e) {
+                log.error("广播消息失败！", e);
+                afterSend(message, e);
+            }
+        });
+        if (clusterDelivery != null) {
+            clusterDelivery.publishAll(frame);
+        }
+        afterSend(message, null);
     }
 
     /**
@@ -233,14 +352,24 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
      * @param session session
      */
     public <E> void send(WSR<E> message, Session session) {
-        if (message.getBytes() != null) {
-            session.getAsyncRemote().sendBinary(ByteBuffer.wrap(message.getBytes()));
-        } else {
-            session.getAsyncRemote().sendText(JSONObject.toJSONString(message));
-        }
+        send(encode(message), session);
         afterSend(message, null);
     }
 
+    /**
+     * 把编码好的消息放进会话的发送队列
+     *
+     * @param frame   消息帧
+     * @param session session
+     */
+    public void send(WebSocketFrame frame, Session session) {
+        WebSocketSessionOutbound outbound = outbound(session);
+        // 和 onClose 同时发生的发送，队列已经没有了，直接丢掉，不能再创建一个没人清理的队列
+        if (outbound == null || !outbound.offer(frame)) {
+            log.warn("会话 {} 已关闭，消息未发送：{}", session.getId(), frame);
+        }
+    }
+
     @Override
     public <E> void afterSend(WSR<E> message, @Nullable Throwable error) {
         if (error != null) {
@@ -268,10 +397,10 @@ public abstract class AbstractWebSocketServer implements IWebSocketServer<Sessio
 
     @Override
     public <E> void afterSend(WSR<E> message, Throwable error, Session session) {
-        session.getAsyncRemote()
-                .sendText(JSONObject.toJSONString((error == null ? WSR.ok("发送成功！") : WSR.fail("发送失败！"))
-                        .setData(JSONObject.of("source", JSONObject.toJSONString(message)))
-                        .setTopic(MessageTopic.SYSTEM_MESSAGE)
-                        .setError(error)));
+        // 回执也走发送队列，不能和正在发送的消息同时写
+        send(encode((error == null ? WSR.ok("发送成功！") : WSR.fail("发送失败！"))
+                .setData(JSONObject.of("source", JSONObject.toJSONString(message)))
+                .setTopic(MessageTopic.SYSTEM_MESSAGE)
+                .setError(error)), session);
     }
 }
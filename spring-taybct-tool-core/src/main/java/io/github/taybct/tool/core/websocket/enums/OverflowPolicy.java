@@ -0,0 +1,23 @@
+package io.github.taybct.tool.core.websocket.enums;
+
+/**
+ * <pre>
+ * 会话发送队列满了之后的处理方式
+ * </pre>
+ *
+ * @author XiJieYin <br> 2026/10/18 00:20
+ */
+public enum OverflowPolicy {
+    /**
+     * 丢掉最早排队的消息
+     */
+    DROP_OLDEST,
+    /**
+     * 队列里面有同一个主题（topic + subType）的消息就用新消息替换掉，没有的话丢掉最早排队的消息，适合只关心最新值的看板类消息
+     */
+    COALESCE,
+    /**
+     * 客户端处理不过来，直接断开连接
+     */
+    DISCONNECT
+}
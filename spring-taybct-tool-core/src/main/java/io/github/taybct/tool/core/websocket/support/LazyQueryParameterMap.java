@@ -0,0 +1,127 @@
+package io.github.taybct.tool.core.websocket.support;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <pre>
+ * 延迟解析的请求参数
+ * </pre>
+ * 握手的时候只保存原始的 query，第一次读取参数的时候才解析和 URL 解码，没有用到请求参数的连接不需要解析
+ *
+ * @author XiJieYin <br> 2026/10/18 01:20
+ */
+public class LazyQueryParameterMap extends AbstractMap<String, List<String>> {
+
+    /**
+     * 原始的（没有解码的）query
+     */
+    private final String rawQuery;
+
+    /**
+     * 解析之后的参数
+     */
+    private volatile Map<String, List<String>> parameters;
+
+    /**
+     * @param rawQuery 原始的（没有解码的）query，可以为 null
+     */
+    public LazyQueryParameterMap(String rawQuery) {
+        this.rawQuery = rawQuery;
+    }
+
+    private Map<String, List<String>> parameters() {
+        Map<String, List<String>> map = this.parameters;
+        if (map == null) {
+            synchronized (this) {
+                map = this.parameters;
+                if (map == null) {
+                    map = parse(this.rawQuery);
+                    this.parameters = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 解析 query，a=1&amp;a=2&amp;b 解析成 {a=[1, 2], b=[]}
+     *
+     * @param rawQuery 原始的 query
+     * @return 参数
+     */
+    public static Map<String, List<String>> parse(String rawQuery) {
+        Map<String, List<String>> map = new ConcurrentHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return map;
+        }
+        int length = rawQuery.length();
+        int start = 0;
+        while (start < length) {
+            int end = rawQuery.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                int eq = rawQuery.indexOf('=', start);
+                List<String> values;
+                if (eq < 0 || eq > end) {
+                    values = map.computeIfAbsent(decode(rawQuery, start, end), k -> new ArrayList<>(1));
+                } else {
+                    values = map.computeIfAbsent(decode(rawQuery, start, eq), k -> new ArrayList<>(1));
+                    values.add(decode(rawQuery, eq + 1, end));
+                }
+            }
+            start = end + 1;
+        }
+        return map;
+    }
+
+    private static String decode(String rawQuery, int start, int end) {
+        String value = rawQuery.substring(start, end);
+        // 大部分参数不需要解码
+        return value.indexOf('%') < 0 && value.indexOf('+') < 0 ? value : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 原始的 query
+     *
+     * @return query
+     */
+    public String getRawQuery() {
+        return this.rawQuery;
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        return parameters().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return parameters().containsKey(key);
+    }
+
+    @Override
+    public List<String> put(String key, List<String> value) {
+        return parameters().put(key, value);
+    }
+
+    @Override
+    public List<String> remove(Object key) {
+        return parameters().remove(key);
+    }
+
+    @Override
+    public int size() {
+        return parameters().size();
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return parameters().entrySet();
+    }
+
+}
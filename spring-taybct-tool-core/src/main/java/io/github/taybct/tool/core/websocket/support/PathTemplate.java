@@ -0,0 +1,189 @@
+package io.github.taybct.tool.core.websocket.support;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <pre>
+ * 预编译的路径模板
+ * </pre>
+ * 如：{@code /websocket/{userId}}，模板只解析一次，匹配的时候按 / 逐段比较，
+ * 每一段是固定文本或者 "前缀{变量}后缀" 的形式时只做字符串比较，不用正则；
+ * 一段里面有多个变量的才退回到这一段预编译好的正则
+ *
+ * @author XiJieYin <br> 2026/10/18 01:20
+ */
+public class PathTemplate {
+
+    /**
+     * 原始模板
+     */
+    private final String template;
+
+    /**
+     * 每一段的匹配器
+     */
+    private final Segment[] segments;
+
+    /**
+     * 变量数
+     */
+    private final int variableCount;
+
+    private PathTemplate(String template, Segment[] segments, int variableCount) {
+        this.template = template;
+        this.segments = segments;
+        this.variableCount = variableCount;
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param template 模板
+     * @return 路径模板
+     */
+    public static PathTemplate compile(String template) {
+        String[] parts = split(template);
+        Segment[] segments = new Segment[parts.length];
+        int variableCount = 0;
+        for (int i = 0; i < parts.length; i++) {
+            segments[i] = Segment.compile(parts[i]);
+            variableCount += segments[i].variableCount();
+        }
+        return new PathTemplate(template, segments, variableCount);
+    }
+
+    /**
+     * 匹配路径
+     *
+     * @param path 请求路径
+     * @return 变量名和值，不匹配的时候返回 null
+     */
+    public Map<String, String> match(String path) {
+        if (path == null) {
+            return null;
+        }
+        Map<String, String> variables = new HashMap<>(Math.max(4, this.variableCount * 2));
+        int length = path.length();
+        // 跳过开头的 /
+        int start = length > 0 && path.charAt(0) == '/' ? 1 : 0;
+        for (int i = 0; i < this.segments.length; i++) {
+            if (start > length) {
+                return null;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (!this.segments[i].match(path, start, end, variables)) {
+                return null;
+            }
+            start = end + 1;
+        }
+        // 路径还有剩下的段（末尾单独的 / 除外）
+        return start >= length ? variables : null;
+    }
+
+    /**
+     * 原始模板
+     *
+     * @return 模板
+     */
+    public String getTemplate() {
+        return this.template;
+    }
+
+    @Override
+    public String toString() {
+        return this.template;
+    }
+
+    private static String[] split(String template) {
+        List<String> parts = new ArrayList<>();
+        int length = template.length();
+        int start = length > 0 && template.charAt(0) == '/' ? 1 : 0;
+        while (start < length) {
+            int end = template.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            parts.add(template.substring(start, end));
+            start = end + 1;
+        }
+        return parts.toArray(String[]::new);
+    }
+
+    /**
+     * 一段路径的匹配器
+     *
+     * @param prefix   变量前面的固定文本，没有变量的时候就是整段
+     * @param variable 变量名，没有变量为 null
+     * @param suffix   变量后面的固定文本
+     * @param names    一段有多个变量时的变量名
+     * @param pattern  一段有多个变量时的正则
+     */
+    private record Segment(String prefix, String variable, String suffix, String[] names, Pattern pattern) {
+
+        private static final Pattern VARIABLE = Pattern.compile("\\{([^/]+?)}");
+
+        static Segment compile(String part) {
+            Matcher matcher = VARIABLE.matcher(part);
+            List<String> names = new ArrayList<>();
+            List<int[]> ranges = new ArrayList<>();
+            while (matcher.find()) {
+                names.add(matcher.group(1));
+                ranges.add(new int[]{matcher.start(), matcher.end()});
+            }
+            if (names.isEmpty()) {
+                return new Segment(part, null, null, null, null);
+            }
+            if (names.size() == 1) {
+                int[] range = ranges.get(0);
+                return new Segment(part.substring(0, range[0]), names.get(0), part.substring(range[1]), null, null);
+            }
+            StringBuilder regex = new StringBuilder();
+            int last = 0;
+            for (int[] range : ranges) {
+                regex.append(Pattern.quote(part.substring(last, range[0]))).append("([^/]+)");
+                last = range[1];
+            }
+            regex.append(Pattern.quote(part.substring(last)));
+            return new Segment(null, null, null, names.toArray(String[]::new), Pattern.compile(regex.toString()));
+        }
+
+        int variableCount() {
+            return this.pattern != null ? this.names.length : this.variable != null ? 1 : 0;
+        }
+
+        boolean match(String path, int start, int end, Map<String, String> variables) {
+            if (this.pattern != null) {
+                Matcher matcher = this.pattern.matcher(path).region(start, end);
+                if (!matcher.matches()) {
+                    return false;
+                }
+                for (int i = 0; i < this.names.length; i++) {
+                    variables.put(this.names[i], matcher.group(i + 1));
+                }
+                return true;
+            }
+            if (this.variable == null) {
+                return end - start == this.prefix.length() && path.startsWith(this.prefix, start);
+            }
+            int valueStart = start + this.prefix.length();
+            int valueEnd = end - this.suffix.length();
+            // 变量至少一个字符
+            if (valueEnd <= valueStart
+                    || !path.startsWith(this.prefix, start)
+                    || !path.startsWith(this.suffix, valueEnd)) {
+                return false;
+            }
+            variables.put(this.variable, path.substring(valueStart, valueEnd));
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package io.github.taybct.tool.core.websocket.support;
+
+import com.alibaba.fastjson2.JSONObject;
+import io.github.taybct.tool.core.websocket.constant.MessageTopic;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * 编码好的消息帧
+ * </pre>
+ * 同一条消息只序列化一次，发给多个会话的时候共用同一个帧，帧创建之后不会再修改
+ *
+ * @param text        文本内容，二进制消息为 null
+ * @param bytes       二进制内容，文本消息为 null
+ * @param coalesceKey 合并用的 key（topic + subType），系统消息为 null，不合并
+ * @author XiJieYin <br> 2026/10/18 00:20
+ */
+public record WebSocketFrame(String text, byte[] bytes, String coalesceKey) {
+
+    /**
+     * 编码消息
+     *
+     * @param message 消息
+     * @return 帧
+     */
+    public static WebSocketFrame of(WSR<?> message) {
+        String coalesceKey = MessageTopic.SYSTEM_MESSAGE.equals(message.getTopic())
+                ? null
+                : message.getTopic() + "#" + message.getSubType();
+        if (message.getBytes() != null) {
+            return new WebSocketFrame(null, message.getBytes(), coalesceKey);
+        }
+        return new WebSocketFrame(JSONObject.toJSONString(message), null, coalesceKey);
+    }
+
+    /**
+     * 是否是二进制消息
+     *
+     * @return boolean
+     */
+    public boolean isBinary() {
+        return this.bytes != null;
+    }
+
+    /**
+     * 二进制内容，每次返回一个新的只读 buffer，多个会话同时发送互不影响
+     *
+     * @return buffer
+     */
+    public ByteBuffer buffer() {
+        return ByteBuffer.wrap(this.bytes).asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return isBinary() ? "[binary " + this.bytes.length + " bytes]" : this.text;
+    }
+
+}
@@ -1,6 +1,7 @@
 package io.github.taybct.tool.core.websocket.support;
 
 import io.github.taybct.tool.core.annotation.ServerReactiveEndpoint;
+import io.github.taybct.tool.core.websocket.endpoint.AbstractWebSocketReactiveServer;
 import org.springframework.beans.BeansException;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.AnnotationUtils;
@@ -34,6 +35,10 @@ public class WebSocketReactiveHandlerMapping extends SimpleUrlHandlerMapping {
                                 bean.getClass().getName()));
             }
             ServerReactiveEndpoint annotation = AnnotationUtils.getAnnotation(bean.getClass(), ServerReactiveEndpoint.class);
+            if (bean instanceof AbstractWebSocketReactiveServer server) {
+                // 注册的时候就把路径模板编译好，不用等到第一次握手
+                server.pathTemplate();
+            }
             //webSocketMapping 映射到管理中
             handlerMap.put(Objects.requireNonNull(annotation).value(), (WebSocketHandler) bean);
         });
@@ -0,0 +1,212 @@
+package io.github.taybct.tool.core.websocket.support;
+
+import io.github.taybct.tool.core.websocket.enums.OverflowPolicy;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * 会话的发送队列
+ * </pre>
+ * 每个会话同一时间只有一条消息在异步发送，其他的在有界队列里面排队，上一条发完之后在回调里面接着发下一条，
+ * 发送方只是入队，不会被慢的客户端卡住；队列满了之后按 {@link OverflowPolicy} 处理
+ *
+ * @author XiJieYin <br> 2026/10/18 00:20
+ */
+@Slf4j
+public class WebSocketSessionOutbound implements SendHandler {
+
+    /**
+     * 会话
+     */
+    @Getter
+    private final Session session;
+
+    /**
+     * 队列容量
+     */
+    private final int capacity;
+
+    /**
+     * 队列满了之后的处理方式
+     */
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * 排队的消息，需要持有 this 锁访问
+     */
+    private final ArrayDeque<WebSocketFrame> queue;
+
+    /**
+     * 是否有消息正在发送，需要持有 this 锁访问
+     */
+    private boolean sending;
+
+    /**
+     * 是否已经关闭，需要持有 this 锁访问
+     */
+    private boolean closed;
+
+    /**
+     * 丢掉（包括被合并掉）的消息数
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    public WebSocketSessionOutbound(Session session, int capacity, OverflowPolicy overflowPolicy) {
+        this.session = session;
+        this.capacity = Math.max(capacity, 1);
+        this.overflowPolicy = overflowPolicy;
+        this.queue = new ArrayDeque<>(Math.min(this.capacity, 64));
+    }
+
+    /**
+     * 消息入队，没有正在发送的消息就直接发送
+     *
+     * @param frame 消息帧
+     * @return 是否入队成功，连接已经关闭或者因为积压断开连接的时候返回 false
+     */
+    public boolean offer(WebSocketFrame frame) {
+        WebSocketFrame next;
+        synchronized (this) {
+            if (this.closed) {
+                return false;
+            }
+            if (this.queue.size() >= this.capacity) {
+                switch (this.overflowPolicy) {
+                    case DISCONNECT -> {
+                        this.closed = true;
+                        this.dropped.addAndGet(this.queue.size() + 1);
+                        this.queue.clear();
+                    }
+                    case COALESCE -> {
+                        if (!removeSameKey(frame.coalesceKey())) {
+                            this.queue.pollFirst();
+                        }
+                        this.dropped.incrementAndGet();
+                    }
+                    default -> {
+                        this.queue.pollFirst();
+                        this.dropped.incrementAndGet();
+                    }
+                }
+            }
+            if (!this.closed) {
+                this.queue.addLast(frame);
+                if (this.sending) {
+                    return true;
+                }
+                this.sending = true;
+                next = this.queue.pollFirst();
+            } else {
+                next = null;
+            }
+        }
+        if (next == null) {
+            log.warn("会话 {} 消息积压超过 {} 条，断开连接", this.session.getId(), this.capacity);
+            closeSession();
+            return false;
+        }
+        write(next);
+        return true;
+    }
+
+    private boolean removeSameKey(String coalesceKey) {
+        if (coalesceKey == null) {
+            return false;
+        }
+        Iterator<WebSocketFrame> iterator = this.queue.iterator();
+        while (iterator.hasNext()) {
+            if (Objects.equals(coalesceKey, iterator.next().coalesceKey())) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(WebSocketFrame frame) {
+        try {
+            if (frame.isBinary()) {
+                this.session.getAsyncRemote().sendBinary(frame.buffer(), this);
+            } else {
+                this.session.getAsyncRemote().sendText(frame.text(), this);
+            }
+        } catch (Exception e) {
+            completed(e);
+        }
+    }
+
+    @Override
+    public void onResult(SendResult result) {
+        completed(result.isOK() ? null : result.getException());
+    }
+
+    /**
+     * 一条消息发送结束，接着发送下一条
+     *
+     * @param error 发送失败的异常
+     */
+    private void completed(Throwable error) {
+        if (error != null) {
+            log.warn("会话 {} 消息发送失败！", this.session.getId(), error);
+        }
+        WebSocketFrame next;
+        synchronized (this) {
+            next = this.closed ? null : this.queue.pollFirst();
+            if (next == null) {
+                this.sending = false;
+                return;
+            }
+        }
+        write(next);
+    }
+
+    /**
+     * 关闭队列，丢掉还没有发送的消息
+     */
+    public void close() {
+        synchronized (this) {
+            this.closed = true;
+            this.queue.clear();
+        }
+    }
+
+    private void closeSession() {
+        try {
+            if (this.session.isOpen()) {
+                this.session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "消息积压"));
+            }
+        } catch (IOException e) {
+            log.warn("关闭会话 {} 失败", this.session.getId(), e);
+        }
+    }
+
+    /**
+     * 排队的消息数
+     *
+     * @return 消息数
+     */
+    public synchronized int size() {
+        return this.queue.size();
+    }
+
+    /**
+     * 丢掉（包括被合并掉）的消息数
+     *
+     * @return 消息数
+     */
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+}
@@ -0,0 +1,159 @@
+package io.github.taybct.tool.core.enhance;
+
+import io.github.taybct.tool.core.annotation.EnhanceElement;
+import io.github.taybct.tool.core.annotation.EnhanceElements;
+import io.github.taybct.tool.core.util.sm.SM4Coder;
+import io.github.taybct.tool.core.util.sm.SM4Engine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link EnDecryptedHandler} 测试，实体集合要按字段走批量处理
+ *
+ * @author XiJieYin <br> 2026/10/18 17:10
+ */
+class EnDecryptedHandlerTest {
+
+    private static final AtomicInteger APPLY = new AtomicInteger();
+
+    private static final AtomicInteger APPLY_BATCH = new AtomicInteger();
+
+    private final EnDecryptedHandler handler = new EnDecryptedHandler();
+
+    @BeforeEach
+    void setUp() {
+        APPLY.set(0);
+        APPLY_BATCH.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.handler.destroy();
+    }
+
+    @Test
+    void entityCollectionIsDecryptedThroughBulkPath() throws NoSuchMethodException {
+        int size = 200;
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Account account = new Account();
+            account.setPhone(SM4Engine.encryptBase64("1380000" + i));
+            account.setEmail(SM4Engine.encryptBase64("user" + i + "@taybct.io"));
+            account.setName("用户" + i);
+            accounts.add(account);
+        }
+        AtomicReference<Object> proceed = new AtomicReference<>(accounts);
+
+        this.handler.after(method(), new String[0], new Object[0], this, null, proceed);
+
+        // 每个字段整批调用一次，没有逐个调用
+        assertEquals(2, APPLY_BATCH.get());
+        assertEquals(0, APPLY.get());
+        assertSame(accounts, proceed.get());
+        for (int i = 0; i < size; i++) {
+            Account account = accounts.get(i);
+            assertEquals("1380000" + i, account.getPhone());
+            assertEquals("user" + i + "@taybct.io", account.getEmail());
+            assertEquals("用户" + i, account.getName());
+        }
+    }
+
+    @Test
+    void bulkCipherMatchesSingleValueCipher() {
+        String[] plain = {"taybct", "中文内容", "", "0123456789abcdef0123456789abcdef"};
+        String[] encrypted = new SM4Coder.En().applyBatch(plain);
+        for (int i = 0; i < plain.length; i++) {
+            assertEquals(SM4Engine.encryptBase64(plain[i]), encrypted[i]);
+        }
+        assertArrayEquals(plain, new SM4Coder.De().applyBatch(encrypted));
+        assertArrayEquals(new String[]{null, "a"}, SM4Engine.decrypt(SM4Engine.encrypt(new String[]{null, "a"})));
+    }
+
+    private Method method() throws NoSuchMethodException {
+        return EnDecryptedHandlerTest.class.getDeclaredMethod("list");
+    }
+
+    /**
+     * 给 {@link EnDecryptedHandler#after} 用的方法，返回值就是实体集合
+     */
+    @SuppressWarnings("unused")
+    List<Account> list() {
+        return List.of();
+    }
+
+    /**
+     * 记录调用方式的 SM4 解密
+     */
+    public static class CountingDecrypt extends SM4Coder.De {
+
+        @Override
+        public String apply(String s) {
+            APPLY.incrementAndGet();
+            return super.apply(s);
+        }
+
+        @Override
+        public String[] applyBatch(String[] values) {
+            APPLY_BATCH.incrementAndGet();
+            return super.applyBatch(values);
+        }
+    }
+
+    /**
+     * 不支持批量的处理器，处理之后的结果要能继续交给批量处理器
+     */
+    public static class Strip implements Function<String, String> {
+
+        @Override
+        public String apply(String s) {
+            return s.strip();
+        }
+    }
+
+    @EnhanceElements
+    public static class Account {
+
+        @EnhanceElement(resultHandler = CountingDecrypt.class)
+        private String phone;
+
+        @EnhanceElement(resultHandler = {Strip.class, CountingDecrypt.class})
+        private String email;
+
+        private String name;
+
+        public String getPhone() {
+            return phone;
+        }
+
+        public void setPhone(String phone) {
+            this.phone = phone;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package io.github.taybct.tool.core.es.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link ESBulkProcessor} 测试
+ *
+ * @author XiJieYin <br> 2026/10/18 17:40
+ */
+class ESBulkProcessorTest {
+
+    @Test
+    void utf8LengthMatchesEncodedSize() {
+        String[] samples = {"", "{\"name\":\"taybct\"}", "{\"name\":\"中文内容\"}", "é ß ü", "emoji 😀 𠀀", "混合 mixed ©"};
+        for (String sample : samples) {
+            assertEquals(sample.getBytes(StandardCharsets.UTF_8).length, ESBulkProcessor.utf8Length(sample), sample);
+        }
+        // 中文按 3 个字节算，是 String#length() 的 3 倍
+        assertEquals(3L * "中文内容".length(), ESBulkProcessor.utf8Length("中文内容"));
+    }
+
+}
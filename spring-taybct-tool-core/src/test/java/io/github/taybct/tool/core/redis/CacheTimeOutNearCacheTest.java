@@ -0,0 +1,53 @@
+package io.github.taybct.tool.core.redis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CacheTimeOutNearCache} 测试
+ *
+ * @author XiJieYin <br> 2026/10/18 18:10
+ */
+class CacheTimeOutNearCacheTest {
+
+    private static final String CACHE_NAME = "dict";
+
+    @Test
+    void evictsLeastRecentlyAccessedWhenFull() {
+        CacheTimeOutNearCache nearCache = new CacheTimeOutNearCache(100, 60_000, message -> {
+        });
+        for (int i = 0; i < 100; i++) {
+            nearCache.put(CACHE_NAME, "k" + i, i, 0);
+        }
+        // 最先放进去的 10 个最近访问过，淘汰的时候要留下来
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, nearCache.get(CACHE_NAME, "k" + i));
+        }
+        nearCache.put(CACHE_NAME, "k100", 100, 0);
+
+        assertEquals(90, nearCache.getStats().get(CACHE_NAME).size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, nearCache.get(CACHE_NAME, "k" + i));
+        }
+        assertEquals(100, nearCache.get(CACHE_NAME, "k100"));
+        assertNull(nearCache.get(CACHE_NAME, "k10"));
+    }
+
+    @Test
+    void expiredValuesAreNotReturned() throws InterruptedException {
+        CacheTimeOutNearCache nearCache = new CacheTimeOutNearCache(100, 60_000, message -> {
+        });
+        nearCache.put(CACHE_NAME, "short", "v", 1);
+        nearCache.put(CACHE_NAME, "long", "v", 60_000);
+        Thread.sleep(10);
+
+        assertNull(nearCache.get(CACHE_NAME, "short"));
+        assertEquals("v", nearCache.get(CACHE_NAME, "long"));
+        CacheTimeOutNearCache.Stats stats = nearCache.getStats().get(CACHE_NAME);
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+}
@@ -0,0 +1,364 @@
+package io.github.taybct.tool.core.websocket.cluster;
+
+import io.github.taybct.tool.core.websocket.support.WebSocketFrame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.lang.Nullable;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RedisWebSocketClusterDelivery} 测试，用内存里面的发布订阅代替 redis，多个节点共用一个
+ *
+ * @author XiJieYin <br> 2026/10/18 16:20
+ */
+class RedisWebSocketClusterDeliveryTest {
+
+    private final WebSocketClusterProperties properties = new WebSocketClusterProperties();
+
+    private InMemoryRedis redis;
+
+    private final List<RedisWebSocketClusterDelivery> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        this.redis = new InMemoryRedis();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.nodes.forEach(RedisWebSocketClusterDelivery::destroy);
+    }
+
+    private RedisWebSocketClusterDelivery node(RecordingReceiver receiver) {
+        RedisWebSocketClusterDelivery delivery = new RedisWebSocketClusterDelivery(this.redis.template(), this.redis.container(), this.properties);
+        delivery.addReceiver(receiver);
+        this.nodes.add(delivery);
+        return delivery;
+    }
+
+    private String userChannel(Long userId) {
+        return this.properties.getUserChannelPrefix() + userId;
+    }
+
+    @Test
+    void subscribeIsReferenceCounted() {
+        RecordingReceiver receiverA = new RecordingReceiver();
+        RecordingReceiver receiverB = new RecordingReceiver();
+        RedisWebSocketClusterDelivery nodeA = node(receiverA);
+        RedisWebSocketClusterDelivery nodeB = node(receiverB);
+
+        // 同一个用户在节点上开了两个会话，只订阅一次
+        nodeA.subscribe(1L);
+        nodeA.subscribe(1L);
+        assertEquals(1, this.redis.subscribeCalls(userChannel(1L)));
+        assertEquals(1, this.redis.listeners(userChannel(1L)));
+
+        // 关掉一个会话还有一个，不能退订
+        nodeA.unsubscribe(1L);
+        assertEquals(0, this.redis.unsubscribeCalls(userChannel(1L)));
+        nodeB.publish(1L, null, new WebSocketFrame("first", null, null));
+        this.redis.awaitPublished(1);
+        assertEquals(List.of("first"), receiverA.texts());
+
+        // 最后一个会话关掉才退订
+        nodeA.unsubscribe(1L);
+        assertEquals(1, this.redis.unsubscribeCalls(userChannel(1L)));
+        assertEquals(0, this.redis.listeners(userChannel(1L)));
+        nodeB.publish(1L, null, new WebSocketFrame("second", null, null));
+        this.redis.awaitPublished(2);
+        assertEquals(List.of("first"), receiverA.texts());
+
+        // 多退订一次不会变成负数，下次订阅还能正常订阅上
+        nodeA.unsubscribe(1L);
+        nodeA.subscribe(1L);
+        assertEquals(2, this.redis.subscribeCalls(userChannel(1L)));
+        assertEquals(1, this.redis.listeners(userChannel(1L)));
+    }
+
+    @Test
+    void doesNotEchoBackToOriginNode() {
+        RecordingReceiver receiverA = new RecordingReceiver();
+        RecordingReceiver receiverB = new RecordingReceiver();
+        RedisWebSocketClusterDelivery nodeA = node(receiverA);
+        RedisWebSocketClusterDelivery nodeB = node(receiverB);
+        nodeA.subscribe(1L);
+        nodeB.subscribe(1L);
+
+        nodeA.publish(1L, null, new WebSocketFrame("to-user", null, null));
+        nodeA.publishAll(new WebSocketFrame("to-all", null, null));
+        this.redis.awaitPublished(2);
+
+        assertTrue(receiverA.deliveries.isEmpty());
+        assertEquals(List.of("to-user", "to-all"), receiverB.texts());
+    }
+
+    @Test
+    void deliversOnlyToNodesSubscribedToTheUserChannel() {
+        RecordingReceiver receiverA = new RecordingReceiver();
+        RecordingReceiver receiverB = new RecordingReceiver();
+        RecordingReceiver receiverC = new RecordingReceiver();
+        RedisWebSocketClusterDelivery nodeA = node(receiverA);
+        node(receiverB).subscribe(1L);
+        node(receiverC).subscribe(2L);
+
+        byte[] bytes = {1, 2, 3};
+        nodeA.publish(1L, "session-1", new WebSocketFrame(null, bytes, "k"));
+        nodeA.publish(2L, null, new WebSocketFrame("hello", null, null));
+        this.redis.awaitPublished(2);
+
+        assertEquals(1, receiverB.deliveries.size());
+        Delivery toB = receiverB.deliveries.getFirst();
+        assertEquals(1L, toB.userId());
+        assertEquals("session-1", toB.sessionId());
+        assertArrayEquals(bytes, toB.frame().bytes());
+        assertEquals("k", toB.frame().coalesceKey());
+
+        assertEquals(1, receiverC.deliveries.size());
+        Delivery toC = receiverC.deliveries.getFirst();
+        assertEquals(2L, toC.userId());
+        assertNull(toC.sessionId());
+        assertEquals("hello", toC.frame().text());
+
+        // 广播所有节点都能收到，不需要订阅用户频道
+        nodeA.publishAll(new WebSocketFrame("all", null, null));
+        this.redis.awaitPublished(3);
+        assertEquals(List.of("all"), receiverB.broadcasts());
+        assertEquals(List.of("all"), receiverC.broadcasts());
+        assertTrue(receiverA.deliveries.isEmpty());
+    }
+
+    @Test
+    void flushesBacklogInOnePipeline() throws InterruptedException {
+        RecordingReceiver receiverB = new RecordingReceiver();
+        RedisWebSocketClusterDelivery nodeA = node(new RecordingReceiver());
+        node(receiverB).subscribe(1L);
+
+        // 第一次发布卡在 pipeline 里面，期间发的消息都积压在队列里
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        this.redis.blockNextPipeline(entered, release);
+        nodeA.publish(1L, null, new WebSocketFrame("0", null, null));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        int backlog = 100;
+        for (int i = 1; i <= backlog; i++) {
+            nodeA.publish(1L, null, new WebSocketFrame(String.valueOf(i), null, null));
+        }
+        release.countDown();
+        this.redis.awaitPublished(backlog + 1);
+
+        // 积压的消息一次网络往返全部发出去，而且顺序不变
+        assertEquals(List.of(1, backlog), this.redis.pipelineSizes());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i <= backlog; i++) {
+            expected.add(String.valueOf(i));
+        }
+        assertEquals(expected, receiverB.texts());
+    }
+
+    @Test
+    void dropsMessagesBeyondMaxPending() throws InterruptedException {
+        this.properties.setMaxPending(5);
+        RecordingReceiver receiverB = new RecordingReceiver();
+        RedisWebSocketClusterDelivery nodeA = node(new RecordingReceiver());
+        node(receiverB).subscribe(1L);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        this.redis.blockNextPipeline(entered, release);
+        nodeA.publish(1L, null, new WebSocketFrame("0", null, null));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 10; i++) {
+            nodeA.publish(1L, null, new WebSocketFrame(String.valueOf(i), null, null));
+        }
+        release.countDown();
+        this.redis.awaitPublished(6);
+
+        assertEquals(List.of("0", "1", "2", "3", "4", "5"), receiverB.texts());
+    }
+
+    /**
+     * 收到的消息
+     *
+     * @param userId    用户 id，广播为 null
+     * @param sessionId 会话 id
+     * @param frame     消息帧
+     */
+    record Delivery(Long userId, String sessionId, WebSocketFrame frame) {
+    }
+
+    /**
+     * 把收到的消息记下来
+     */
+    static class RecordingReceiver implements IWebSocketClusterDelivery.Receiver {
+
+        final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void deliver(Long userId, @Nullable String sessionId, WebSocketFrame frame) {
+            this.deliveries.add(new Delivery(userId, sessionId, frame));
+        }
+
+        @Override
+        public void deliverAll(WebSocketFrame frame) {
+            this.deliveries.add(new Delivery(null, null, frame));
+        }
+
+        List<String> texts() {
+            return this.deliveries.stream().map(delivery -> delivery.frame().text()).toList();
+        }
+
+        List<String> broadcasts() {
+            return this.deliveries.stream().filter(delivery -> delivery.userId() == null).map(delivery -> delivery.frame().text()).toList();
+        }
+
+    }
+
+    /**
+     * 内存里面的 redis 发布订阅，所有节点共用，发布的消息同步交给订阅了频道的监听器
+     */
+    static class InMemoryRedis {
+
+        private final Map<String, List<MessageListener>> channels = new ConcurrentHashMap<>();
+
+        private final Map<String, AtomicInteger> subscribeCalls = new ConcurrentHashMap<>();
+
+        private final Map<String, AtomicInteger> unsubscribeCalls = new ConcurrentHashMap<>();
+
+        private final List<Integer> pipelineSizes = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger published = new AtomicInteger();
+
+        private volatile CountDownLatch blockEntered;
+
+        private volatile CountDownLatch blockRelease;
+
+        void blockNextPipeline(CountDownLatch entered, CountDownLatch release) {
+            this.blockEntered = entered;
+            this.blockRelease = release;
+        }
+
+        int subscribeCalls(String channel) {
+            return this.subscribeCalls.getOrDefault(channel, new AtomicInteger()).get();
+        }
+
+        int unsubscribeCalls(String channel) {
+            return this.unsubscribeCalls.getOrDefault(channel, new AtomicInteger()).get();
+        }
+
+        int listeners(String channel) {
+            return this.channels.getOrDefault(channel, List.of()).size();
+        }
+
+        List<Integer> pipelineSizes() {
+            return this.pipelineSizes;
+        }
+
+        /**
+         * 等发布的消息数量达到 count，同时确认没有多发
+         */
+        void awaitPublished(int count) {
+            await(() -> this.published.get() >= count);
+            assertEquals(count, this.published.get());
+        }
+
+        private void publish(byte[] channel, byte[] body) {
+            String name = new String(channel, StandardCharsets.UTF_8);
+            for (MessageListener listener : this.channels.getOrDefault(name, List.of())) {
+                listener.onMessage(new DefaultMessage(channel, body), null);
+            }
+        }
+
+        RedisMessageListenerContainer container() {
+            return new RedisMessageListenerContainer() {
+                @Override
+                public void addMessageListener(MessageListener listener, Topic topic) {
+                    InMemoryRedis.this.subscribeCalls.computeIfAbsent(topic.getTopic(), t -> new AtomicInteger()).incrementAndGet();
+                    InMemoryRedis.this.channels.computeIfAbsent(topic.getTopic(), t -> new CopyOnWriteArrayList<>()).add(listener);
+                }
+
+                @Override
+                public void removeMessageListener(@Nullable MessageListener listener, Topic topic) {
+                    InMemoryRedis.this.unsubscribeCalls.computeIfAbsent(topic.getTopic(), t -> new AtomicInteger()).incrementAndGet();
+                    InMemoryRedis.this.channels.getOrDefault(topic.getTopic(), new ArrayList<>()).remove(listener);
+                }
+            };
+        }
+
+        RedisTemplate<String, Object> template() {
+            return new RedisTemplate<>() {
+                @Override
+                public List<Object> executePipelined(RedisCallback<?> action) {
+                    CountDownLatch entered = InMemoryRedis.this.blockEntered;
+                    CountDownLatch release = InMemoryRedis.this.blockRelease;
+                    InMemoryRedis.this.blockEntered = null;
+                    InMemoryRedis.this.blockRelease = null;
+                    List<byte[][]> commands = new ArrayList<>();
+                    RedisConnection connection = (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader()
+                            , new Class<?>[]{RedisConnection.class}
+                            , (proxy, method, args) -> {
+                                if ("publish".equals(method.getName()) && args.length == 2) {
+                                    commands.add(new byte[][]{(byte[]) args[0], (byte[]) args[1]});
+                                    return null;
+                                }
+                                throw new UnsupportedOperationException(method.getName());
+                            });
+                    action.doInRedis(connection);
+                    if (entered != null) {
+                        entered.countDown();
+                        try {
+                            assertTrue(release.await(5, TimeUnit.SECONDS));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                    // pipeline 里面的命令一起发出去
+                    InMemoryRedis.this.pipelineSizes.add(commands.size());
+                    for (byte[][] command : commands) {
+                        publish(command[0], command[1]);
+                        InMemoryRedis.this.published.incrementAndGet();
+                    }
+                    return Collections.nCopies(commands.size(), 0L);
+                }
+            };
+        }
+
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("等待超时");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+}